@@ -6,8 +6,9 @@ import dungeonmodel.DungeonGame;
 import dungeonmodel.DungeonGameImpl;
 import dungeonmodel.GeneralPlayer;
 import dungeonmodel.GeneralPlayerImpl;
+import dungeonmodel.GenerationMode;
 import dungeonmodel.NumberGenerationInterface;
-import dungeonmodel.RandomGeneration;
+import dungeonmodel.SeededGeneration;
 import view.GameView;
 import view.IGameView;
 
@@ -27,7 +28,7 @@ public class GameDriver {
    *             difficulty(or Number of Monsters) in that order from the user to construct dungeon.
    */
   public static void main(String[] args) {
-    NumberGenerationInterface random = new RandomGeneration();
+    NumberGenerationInterface random = new SeededGeneration();
     GeneralPlayer player;
     if (args.length == 0) {
       IGameView view = new GameView("Adventure");
@@ -42,11 +43,11 @@ public class GameDriver {
       int treasureArrowPercent = Integer.parseInt(args[5]);
       int difficulty = Integer.parseInt(args[6]);
       player = new GeneralPlayerImpl(playerName);
-      NumberGenerationInterface randomGeneration = new RandomGeneration();
+      NumberGenerationInterface randomGeneration = new SeededGeneration();
       Appendable out = System.out;
       Readable input = new InputStreamReader(System.in);
       DungeonGame game = new DungeonGameImpl(rows, cols, interconnectivity, wrapping,
-              treasureArrowPercent, difficulty, player, randomGeneration);
+              treasureArrowPercent, difficulty, player, randomGeneration, GenerationMode.SHUFFLE);
       DungeonConsoleController controller = new DungeonConsoleControllerImpl(input, out);
       controller.playGame(game);
     } else {
@@ -4,15 +4,13 @@ import dungeonmodel.Directions;
 import dungeonmodel.GeneralLocation;
 import dungeonmodel.GeneralPlayer;
 import dungeonmodel.GeneralPlayerImpl;
+import dungeonmodel.GenerationMode;
 import dungeonmodel.MonsterStatus;
-import dungeonmodel.NumberGenerationInterface;
 import dungeonmodel.PitsThievesDungeonImpl;
 import dungeonmodel.PitsThievesDungeon;
-import dungeonmodel.PredictiveGeneration;
-import dungeonmodel.RandomGeneration;
+import dungeonmodel.SeededGeneration;
 import view.IGameView;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -25,7 +23,7 @@ public class DungeonGuiControllerImpl implements DungeonGuiController {
   private PitsThievesDungeon model;
   private PitsThievesDungeon reUsableModel;
   private final IGameView view;
-  private List<Integer> randomSeed;
+  private long randomSeed;
   private static final String SPACE_STRING = " ";
 
   /**
@@ -34,7 +32,7 @@ public class DungeonGuiControllerImpl implements DungeonGuiController {
    */
   public DungeonGuiControllerImpl(IGameView view) {
     this.view = view;
-    this.randomSeed = new ArrayList<>();
+    this.randomSeed = 0;
   }
 
   /**
@@ -57,21 +55,22 @@ public class DungeonGuiControllerImpl implements DungeonGuiController {
   public void createModel(int rows, int cols, boolean wrapping, int interconnectivity,
                                  int treasurePercent, int numOfMonster, String playerName) {
     GeneralPlayer player = new GeneralPlayerImpl(playerName);
-    NumberGenerationInterface random = new RandomGeneration();
+    SeededGeneration random = new SeededGeneration();
     try {
       this.model = new PitsThievesDungeonImpl(rows, cols, interconnectivity, wrapping,
-              treasurePercent, numOfMonster, player, random);
+              treasurePercent, numOfMonster, player, random, GenerationMode.SHUFFLE);
     }
     catch (IllegalArgumentException exception) {
       this.view.showErrorMessageForModelCreation(exception.getMessage());
       return;
     }
 
-    this.randomSeed = this.model.getRandomSeed();
+    this.randomSeed = random.getSeed();
     this.reUsableModel = new PitsThievesDungeonImpl(this.model.getRowsInBoard(),
             model.getColsInBoard(), model.getInterConnectivity(), model.getWrapping(),
             model.getTreasureArrowPercent(), model.getNumberOfMonsters(),
-            new GeneralPlayerImpl(playerName), new PredictiveGeneration(this.randomSeed));
+            new GeneralPlayerImpl(playerName), new SeededGeneration(this.randomSeed),
+            GenerationMode.SHUFFLE);
     this.view.setGameFeatures(this);
     int[] playerPossessions = getPlayerPossessions();
     int[] locationInfo = getLocationPossessions();
@@ -202,7 +201,7 @@ public class DungeonGuiControllerImpl implements DungeonGuiController {
             reUsableModel.getWrapping(), reUsableModel.getTreasureArrowPercent(),
             reUsableModel.getNumberOfMonsters(),
             new GeneralPlayerImpl(reUsableModel.getPlayerName()),
-            new PredictiveGeneration(this.randomSeed));
+            new SeededGeneration(this.randomSeed), GenerationMode.SHUFFLE);
     StringBuilder status = new StringBuilder();
     playerPossessions = getPlayerPossessions();
     locationInfo = getLocationPossessions();
@@ -0,0 +1,169 @@
+package dungeonmodel;
+
+import java.util.Arrays;
+
+/**
+ * This class computes shortest path lengths between the caves of a {@link CaveGraph} with
+ * Dijkstra's algorithm, where every edge weighs the number of steps along it. Since runs of
+ * tunnels are single edges of the cave graph, the lengths are the same as the number of steps
+ * between the caves in the dungeon.
+ *
+ * <p>Scratch buffers are allocated once and reused by every query, hence a single object must not
+ * be queried from more than one thread at a time.
+ */
+public final class CaveDistances {
+  private final int[] offsets;
+  private final int[] targets;
+  private final int[] lengths;
+  private final int[] distances;
+  private final int[] visitStamps;
+  private final boolean[] settled;
+  private final long[] heap;
+  private int currentStamp;
+
+  // Constructs cave distances for the given weighted graph in compressed sparse row form.
+  CaveDistances(int[] offsets, int[] targets, int[] lengths) {
+    this.offsets = offsets;
+    this.targets = targets;
+    this.lengths = lengths;
+    int caveCount = offsets.length - 1;
+    this.distances = new int[caveCount];
+    this.visitStamps = new int[caveCount];
+    this.settled = new boolean[caveCount];
+    // Every edge adds at most one entry to the heap, along with the source.
+    this.heap = new long[targets.length + 1];
+    this.currentStamp = 0;
+  }
+
+  /**
+   * Returns number of caves in the graph.
+   * @return number of caves.
+   */
+  public int getCaveCount() {
+    return this.distances.length;
+  }
+
+  /**
+   * Returns the length of the shortest path between the given caves.
+   * @param source Source cave.
+   * @param target Target cave.
+   * @return shortest path length, -1 if target cannot be reached from source.
+   * @throws IllegalArgumentException if any of the caves is not in the graph.
+   */
+  public int distance(int source, int target) {
+    checkCave(source);
+    checkCave(target);
+    return search(source, target);
+  }
+
+  /**
+   * Computes the length of the shortest path from source to every cave in the graph.
+   * @param source Source cave.
+   * @param result Array of at least {@link #getCaveCount()} entries that is filled with the
+   *               distances, -1 for caves that cannot be reached.
+   * @throws IllegalArgumentException if source is not in the graph or result is too small.
+   */
+  public void distancesFrom(int source, int[] result) {
+    checkCave(source);
+    if (result == null || result.length < getCaveCount()) {
+      throw new IllegalArgumentException("Result must have an entry for every cave");
+    }
+    search(source, -1);
+    for (int cave = 0; cave < getCaveCount(); cave++) {
+      result[cave] = this.visitStamps[cave] == this.currentStamp ? this.distances[cave] : -1;
+    }
+  }
+
+  // Runs Dijkstra's algorithm from source, stops early once target is settled. Heap entries hold
+  // the distance in the upper half and the cave in the lower half, so they order by distance.
+  // Returns distance to target or -1 if target is not reached.
+  private int search(int source, int target) {
+    nextStamp();
+    int size = 0;
+    this.distances[source] = 0;
+    this.visitStamps[source] = this.currentStamp;
+    this.settled[source] = false;
+    size = push(size, 0, source);
+    while (size > 0) {
+      long top = this.heap[0];
+      size = pop(size);
+      int cave = (int) top;
+      int distance = (int) (top >>> 32);
+      if (this.settled[cave] || distance > this.distances[cave]) {
+        continue;
+      }
+      this.settled[cave] = true;
+      if (cave == target) {
+        return distance;
+      }
+      for (int edge = this.offsets[cave]; edge < this.offsets[cave + 1]; edge++) {
+        int next = this.targets[edge];
+        int nextDistance = distance + this.lengths[edge];
+        if (this.visitStamps[next] != this.currentStamp) {
+          this.visitStamps[next] = this.currentStamp;
+          this.settled[next] = false;
+          this.distances[next] = nextDistance;
+          size = push(size, nextDistance, next);
+        }
+        else if (!this.settled[next] && nextDistance < this.distances[next]) {
+          this.distances[next] = nextDistance;
+          size = push(size, nextDistance, next);
+        }
+      }
+    }
+    return -1;
+  }
+
+  private int push(int size, int distance, int cave) {
+    long entry = ((long) distance << 32) | cave;
+    int index = size;
+    while (index > 0) {
+      int parent = (index - 1) / 2;
+      if (this.heap[parent] <= entry) {
+        break;
+      }
+      this.heap[index] = this.heap[parent];
+      index = parent;
+    }
+    this.heap[index] = entry;
+    return size + 1;
+  }
+
+  private int pop(int size) {
+    size--;
+    long entry = this.heap[size];
+    int index = 0;
+    while (true) {
+      int child = 2 * index + 1;
+      if (child >= size) {
+        break;
+      }
+      if (child + 1 < size && this.heap[child + 1] < this.heap[child]) {
+        child++;
+      }
+      if (entry <= this.heap[child]) {
+        break;
+      }
+      this.heap[index] = this.heap[child];
+      index = child;
+    }
+    this.heap[index] = entry;
+    return size;
+  }
+
+  // Moves to a new stamp so that the earlier search results are treated as not visited, stamps
+  // are cleared only once they wrap around.
+  private void nextStamp() {
+    this.currentStamp++;
+    if (this.currentStamp == Integer.MAX_VALUE) {
+      Arrays.fill(this.visitStamps, 0);
+      this.currentStamp = 1;
+    }
+  }
+
+  private void checkCave(int cave) {
+    if (cave < 0 || cave >= getCaveCount()) {
+      throw new IllegalArgumentException(String.format("Cave %d is not in the graph", cave));
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package dungeonmodel;
+
+/**
+ * This class represents the paths of a dungeon between caves only. A tunnel always has exactly two
+ * paths, so every run of tunnels between two caves is collapsed into a single edge that records
+ * the number of steps it takes along with the direction it leaves the first cave in and the
+ * direction of its last step into the other cave. Caves are numbered from 0 in row major order of
+ * their locations, the same order in which the dungeon lists its caves.
+ *
+ * <p>Every edge is stored from both of its caves. A run of tunnels that leaves a cave and comes
+ * back to it is stored as an edge from the cave to itself, once for each of its ends.
+ */
+public final class CaveGraph {
+  private static final Directions[] DIRECTIONS = Directions.values();
+  private final int[] caveCells;
+  private final int[] caveOfCell;
+  private final int[] offsets;
+  private final int[] targets;
+  private final int[] lengths;
+  private final byte[] exitDirections;
+  private final byte[] entryDirections;
+
+  // Constructs cave graph from the paths of the given dungeon graph.
+  CaveGraph(DungeonGraph graph) {
+    int cellCount = graph.getCellCount();
+    this.caveOfCell = new int[cellCount];
+    int caveCount = 0;
+    for (int cell = 0; cell < cellCount; cell++) {
+      this.caveOfCell[cell] = graph.isCave(cell) ? caveCount++ : -1;
+    }
+    this.caveCells = new int[caveCount];
+    this.offsets = new int[caveCount + 1];
+    for (int cell = 0; cell < cellCount; cell++) {
+      if (this.caveOfCell[cell] != -1) {
+        this.caveCells[this.caveOfCell[cell]] = cell;
+        this.offsets[this.caveOfCell[cell] + 1] =
+                Integer.bitCount(graph.getDirectionMask(cell));
+      }
+    }
+    for (int cave = 0; cave < caveCount; cave++) {
+      this.offsets[cave + 1] += this.offsets[cave];
+    }
+    int edgeCount = this.offsets[caveCount];
+    this.targets = new int[edgeCount];
+    this.lengths = new int[edgeCount];
+    this.exitDirections = new byte[edgeCount];
+    this.entryDirections = new byte[edgeCount];
+    for (int cave = 0; cave < caveCount; cave++) {
+      int cell = this.caveCells[cave];
+      int edge = this.offsets[cave];
+      for (Directions exit : DIRECTIONS) {
+        int next = graph.getNeighbour(cell, exit);
+        if (next == -1) {
+          continue;
+        }
+        // Walk through the tunnels until the next cave is reached.
+        int previous = cell;
+        Directions step = exit;
+        int length = 1;
+        while (!graph.isCave(next)) {
+          int following = graph.getNeighbour(next, 0) == previous ? graph.getNeighbour(next, 1)
+                  : graph.getNeighbour(next, 0);
+          step = getDirection(graph, next, following);
+          previous = next;
+          next = following;
+          length++;
+        }
+        this.targets[edge] = this.caveOfCell[next];
+        this.lengths[edge] = length;
+        this.exitDirections[edge] = (byte) exit.ordinal();
+        this.entryDirections[edge] = (byte) step.ordinal();
+        edge++;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of caves in the dungeon.
+   * @return number of caves.
+   */
+  public int getCaveCount() {
+    return this.caveCells.length;
+  }
+
+  /**
+   * Returns the cell of the given cave, i.e. {@code row * cols + col} of its location.
+   * @param cave Given cave.
+   * @return cell of the cave.
+   */
+  public int getCell(int cave) {
+    return this.caveCells[cave];
+  }
+
+  /**
+   * Returns the cave at the given cell.
+   * @param cell Given cell.
+   * @return cave at the cell, -1 if the cell is a tunnel.
+   */
+  public int getCave(int cell) {
+    return this.caveOfCell[cell];
+  }
+
+  /**
+   * Returns the number of edges that leave the given cave.
+   * @param cave Given cave.
+   * @return number of edges.
+   */
+  public int getDegree(int cave) {
+    return this.offsets[cave + 1] - this.offsets[cave];
+  }
+
+  /**
+   * Returns the cave at the other end of an edge of the given cave.
+   * @param cave Given cave.
+   * @param index Index of the edge, from 0 to degree - 1.
+   * @return cave the edge leads to.
+   * @throws IndexOutOfBoundsException if index is not a valid edge index.
+   */
+  public int getTarget(int cave, int index) {
+    return this.targets[getEdge(cave, index)];
+  }
+
+  /**
+   * Returns the number of steps along an edge of the given cave, one more than the number of
+   * tunnels on it.
+   * @param cave Given cave.
+   * @param index Index of the edge, from 0 to degree - 1.
+   * @return length of the edge.
+   * @throws IndexOutOfBoundsException if index is not a valid edge index.
+   */
+  public int getLength(int cave, int index) {
+    return this.lengths[getEdge(cave, index)];
+  }
+
+  /**
+   * Returns the direction in which an edge leaves the given cave.
+   * @param cave Given cave.
+   * @param index Index of the edge, from 0 to degree - 1.
+   * @return direction of the first step of the edge.
+   * @throws IndexOutOfBoundsException if index is not a valid edge index.
+   */
+  public Directions getExitDirection(int cave, int index) {
+    return DIRECTIONS[this.exitDirections[getEdge(cave, index)]];
+  }
+
+  /**
+   * Returns the direction in which an edge of the given cave enters the cave at its other end.
+   * @param cave Given cave.
+   * @param index Index of the edge, from 0 to degree - 1.
+   * @return direction of the last step of the edge.
+   * @throws IndexOutOfBoundsException if index is not a valid edge index.
+   */
+  public Directions getEntryDirection(int cave, int index) {
+    return DIRECTIONS[this.entryDirections[getEdge(cave, index)]];
+  }
+
+  /**
+   * Returns a new object to compute distances between caves of this dungeon.
+   * @return cave distances of the dungeon.
+   */
+  public CaveDistances newCaveDistances() {
+    return new CaveDistances(this.offsets, this.targets, this.lengths);
+  }
+
+  private int getEdge(int cave, int index) {
+    if (index < 0 || index >= getDegree(cave)) {
+      throw new IndexOutOfBoundsException(String.format("Cave %d doesn't have edge %d", cave,
+              index));
+    }
+    return this.offsets[cave] + index;
+  }
+
+  // Returns direction in which neighbour lies from the cell.
+  private static Directions getDirection(DungeonGraph graph, int cell, int neighbour) {
+    for (Directions direction : DIRECTIONS) {
+      if (graph.getNeighbour(cell, direction) == neighbour) {
+        return direction;
+      }
+    }
+    throw new IllegalStateException("Neighbour is not in any direction of the cell");
+  }
+}
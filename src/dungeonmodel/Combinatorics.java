@@ -0,0 +1,22 @@
+package dungeonmodel;
+
+// This class includes exact combinatorial helpers computed in long arithmetic. Every helper
+// throws an ArithmeticException instead of silently overflowing.
+final class Combinatorics {
+
+  private Combinatorics() {
+    // Helper class, hence not meant to be instantiated.
+  }
+
+  // Returns number of ways of choosing two items out of n items, i.e. n * (n - 1) / 2.
+  static long combinationsOfTwo(long n) {
+    if (n < 2) {
+      return 0;
+    }
+    // One of n and n - 1 is even, dividing it first keeps the product exact.
+    if (n % 2 == 0) {
+      return Math.multiplyExact(n / 2, n - 1);
+    }
+    return Math.multiplyExact(n, (n - 1) / 2);
+  }
+}
@@ -0,0 +1,94 @@
+package dungeonmodel;
+
+import java.util.Arrays;
+
+/**
+ * This class represents a disjoint set (union find) over the elements 0 to size - 1. Finds use
+ * path halving and unions link the smaller set under the larger one, hence both operations run in
+ * nearly constant amortized time. It is used to detect cycles while building the dungeon.
+ */
+public final class DisjointSet {
+  private final int[] parents;
+  private final int[] sizes;
+  private int setCount;
+
+  /**
+   * Constructs a disjoint set where every element is in a set of its own.
+   * @param size Number of elements.
+   * @throws IllegalArgumentException if size is negative.
+   */
+  public DisjointSet(int size) {
+    if (size < 0) {
+      throw new IllegalArgumentException("Size of disjoint set cannot be negative");
+    }
+    this.parents = new int[size];
+    this.sizes = new int[size];
+    for (int i = 0; i < size; i++) {
+      this.parents[i] = i;
+    }
+    Arrays.fill(this.sizes, 1);
+    this.setCount = size;
+  }
+
+  /**
+   * Returns the representative of the set the given element belongs to.
+   * @param element Element to look for.
+   * @return representative element of the set.
+   */
+  public int find(int element) {
+    while (this.parents[element] != element) {
+      this.parents[element] = this.parents[this.parents[element]];
+      element = this.parents[element];
+    }
+    return element;
+  }
+
+  /**
+   * Merges the sets that contain the given elements.
+   * @param first First element.
+   * @param second Second element.
+   * @return true if the sets were merged, false if both elements are already in the same set.
+   */
+  public boolean union(int first, int second) {
+    int firstRoot = find(first);
+    int secondRoot = find(second);
+    if (firstRoot == secondRoot) {
+      return false;
+    }
+    if (this.sizes[firstRoot] < this.sizes[secondRoot]) {
+      int temp = firstRoot;
+      firstRoot = secondRoot;
+      secondRoot = temp;
+    }
+    this.parents[secondRoot] = firstRoot;
+    this.sizes[firstRoot] += this.sizes[secondRoot];
+    this.setCount--;
+    return true;
+  }
+
+  /**
+   * Checks if both the elements are in the same set.
+   * @param first First element.
+   * @param second Second element.
+   * @return true if they are connected, false otherwise.
+   */
+  public boolean connected(int first, int second) {
+    return find(first) == find(second);
+  }
+
+  /**
+   * Returns the number of disjoint sets.
+   * @return number of sets.
+   */
+  public int getSetCount() {
+    return this.setCount;
+  }
+
+  /**
+   * Returns the number of elements.
+   * @return number of elements.
+   */
+  public int size() {
+    return this.parents.length;
+  }
+}
@@ -0,0 +1,188 @@
+package dungeonmodel;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/**
+ * This class generates many dungeons concurrently on the given executor, which can be a fixed
+ * pool, a fork join pool or one that starts a virtual thread per task. Parameters are pulled from
+ * the stream only while fewer than the allowed number of dungeons are pending, so a long or lazy
+ * stream never piles up work or finished dungeons in memory. Finished dungeons are handed to the
+ * consumer on the calling thread, one at a time.
+ *
+ * <p>Dungeons are generated in {@link GenerationMode#SHUFFLE} mode with random numbers drawn only
+ * from the seed of their parameters, hence a batch generates the same dungeons no matter how
+ * many threads the executor has.
+ */
+public final class DungeonBatchGenerator {
+  private static final String PLAYER_NAME = "Player";
+  private final Executor executor;
+  private final int maxPending;
+  private final ResultOrder resultOrder;
+
+  /**
+   * Constructs a batch generator.
+   * @param executor Executor that generates the dungeons.
+   * @param maxPending Maximum number of dungeons that are being generated or are waiting to be
+   *                   handed to the consumer at any time.
+   * @param resultOrder Order in which the dungeons are handed to the consumer.
+   * @throws IllegalArgumentException if executor or resultOrder is null
+   *                                  or if maxPending is less than or equal to zero.
+   */
+  public DungeonBatchGenerator(Executor executor, int maxPending, ResultOrder resultOrder) {
+    if (executor == null) {
+      throw new IllegalArgumentException("Executor cannot be null");
+    }
+    if (maxPending <= 0) {
+      throw new IllegalArgumentException("Maximum pending dungeons must be positive");
+    }
+    if (resultOrder == null) {
+      throw new IllegalArgumentException("Result order cannot be null");
+    }
+    this.executor = executor;
+    this.maxPending = maxPending;
+    this.resultOrder = resultOrder;
+  }
+
+  /**
+   * Generates a dungeon for every parameters of the stream and hands each of them to the
+   * consumer along with its parameters. Returns once all of them are handed over. If any dungeon
+   * cannot be generated, or the executor doesn't take the task of a dungeon, no more parameters
+   * are taken, the dungeons already being generated are waited for and an exception is thrown.
+   * @param parameters Stream of parameters of the dungeons.
+   * @param consumer Consumer of the generated dungeons.
+   * @throws IllegalArgumentException if parameters or consumer is null.
+   * @throws IllegalStateException if a dungeon cannot be generated
+   *                               or if the executor doesn't take the task of a dungeon
+   *                               or if the calling thread is interrupted while waiting.
+   */
+  public void generate(Stream<DungeonParameters> parameters,
+                       BiConsumer<DungeonParameters, DungeonGame> consumer) {
+    if (parameters == null || consumer == null) {
+      throw new IllegalArgumentException("Parameters and consumer cannot be null");
+    }
+    Iterator<DungeonParameters> iterator = parameters.iterator();
+    // Tasks in the order they were submitted and, for completion order, in the order they
+    // finished.
+    ArrayDeque<BatchTask> submitted = new ArrayDeque<>();
+    BlockingQueue<BatchTask> finished = this.resultOrder == ResultOrder.COMPLETION
+            ? new LinkedBlockingQueue<>() : null;
+    int index = 0;
+    BatchTask failed = null;
+    // Checking for the next parameters already pulls them from the stream, hence that is done
+    // only once there is room for them.
+    while (failed == null) {
+      if (submitted.size() == this.maxPending) {
+        failed = handOver(submitted, finished, consumer);
+      }
+      else if (iterator.hasNext()) {
+        BatchTask task = new BatchTask(index++, iterator.next(), finished);
+        try {
+          this.executor.execute(task);
+        }
+        catch (RuntimeException e) {
+          // A task the executor doesn't take fails the batch like one that could not generate
+          // its dungeon, once the tasks it did take are finished.
+          task.failure = e;
+          failed = task;
+          break;
+        }
+        submitted.add(task);
+      }
+      else {
+        break;
+      }
+    }
+    while (!submitted.isEmpty()) {
+      BatchTask task = handOver(submitted, finished, failed == null ? consumer : null);
+      if (failed == null) {
+        failed = task;
+      }
+    }
+    if (failed != null) {
+      throw new IllegalStateException(String.format("Dungeon %d of the batch with parameters %s "
+              + "could not be generated", failed.index, failed.parameters), failed.failure);
+    }
+  }
+
+  // Waits for the next task in result order and hands its dungeon to the consumer, if given.
+  // Returns the task if it failed, null otherwise.
+  private BatchTask handOver(ArrayDeque<BatchTask> submitted, BlockingQueue<BatchTask> finished,
+                             BiConsumer<DungeonParameters, DungeonGame> consumer) {
+    BatchTask task;
+    try {
+      if (this.resultOrder == ResultOrder.SUBMISSION) {
+        task = submitted.peekFirst();
+        task.await();
+      }
+      else {
+        task = finished.take();
+      }
+    }
+    catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Batch generation was interrupted", e);
+    }
+    submitted.remove(task);
+    if (task.failure != null) {
+      return task;
+    }
+    if (consumer != null) {
+      consumer.accept(task.parameters, task.game);
+    }
+    return null;
+  }
+
+  // Generates a single dungeon and reports it as finished, to the given queue if there is one.
+  private static final class BatchTask implements Runnable {
+    private final int index;
+    private final DungeonParameters parameters;
+    private final BlockingQueue<BatchTask> finished;
+    private DungeonGame game;
+    private Throwable failure;
+    private boolean done;
+
+    BatchTask(int index, DungeonParameters parameters, BlockingQueue<BatchTask> finished) {
+      this.index = index;
+      this.parameters = parameters;
+      this.finished = finished;
+    }
+
+    @Override
+    public void run() {
+      DungeonGame result = null;
+      Throwable error = null;
+      try {
+        result = new DungeonGameImpl(this.parameters.getRows(), this.parameters.getCols(),
+                this.parameters.getInterconnectivity(), this.parameters.isWrapping(),
+                this.parameters.getTreasureArrowPercent(), this.parameters.getDifficulty(),
+                new GeneralPlayerImpl(PLAYER_NAME),
+                new SeededGeneration(this.parameters.getSeed()),
+                GenerationMode.SHUFFLE);
+      }
+      catch (RuntimeException | Error e) {
+        error = e;
+      }
+      synchronized (this) {
+        this.game = result;
+        this.failure = error;
+        this.done = true;
+        notifyAll();
+      }
+      if (this.finished != null) {
+        this.finished.add(this);
+      }
+    }
+
+    synchronized void await() throws InterruptedException {
+      while (!this.done) {
+        wait();
+      }
+    }
+  }
+}
@@ -0,0 +1,341 @@
+package dungeonmodel;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * This class saves a dungeon game to a compact binary file and loads it back without generating
+ * the dungeon again. The file starts with a magic number and a format version, followed by the
+ * settings of the dungeon, its start, end and the location of the player, the pits and thieves
+ * counts and the state of the player. After that every location has a byte of flags, holding the
+ * directions of its paths and whether it is visited, has a pit or a thief, and a byte for the
+ * health of its monster. Treasures and arrows are only written for the locations that have any.
+ * Last come the paths that legacy generation connected more than once, as a location and the
+ * direction of the path, east or south, once for every extra time. Files of version 1 have no such
+ * paths and are still loaded.
+ *
+ * <p>Files are loaded by memory mapping them. The paths are read straight into the graph of the
+ * dungeon, while a location is only created from its saved state when it is first asked for.
+ * Random numbers that the game draws after it is loaded come from the number generator given to
+ * {@link #load(Path, NumberGenerationInterface)}.
+ */
+public final class DungeonFile {
+  private static final int MAGIC = 0x44474e53;
+  private static final int VERSION = 2;
+  private static final int WRAPPING = 1;
+  private static final int PITS_AND_THIEVES = 2;
+  private static final int TREASURE_KINDS = Treasures.values().length;
+
+  private DungeonFile() {
+  }
+
+  /**
+   * Saves the given game to the given file, replacing the file if it exists. Games with pits and
+   * thieves are loaded back as such.
+   * @param game Game to save.
+   * @param path Path of the file to write.
+   * @throws IllegalArgumentException if game or path is null.
+   * @throws IOException if the file cannot be written.
+   */
+  public static void save(DungeonGameImpl game, Path path) throws IOException {
+    if (game == null || path == null) {
+      throw new IllegalArgumentException("Game and path cannot be null");
+    }
+    int cellCount = game.getRowsInBoard() * game.getColsInBoard();
+    byte[] cellFlags = new byte[cellCount];
+    byte[] monsters = new byte[cellCount];
+    int itemCellCount = 0;
+    // Locations of a loaded game that are not created yet are still as they were saved, so they
+    // are copied from the saved state rather than created.
+    DungeonState saved = game.getSavedState();
+    for (int cell = 0; cell < cellCount; cell++) {
+      Location location = game.getCreatedLocation(cell);
+      if (location == null) {
+        cellFlags[cell] = saved.cellFlags[cell];
+        monsters[cell] = saved.monsters[cell];
+        if (Arrays.binarySearch(saved.itemCells, cell) >= 0) {
+          itemCellCount++;
+        }
+        continue;
+      }
+      int flags = game.getGraph().getDirectionMask(cell);
+      if (location.getVisited()) {
+        flags |= DungeonState.VISITED;
+      }
+      if (location.locationHasPit()) {
+        flags |= DungeonState.PIT;
+      }
+      if (location.locationHasThief()) {
+        flags |= DungeonState.THIEF;
+      }
+      cellFlags[cell] = (byte) flags;
+      monsters[cell] = DungeonState.encodeMonster(location.getMonster());
+      if (location.getArrowCount() > 0 || location.getTreasures().size() > 0) {
+        itemCellCount++;
+      }
+    }
+    int[] repeatedPaths = getRepeatedPaths(game.getGraph());
+    GeneralPlayerImpl player = (GeneralPlayerImpl) game.player;
+    byte[] name = player.getPlayerName() == null ? null
+            : player.getPlayerName().getBytes(StandardCharsets.UTF_8);
+    int size = 4 * 13 + 2 + (name == null ? 0 : name.length) + 1 + 4 * 2
+            + 4 * TREASURE_KINDS + 2 * cellCount + 4
+            + itemCellCount * 4 * (2 + TREASURE_KINDS) + 4 + repeatedPaths.length * 4;
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    boolean pitsAndThieves = game instanceof PitsThievesDungeonImpl;
+    buffer.putInt(MAGIC);
+    buffer.putInt(VERSION);
+    buffer.put((byte) ((game.getWrapping() ? WRAPPING : 0)
+            | (pitsAndThieves ? PITS_AND_THIEVES : 0)));
+    buffer.put((byte) game.getGenerationMode().ordinal());
+    buffer.putInt(game.getRowsInBoard());
+    buffer.putInt(game.getColsInBoard());
+    buffer.putInt(game.getInterConnectivity());
+    buffer.putInt(game.getTreasureArrowPercent());
+    buffer.putInt(game.getNumberOfMonsters());
+    buffer.putInt(game.getOneDIndex(game.getStartLocation()));
+    buffer.putInt(game.getOneDIndex(game.getEndLocation()));
+    buffer.putInt(game.getOneDIndex(game.getPlayerCurrentLocation()));
+    buffer.putInt(pitsAndThieves ? ((PitsThievesDungeonImpl) game).getPitCount() : 0);
+    buffer.putInt(pitsAndThieves ? ((PitsThievesDungeonImpl) game).getThiefCount() : 0);
+    buffer.putInt(name == null ? -1 : name.length);
+    if (name != null) {
+      buffer.put(name);
+    }
+    buffer.put((byte) (player.getPlayerStatus() ? 1 : 0));
+    buffer.putInt(player.getDeathReason());
+    buffer.putInt(player.getArrow());
+    for (Treasures kind : Treasures.values()) {
+      buffer.putInt(player.getTreasureCount(kind));
+    }
+    buffer.put(cellFlags);
+    buffer.put(monsters);
+    buffer.putInt(itemCellCount);
+    for (int cell = 0; cell < cellCount; cell++) {
+      Location location = game.getCreatedLocation(cell);
+      if (location == null) {
+        int item = Arrays.binarySearch(saved.itemCells, cell);
+        if (item >= 0) {
+          buffer.putInt(cell);
+          buffer.putInt(saved.itemArrows[item]);
+          for (int kind = 0; kind < TREASURE_KINDS; kind++) {
+            buffer.putInt(saved.itemTreasures[item * TREASURE_KINDS + kind]);
+          }
+        }
+      }
+      else if (location.getArrowCount() > 0 || location.getTreasures().size() > 0) {
+        buffer.putInt(cell);
+        buffer.putInt(location.getArrowCount());
+        for (Treasures kind : Treasures.values()) {
+          buffer.putInt(location.getTreasureCount(kind));
+        }
+      }
+    }
+    buffer.putInt(repeatedPaths.length / 2);
+    for (int value : repeatedPaths) {
+      buffer.putInt(value);
+    }
+    buffer.flip();
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+  }
+
+  /**
+   * Loads the game saved in the given file.
+   * @param path Path of the file to read.
+   * @param numberGenerationInterface Number Generator interface for the rest of the game.
+   * @return the loaded game, a {@link PitsThievesDungeonImpl} if the saved game had pits and
+   *         thieves.
+   * @throws IllegalArgumentException if path or numberGenerationInterface is null
+   *                                  or if the file is not a valid dungeon file.
+   * @throws IOException if the file cannot be read.
+   */
+  public static DungeonGameImpl load(Path path, NumberGenerationInterface numberGenerationInterface)
+          throws IOException {
+    if (path == null || numberGenerationInterface == null) {
+      throw new IllegalArgumentException("Path and number generation interface cannot be null");
+    }
+    ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    try {
+      return read(buffer, numberGenerationInterface);
+    }
+    catch (BufferUnderflowException e) {
+      throw new IllegalArgumentException(String.format("%s is not a complete dungeon file",
+              path));
+    }
+  }
+
+  private static DungeonGameImpl read(ByteBuffer buffer,
+                                      NumberGenerationInterface numberGenerationInterface) {
+    if (buffer.getInt() != MAGIC) {
+      throw new IllegalArgumentException("File is not a dungeon file");
+    }
+    int version = buffer.getInt();
+    if (version != 1 && version != VERSION) {
+      throw new IllegalArgumentException(String.format("Dungeon file version %d is not supported",
+              version));
+    }
+    int flags = buffer.get();
+    int generationMode = buffer.get();
+    if (generationMode < 0 || generationMode >= GenerationMode.values().length) {
+      throw new IllegalArgumentException("Saved generation mode is not valid");
+    }
+    int rows = buffer.getInt();
+    int cols = buffer.getInt();
+    int interconnectivity = buffer.getInt();
+    int treasureArrowPercent = buffer.getInt();
+    int difficulty = buffer.getInt();
+    if (rows <= 0 || cols <= 0 || (long) rows * cols > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(String.format("Dungeon of size: (%d, %d) is not valid",
+              rows, cols));
+    }
+    int cellCount = rows * cols;
+    int startCell = readCell(buffer, cellCount);
+    int endCell = readCell(buffer, cellCount);
+    int playerCell = readCell(buffer, cellCount);
+    int pitCount = buffer.getInt();
+    int thiefCount = buffer.getInt();
+    int nameLength = buffer.getInt();
+    String name = null;
+    if (nameLength >= 0) {
+      checkRemaining(buffer, nameLength);
+      byte[] nameBytes = new byte[nameLength];
+      buffer.get(nameBytes);
+      name = new String(nameBytes, StandardCharsets.UTF_8);
+    }
+    boolean alive = buffer.get() != 0;
+    int deathReason = buffer.getInt();
+    int arrows = buffer.getInt();
+    TreasureCounter treasures = new TreasureCounter();
+    for (Treasures kind : Treasures.values()) {
+      treasures.add(kind, readCount(buffer));
+    }
+    checkRemaining(buffer, 2L * cellCount);
+    byte[] cellFlags = new byte[cellCount];
+    byte[] monsters = new byte[cellCount];
+    buffer.get(cellFlags);
+    buffer.get(monsters);
+    int itemCellCount = buffer.getInt();
+    if (itemCellCount < 0 || itemCellCount > cellCount) {
+      throw new IllegalArgumentException("Saved treasures and arrows are not valid");
+    }
+    checkRemaining(buffer, 4L * (2 + TREASURE_KINDS) * itemCellCount);
+    int[] itemCells = new int[itemCellCount];
+    int[] itemArrows = new int[itemCellCount];
+    int[] itemTreasures = new int[itemCellCount * TREASURE_KINDS];
+    for (int i = 0; i < itemCellCount; i++) {
+      itemCells[i] = readCell(buffer, cellCount);
+      if (i > 0 && itemCells[i] <= itemCells[i - 1]) {
+        throw new IllegalArgumentException("Saved treasures and arrows are not valid");
+      }
+      itemArrows[i] = readCount(buffer);
+      for (int kind = 0; kind < TREASURE_KINDS; kind++) {
+        itemTreasures[i * TREASURE_KINDS + kind] = readCount(buffer);
+      }
+    }
+    int repeatedCount = version == 1 ? 0 : buffer.getInt();
+    if (repeatedCount < 0) {
+      throw new IllegalArgumentException("Saved paths of the dungeon are not valid");
+    }
+    checkRemaining(buffer, 8L * repeatedCount);
+    int[] repeatedCells = new int[repeatedCount];
+    Directions[] repeatedDirections = new Directions[repeatedCount];
+    for (int i = 0; i < repeatedCount; i++) {
+      repeatedCells[i] = readCell(buffer, cellCount);
+      int direction = buffer.getInt();
+      if (direction != Directions.EAST.ordinal() && direction != Directions.SOUTH.ordinal()) {
+        throw new IllegalArgumentException("Saved paths of the dungeon are not valid");
+      }
+      repeatedDirections[i] = Directions.values()[direction];
+    }
+    DungeonState state = new DungeonState(rows, cols, (flags & WRAPPING) != 0,
+            (flags & PITS_AND_THIEVES) != 0, GenerationMode.values()[generationMode],
+            interconnectivity, treasureArrowPercent, difficulty, startCell, endCell, playerCell,
+            pitCount, thiefCount, cellFlags, monsters, itemCells, itemArrows, itemTreasures,
+            repeatedCells, repeatedDirections);
+    GeneralPlayer player = new GeneralPlayerImpl(name, treasures, arrows, alive, deathReason);
+    if (state.pitsAndThieves) {
+      return new PitsThievesDungeonImpl(state, player, numberGenerationInterface);
+    }
+    return new DungeonGameImpl(state, player, numberGenerationInterface);
+  }
+
+  // Returns the paths of the graph that are connected more than once, as pairs of a cell and the
+  // ordinal of the direction of the path, east or south, once for every extra time. Only legacy
+  // generation connects a path again, hence mostly nothing is returned. A path from a cell to
+  // itself is listed twice among the neighbours of the cell, once for each of its ends.
+  private static int[] getRepeatedPaths(DungeonGraph graph) {
+    Directions[] pathDirections = {Directions.EAST, Directions.SOUTH};
+    int[] repeatedPaths = new int[0];
+    int count = 0;
+    // A neighbour across a wrapped dimension of two cells is in two directions, so the directions
+    // don't tell if a cell of such a dungeon has repeated paths.
+    boolean mirrored = graph.getRows() == 2 || graph.getCols() == 2;
+    for (int cell = 0; cell < graph.getCellCount(); cell++) {
+      if (!mirrored && graph.getDegree(cell) == Integer.bitCount(graph.getDirectionMask(cell))) {
+        continue;
+      }
+      for (Directions direction : pathDirections) {
+        int neighbour = graph.getNeighbour(cell, direction);
+        if (neighbour == -1
+                || DungeonGraph.isMirrored(graph.getRows(), graph.getCols(), cell, direction)) {
+          continue;
+        }
+        int times = 0;
+        for (int i = 0; i < graph.getDegree(cell); i++) {
+          if (graph.getNeighbour(cell, i) == neighbour) {
+            times++;
+          }
+        }
+        if (neighbour == cell) {
+          times /= 2;
+        }
+        for (; times > 1; times--) {
+          if (count == repeatedPaths.length) {
+            repeatedPaths = Arrays.copyOf(repeatedPaths, Math.max(2 * count, 8));
+          }
+          repeatedPaths[count++] = cell;
+          repeatedPaths[count++] = direction.ordinal();
+        }
+      }
+    }
+    return Arrays.copyOf(repeatedPaths, count);
+  }
+
+  // Checks that the buffer has the given number of bytes left, before they are allocated.
+  private static void checkRemaining(ByteBuffer buffer, long bytes) {
+    if (buffer.remaining() < bytes) {
+      throw new BufferUnderflowException();
+    }
+  }
+
+  private static int readCell(ByteBuffer buffer, int cellCount) {
+    int cell = buffer.getInt();
+    if (cell < 0 || cell >= cellCount) {
+      throw new IllegalArgumentException(String.format("Saved location %d is not in the dungeon",
+              cell));
+    }
+    return cell;
+  }
+
+  private static int readCount(ByteBuffer buffer) {
+    int count = buffer.getInt();
+    if (count < 0) {
+      throw new IllegalArgumentException("Saved count cannot be negative");
+    }
+    return count;
+  }
+}
@@ -1,15 +1,15 @@
 package dungeonmodel;
 
-import java.math.BigInteger;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.function.IntPredicate;
 
 /**
  * This class represents the actual dungeon game and all the methods that can be operated on the
@@ -24,14 +24,29 @@ public class DungeonGameImpl implements DungeonGame {
   private final GeneralLocation[][] dungeon;
   private GeneralLocation start;
   private GeneralLocation end;
-  private final int[] parentNodes;
   private final int treasureArrowPercent;
   protected final NumberGenerationInterface numberGenerationInterface;
   protected GeneralLocation playerCurrentLocation;
   private final int difficulty;
+  private final GenerationMode generationMode;
+  private final MazeFile maze;
+  private DungeonGraph graph;
+  private CaveGraph caveGraph;
+  private CaveDistances caveDistances;
+  private SmellField smellField;
+  private TunnelPassThrough tunnelPassThrough;
+  private PlacementSampler placementSampler;
+  private int[] caveCells;
+  private int[] tunnelCells;
+  private int[] allCells;
+  private int[] connectedPaths;
+  private int connectedPathCount;
+  private DungeonState savedState;
 
   /**
-   * Constructs a new dungeon game object.
+   * Constructs a new dungeon game object that is generated in {@link GenerationMode#LEGACY} mode,
+   * so that random numbers recorded earlier build the same game again. New games should be
+   * generated in one of the other modes.
    * @param rows Number of rows in dungeon.
    * @param cols Number of cols in dungeon.
    * @param interconnectivity Interconnectivity of dungeon.
@@ -54,6 +69,82 @@ public class DungeonGameImpl implements DungeonGame {
                          int difficulty,
                          GeneralPlayer player,
                          NumberGenerationInterface numberGenerationInterface) {
+    this(rows, cols, interconnectivity, wrapping, treasureArrowPercent, difficulty, player,
+            numberGenerationInterface, GenerationMode.LEGACY);
+  }
+
+  /**
+   * Constructs a new dungeon game object.
+   * @param rows Number of rows in dungeon.
+   * @param cols Number of cols in dungeon.
+   * @param interconnectivity Interconnectivity of dungeon.
+   * @param wrapping Represents if dungeon should be wrapped or not.
+   * @param treasureArrowPercent Percentage of caves that should be treasured.
+   *                        Also, adds arrows of given percent in both caves and tunnels.
+   * @param player Player playing the game.
+   * @param numberGenerationInterface Number Generator interface.
+   * @param difficulty Represents number of monsters in dungeon.
+   * @param generationMode Represents how random numbers are consumed to generate the dungeon.
+   * @throws IllegalArgumentException  if rows are negative
+   *                                or if cols are negative
+   *                                or if interconnectivity are negative
+   *                                or if treasureArrowPercent is negative or greater than 100.
+   *                                or if difficulty is less than or equal to zero.
+   *                                or if player is null
+   *                                or if numberGenerationInterface is null
+   *                                or if generationMode is null.
+   */
+  public DungeonGameImpl(int rows, int cols, int interconnectivity, boolean wrapping,
+                         int treasureArrowPercent,
+                         int difficulty,
+                         GeneralPlayer player,
+                         NumberGenerationInterface numberGenerationInterface,
+                         GenerationMode generationMode) {
+    this(rows, cols, interconnectivity, wrapping, treasureArrowPercent, difficulty, player,
+            numberGenerationInterface, generationMode, null);
+  }
+
+  /**
+   * Constructs a new dungeon game object whose spanning tree is read from the given maze file, the
+   * rest of the dungeon is generated in {@link GenerationMode#ROW_BY_ROW} mode. The remaining rows
+   * of the maze are read but the maze is not closed. Although the maze is read one row at a time,
+   * the game creates a location for every cell and keeps the whole dungeon in memory, about 190
+   * bytes per location for a 1000 x 1000 dungeon. Hence only mazes whose dungeon fits in the heap
+   * can be loaded, a maze of 10^8 cells would need about 19 GB of it. Larger mazes can be looked
+   * at through a {@link MazeDungeon}, which doesn't keep the dungeon in memory.
+   * @param maze Maze file to read the spanning tree from.
+   * @param interconnectivity Interconnectivity of dungeon.
+   * @param wrapping Represents if dungeon should be wrapped or not.
+   * @param treasureArrowPercent Percentage of caves that should be treasured.
+   *                        Also, adds arrows of given percent in both caves and tunnels.
+   * @param player Player playing the game.
+   * @param numberGenerationInterface Number Generator interface.
+   * @param difficulty Represents number of monsters in dungeon.
+   * @throws IllegalArgumentException  if maze is null or has too many rows
+   *                                or if the maze doesn't describe a spanning tree
+   *                                or if interconnectivity are negative
+   *                                or if treasureArrowPercent is negative or greater than 100.
+   *                                or if difficulty is less than or equal to zero.
+   *                                or if player is null
+   *                                or if numberGenerationInterface is null.
+   * @throws UncheckedIOException if the maze cannot be read.
+   */
+  public DungeonGameImpl(MazeFile maze, int interconnectivity, boolean wrapping,
+                         int treasureArrowPercent,
+                         int difficulty,
+                         GeneralPlayer player,
+                         NumberGenerationInterface numberGenerationInterface) {
+    this(getMazeRows(maze), maze.getCols(), interconnectivity, wrapping, treasureArrowPercent,
+            difficulty, player, numberGenerationInterface, GenerationMode.ROW_BY_ROW, maze);
+  }
+
+  private DungeonGameImpl(int rows, int cols, int interconnectivity, boolean wrapping,
+                          int treasureArrowPercent,
+                          int difficulty,
+                          GeneralPlayer player,
+                          NumberGenerationInterface numberGenerationInterface,
+                          GenerationMode generationMode,
+                          MazeFile maze) {
     if (rows < 0 || cols < 0) {
       throw new IllegalArgumentException("Number of rows, columns cannot be negative");
     }
@@ -73,6 +164,9 @@ public class DungeonGameImpl implements DungeonGame {
     if (numberGenerationInterface == null) {
       throw new IllegalArgumentException("Number generation interface cannot be null");
     }
+    if (generationMode == null) {
+      throw new IllegalArgumentException("Generation mode cannot be null");
+    }
     this.rows = rows;
     this.cols = cols;
     this.interconnectivity = interconnectivity;
@@ -81,8 +175,10 @@ public class DungeonGameImpl implements DungeonGame {
     this.wrapping = wrapping;
     this.player = player;
     this.dungeon = new GeneralLocation[this.rows][this.cols];
-    this.parentNodes = new int[this.rows * this.cols];
     this.numberGenerationInterface = numberGenerationInterface;
+    this.generationMode = generationMode;
+    this.maze = maze;
+    this.placementSampler = new PlacementSampler(numberGenerationInterface);
     this.start = null;
     this.end = null;
     this.playerCurrentLocation = null;
@@ -90,44 +186,244 @@ public class DungeonGameImpl implements DungeonGame {
     ((Location)this.playerCurrentLocation).setVisited();
   }
 
+  // Constructs a dungeon game from the given saved state, without generating it again.
+  DungeonGameImpl(DungeonState state, GeneralPlayer player,
+                  NumberGenerationInterface numberGenerationInterface) {
+    this.rows = state.rows;
+    this.cols = state.cols;
+    this.interconnectivity = state.interconnectivity;
+    this.treasureArrowPercent = state.treasureArrowPercent;
+    this.difficulty = state.difficulty;
+    this.wrapping = state.wrapping;
+    this.player = player;
+    this.dungeon = new GeneralLocation[this.rows][this.cols];
+    this.numberGenerationInterface = numberGenerationInterface;
+    this.generationMode = state.generationMode;
+    this.maze = null;
+    this.placementSampler = new PlacementSampler(numberGenerationInterface);
+    restoreDungeon(state);
+  }
+
+  private static int getMazeRows(MazeFile maze) {
+    if (maze == null) {
+      throw new IllegalArgumentException("Maze cannot be null");
+    }
+    if (maze.getRows() > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(String.format("Maze of %d rows is too large for a dungeon",
+              maze.getRows()));
+    }
+    return (int) maze.getRows();
+  }
 
   // Creates dungeon for the dungeon game.
   private void createDungeon() {
     // Creating locations in dungeon.
     for (int row = 0; row < this.rows; row++) {
       for (int col = 0; col < this.cols; col++) {
-        this.dungeon[row][col] = new Location(new Point2D(row, col));
+        this.dungeon[row][col] = new Location(this, getEquivalentOneDIndex(row, col));
       }
     }
-    List<LocationMap> potentialPaths;
-    potentialPaths = makePotentialPaths(wrapping);
-    List<LocationMap> unusedPaths;
-    unusedPaths = buildMst(potentialPaths);
-    if (this.interconnectivity > unusedPaths.size()) {
+    // Legacy generation draws from every wrapping edge, as it always has, so that recorded random
+    // numbers pick the same paths.
+    GridEdges potentialPaths = new GridEdges(this.rows, this.cols, this.wrapping,
+            this.generationMode == GenerationMode.LEGACY);
+    // Paths are recorded in the order they are connected and turned into the graph once all of
+    // them are known.
+    this.connectedPaths = new int[potentialPaths.size()];
+    this.connectedPathCount = 0;
+    int[] unusedPaths;
+    if (this.generationMode == GenerationMode.LEGACY) {
+      unusedPaths = buildMst(potentialPaths);
+    }
+    else if (this.generationMode == GenerationMode.ROW_BY_ROW) {
+      unusedPaths = buildMstByRows(potentialPaths);
+    }
+    else if (this.generationMode == GenerationMode.TILED) {
+      unusedPaths = buildMstFromTiles(potentialPaths);
+    }
+    else {
+      unusedPaths = buildMstFromShuffledPaths(potentialPaths);
+    }
+    if (this.interconnectivity > unusedPaths.length) {
       throw new IllegalArgumentException(String.format("Interconnectivity of %d is not possible for"
               + " the dungeon of size: (%d, %d)", this.interconnectivity, this.rows, this.cols));
     }
-    incorporateInterConnectivity(unusedPaths);
-    addTreasuresToDungeon();
-    getStartEndLocations();
-    addMonstersToDungeon();
-    addArrowsToDungeon();
+    incorporateInterConnectivity(potentialPaths, unusedPaths);
+    buildGraph(potentialPaths);
+    this.caveGraph = new CaveGraph(this.graph);
+    this.caveDistances = this.caveGraph.newCaveDistances();
+    this.smellField = new SmellField(this.graph);
+    if (this.generationMode == GenerationMode.LEGACY) {
+      addTreasuresToDungeon();
+      getStartEndLocations();
+      addMonstersToDungeon();
+      addArrowsToDungeon();
+    }
+    else {
+      sampleTreasures();
+      getStartEndLocationsFromDistances();
+      sampleMonsters();
+      sampleArrows();
+    }
+  }
+
+  // Restores dungeon from the given saved state. Paths are connected in row major order, hence
+  // adjacencies of every location are listed in that order instead of the order the paths were
+  // generated in. Locations are only created from the saved state when they are first asked for,
+  // so a large dungeon is loaded without creating an object for every location.
+  private void restoreDungeon(DungeonState state) {
+    this.graph = new DungeonGraph(this.rows, this.cols, this.wrapping, state.cellFlags,
+            state.repeatedCells, state.repeatedDirections);
+    this.smellField = new SmellField(this.graph);
+    for (int cell = 0; cell < this.rows * this.cols; cell++) {
+      if (this.graph.getDirectionMask(cell)
+              != (state.cellFlags[cell] & DungeonState.DIRECTION_MASK)) {
+        throw new IllegalArgumentException("Saved paths of the dungeon are not consistent");
+      }
+      if (state.monsters[cell] != 0 && DungeonState.decodeMonster(state.monsters[cell]) > 0) {
+        this.smellField.addMonster(cell);
+      }
+    }
+    this.savedState = state;
+    this.start = getLocationFromOneDIndex(state.startCell);
+    this.end = getLocationFromOneDIndex(state.endCell);
+    this.playerCurrentLocation = getLocationFromOneDIndex(state.playerCell);
+  }
+
+  // Creates the location of the given cell from the saved state, with its flags, monster,
+  // treasures and arrows.
+  private Location restoreLocation(int cell) {
+    Location location = new Location(this, cell);
+    int flags = this.savedState.cellFlags[cell];
+    if ((flags & DungeonState.VISITED) != 0) {
+      location.setVisited();
+    }
+    if ((flags & DungeonState.PIT) != 0) {
+      location.addPit();
+    }
+    if ((flags & DungeonState.THIEF) != 0) {
+      location.addThief();
+    }
+    if (this.savedState.monsters[cell] != 0) {
+      location.addMonster();
+      location.getMonster().assignDamage(DungeonState.decodeMonster(
+              this.savedState.monsters[cell]));
+    }
+    int item = Arrays.binarySearch(this.savedState.itemCells, cell);
+    if (item >= 0) {
+      if (this.savedState.itemArrows[item] > 0) {
+        location.addArrows(this.savedState.itemArrows[item]);
+      }
+      for (Treasures kind : Treasures.values()) {
+        int count = this.savedState.itemTreasures[item * DungeonState.TREASURE_KINDS
+                + kind.ordinal()];
+        if (count > 0) {
+          location.addTreasures(kind, count);
+        }
+      }
+    }
+    return location;
+  }
+
+  // Lists cells of all the caves, all the tunnels and all the locations once, to draw placements
+  // from.
+  private void buildPlacementCandidates() {
+    CaveGraph caves = getCaveGraph();
+    this.caveCells = new int[caves.getCaveCount()];
+    for (int cave = 0; cave < this.caveCells.length; cave++) {
+      this.caveCells[cave] = caves.getCell(cave);
+    }
+    this.tunnelCells = new int[this.graph.getCellCount() - this.caveCells.length];
+    int tunnelCount = 0;
+    for (int cell = 0; cell < this.graph.getCellCount(); cell++) {
+      if (!this.graph.isCave(cell)) {
+        this.tunnelCells[tunnelCount++] = cell;
+      }
+    }
+    this.allCells = new int[this.graph.getCellCount()];
+    for (int cell = 0; cell < this.allCells.length; cell++) {
+      this.allCells[cell] = cell;
+    }
+  }
+
+  // Selects up to count distinct caves for which eligible holds, drawn without replacement.
+  // Returns cells of the selected caves, fewer than count if not enough caves are eligible.
+  protected int[] sampleCaves(int count, IntPredicate eligible) {
+    if (this.caveCells == null) {
+      buildPlacementCandidates();
+    }
+    return sample(this.caveCells, count, eligible);
+  }
+
+  // Selects up to count distinct tunnels for which eligible holds, drawn without replacement.
+  // Returns cells of the selected tunnels, fewer than count if not enough tunnels are eligible.
+  protected int[] sampleTunnels(int count, IntPredicate eligible) {
+    if (this.tunnelCells == null) {
+      buildPlacementCandidates();
+    }
+    return sample(this.tunnelCells, count, eligible);
+  }
+
+  // Selects up to count distinct locations for which eligible holds, drawn without replacement.
+  // Returns cells of the selected locations, fewer than count if not enough are eligible.
+  protected int[] sampleCells(int count, IntPredicate eligible) {
+    if (this.allCells == null) {
+      buildPlacementCandidates();
+    }
+    return sample(this.allCells, count, eligible);
+  }
+
+  private int[] sample(int[] candidates, int count, IntPredicate eligible) {
+    int[] selected = new int[Math.max(Math.min(count, candidates.length), 0)];
+    int selectedCount = this.placementSampler.select(candidates, selected.length, eligible,
+            selected);
+    return selectedCount == selected.length ? selected : Arrays.copyOf(selected, selectedCount);
+  }
+
+  // Returns the generation mode of the dungeon.
+  protected GenerationMode getGenerationMode() {
+    return this.generationMode;
   }
 
-  // Returns nCr value.
-  private BigInteger nCombinationOfTwo(int n) {
-    return (factorial(n)).divide(factorial(2).multiply(factorial(n - 2)));
+  // Builds graph from the connected paths. Locations read their paths from it.
+  private void buildGraph(GridEdges potentialPaths) {
+    this.graph = new DungeonGraph(this.rows, this.cols, this.wrapping, potentialPaths,
+            this.connectedPaths, this.connectedPathCount);
+    this.connectedPaths = null;
   }
 
-  // Returns factorial of an integer.
-  private BigInteger factorial(int number) {
-    // Initialize result
-    BigInteger f = new BigInteger("1");
+  /**
+   * Returns the read only graph of the paths in this dungeon.
+   * @return graph of the dungeon.
+   */
+  public DungeonGraph getGraph() {
+    return this.graph;
+  }
 
-    for (int i = 2; i <= number; i++) {
-      f = f.multiply(BigInteger.valueOf(i));
+  /**
+   * Returns distances over the paths of this dungeon. Location at (row, col) is the vertex
+   * {@code row * cols + col}. Every call returns an object with scratch buffers of its own, so
+   * callers can run queries independent of the dungeon and of each other.
+   * @return graph distances of the dungeon.
+   */
+  public GraphDistances getGraphDistances() {
+    return this.graph.newGraphDistances();
+  }
+
+  // The cave graph of a loaded dungeon is only built when it is first asked for.
+  @Override
+  public CaveGraph getCaveGraph() {
+    if (this.caveGraph == null) {
+      this.caveGraph = new CaveGraph(this.graph);
     }
-    return f;
+    return this.caveGraph;
+  }
+
+  private CaveDistances getCaveDistances() {
+    if (this.caveDistances == null) {
+      this.caveDistances = getCaveGraph().newCaveDistances();
+    }
+    return this.caveDistances;
   }
 
   @Override
@@ -143,14 +439,27 @@ public class DungeonGameImpl implements DungeonGame {
 
   // Gets possible directions from a given location.
   protected List<Directions> getPossibleDirections() {
-    Map<Directions, GeneralLocation> dirsPossible =
-            this.playerCurrentLocation.getPossibleDirectionMoves(this.rows, this.cols);
+    int cell = getOneDIndex(this.playerCurrentLocation);
     ArrayList<Directions> directions = new ArrayList<>();
-    directions.addAll(dirsPossible.keySet());
+    for (Directions direction : Directions.values()) {
+      if (this.graph.hasNeighbour(cell, direction)) {
+        directions.add(direction);
+      }
+    }
     directions.sort(Comparator.comparing(Enum::toString));
     return directions;
   }
 
+  // Gets location next to the given location in the given direction, null if there is no path in
+  // that direction.
+  protected GeneralLocation getNeighbour(GeneralLocation location, Directions direction) {
+    int neighbour = this.graph.getNeighbour(getOneDIndex(location), direction);
+    if (neighbour == -1) {
+      return null;
+    }
+    return getLocationFromOneDIndex(neighbour);
+  }
+
   @Override
   public boolean hasPit(GeneralLocation location) {
     Location location1 = (Location) location;
@@ -160,22 +469,34 @@ public class DungeonGameImpl implements DungeonGame {
 
   @Override
   public Smell getSmellInLocation(GeneralLocation location) {
-    Location concretePlayerLoc = (Location) location;
-    return concretePlayerLoc.getSmellInCave();
+    return this.smellField.getSmell(getOneDIndex(location));
   }
 
   @Override
   public List<Integer> getRandomSeed() {
+    if (!(this.numberGenerationInterface instanceof RandomGeneration)) {
+      throw new IllegalStateException("Random numbers are recorded only by random generation, "
+              + "seeded generation can be replayed from its seed");
+    }
     return ((RandomGeneration)this.numberGenerationInterface).getRandomValuesList();
   }
 
+  @Override
+  public RandomTape getRandomTape() {
+    if (!(this.numberGenerationInterface instanceof RandomGeneration)) {
+      throw new IllegalStateException("Random numbers are recorded only by random generation, "
+              + "seeded generation can be replayed from its seed");
+    }
+    return ((RandomGeneration)this.numberGenerationInterface).getRandomTape();
+  }
+
 
   @Override
   public String getPlayerCurrLocationInfo() {
     GeneralLocation playerCurrentLocation = this.playerCurrentLocation;
     StringBuilder stringBuilder = new StringBuilder();
     Location location = (Location) playerCurrentLocation;
-    Smell smell = location.getSmellInCave();
+    Smell smell = getSmellInLocation(location);
     if (smell != null) {
       stringBuilder.append("You smell something ").append(smell).append(" here\n");
     }
@@ -186,10 +507,9 @@ public class DungeonGameImpl implements DungeonGame {
     else {
       stringBuilder.append("tunnel\n");
     }
-    if (getCumulativeTreasures(playerCurrentLocation.getTreasuresList()).size() > 0) {
+    if (location.getTreasures().size() > 0) {
       stringBuilder.append("You find ");
-      Map<Treasures, Integer> cumTreasures =
-              getCumulativeTreasures(playerCurrentLocation.getTreasuresList());
+      Map<Treasures, Integer> cumTreasures = getCumulativeTreasures(location.getTreasures());
       for (Map.Entry<Treasures, Integer> entry : cumTreasures.entrySet()) {
         stringBuilder.append(entry.getValue()).append(" ").append(entry.getKey()).append(", ");
       }
@@ -206,15 +526,11 @@ public class DungeonGameImpl implements DungeonGame {
   }
 
   // Cumulate treasures and returns them with count.
-  private Map<Treasures, Integer> getCumulativeTreasures(List<Treasures> treasuresList) {
-    Map<Treasures, Integer> cumulativeTreasures = new TreeMap<>();
-    for (int i = 0; i < treasuresList.size(); i++) {
-      Treasures t = treasuresList.get(i);
-      if (cumulativeTreasures.containsKey(t)) {
-        cumulativeTreasures.put(t, cumulativeTreasures.get(t) + 1);
-      }
-      else {
-        cumulativeTreasures.put(t, 1);
+  private Map<Treasures, Integer> getCumulativeTreasures(TreasureCounter treasures) {
+    Map<Treasures, Integer> cumulativeTreasures = new EnumMap<>(Treasures.class);
+    for (Treasures t : Treasures.values()) {
+      if (treasures.count(t) > 0) {
+        cumulativeTreasures.put(t, treasures.count(t));
       }
     }
     return cumulativeTreasures;
@@ -222,10 +538,9 @@ public class DungeonGameImpl implements DungeonGame {
 
   // Computes and returns start and end locations.
   private void getStartEndLocations() {
-    List<LocationMap> consideredEdges = new ArrayList<>();
+    LongHashSet consideredEdges = new LongHashSet();
     List<GeneralLocation> caves = getCavesInDungeon();
-    BigInteger numOfCombinations = nCombinationOfTwo(caves.size());
-    numOfCombinations = numOfCombinations.divide(BigInteger.TWO);
+    long numOfCombinations = Combinatorics.combinationsOfTwo(caves.size()) / 2;
     if (caves.size() < 2) {
       throw new IllegalArgumentException("Two nodes with 5 units apart are not found for this "
                                          + "dungeonmodel");
@@ -233,17 +548,16 @@ public class DungeonGameImpl implements DungeonGame {
     int randomCave1 = this.numberGenerationInterface.getIntInRange(0, caves.size() - 1);
     int randomCave2 = this.numberGenerationInterface.getIntInRange(0, caves.size() - 1);
     while (findDistance(caves.get(randomCave1), caves.get(randomCave2)) <= 5
-            && numOfCombinations.compareTo(BigInteger.ZERO) > 0) {
-      if (!consideredEdges.contains(new LocationMap(caves.get(randomCave1),
-              caves.get(randomCave2)))) {
-        numOfCombinations = numOfCombinations.subtract(BigInteger.ONE);
-        consideredEdges.add(new LocationMap(caves.get(randomCave1), caves.get(randomCave2)));
+            && numOfCombinations > 0) {
+      if (consideredEdges.add(LongHashSet.pairOf(getOneDIndex(caves.get(randomCave1)),
+              getOneDIndex(caves.get(randomCave2))))) {
+        numOfCombinations--;
       }
       randomCave1 = this.numberGenerationInterface.getIntInRange(0, caves.size() - 1);
       randomCave2 = this.numberGenerationInterface.getIntInRange(0, caves.size() - 1);
     }
 
-    if (numOfCombinations.compareTo(BigInteger.ZERO) <= 0) {
+    if (numOfCombinations <= 0) {
       throw new IllegalArgumentException("Two nodes with 5 units apart are not found for this "
                                          + "dungeonmodel");
     }
@@ -253,42 +567,59 @@ public class DungeonGameImpl implements DungeonGame {
   }
 
 
-  // Find distance between two given points.
-  // Reference: https://www.geeksforgeeks.org/breadth-first-search-or-bfs-for-a-graph/
-  private int findDistance(GeneralLocation source, GeneralLocation destination) {
-    boolean[] visited = new boolean[this.rows * this.cols];
-    // Create a queue for BFS.
-    LinkedList<GeneralLocation> queue = new LinkedList<>();
-    int[] distance = new int[this.rows * this.cols];
-    // Mark the current node as visited and enqueue it
-    visited[getEquivalentOneDIndex(source.getLocation().getX(), source.getLocation().getY())] =
-            true;
-    distance[getEquivalentOneDIndex(source.getLocation().getX(), source.getLocation().getY())] = 0;
-    queue.add(source);
-    while (queue.size() != 0) {
-      // Dequeue a vertex from queue and print it
-      source = queue.poll();
-
-      // Get all adjacent vertices of the dequeued vertex s
-      // If a adjacent has not been visited, then mark it
-      // visited and enqueue it
-      List<GeneralLocation> adjacencies = source.getAdjacencyList();
-      ListIterator<GeneralLocation> iterator = adjacencies.listIterator();
-
-      while (iterator.hasNext()) {
-        GeneralLocation next = iterator.next();
-        int oneDIndex = getEquivalentOneDIndex(next.getLocation().getX(),
-                next.getLocation().getY());
-        if (!visited[oneDIndex]) {
-          distance[oneDIndex] = distance[getEquivalentOneDIndex(source.getLocation().getX(),
-                  source.getLocation().getY())] + 1;
-          visited[oneDIndex] = true;
-          queue.add(next);
+  // Computes and returns start and end locations. Caves are tried as start in a random order and
+  // for each of them distances to all the other caves are computed once, end is then picked
+  // uniformly from the caves that are more than 5 units away from start.
+  private void getStartEndLocationsFromDistances() {
+    List<GeneralLocation> caves = getCavesInDungeon();
+    int caveCount = caves.size();
+    if (caveCount < 2) {
+      throw new IllegalArgumentException("Two nodes with 5 units apart are not found for this "
+                                         + "dungeonmodel");
+    }
+    int[] startCandidates = new int[caveCount];
+    for (int cave = 0; cave < caveCount; cave++) {
+      startCandidates[cave] = cave;
+    }
+    int[] distance = new int[caveCount];
+    int[] endCandidates = new int[caveCount];
+    for (int i = 0; i < caveCount; i++) {
+      int randomIndex = this.numberGenerationInterface.getIntInRange(i, caveCount - 1);
+      int startCave = startCandidates[randomIndex];
+      startCandidates[randomIndex] = startCandidates[i];
+      startCandidates[i] = startCave;
+      // Caves of the dungeon are listed in the same order as the caves of the cave graph.
+      this.caveDistances.distancesFrom(startCave, distance);
+      int endCandidateCount = 0;
+      int farthestCave = 0;
+      for (int cave = 0; cave < caveCount; cave++) {
+        int caveDistance = distance[cave];
+        farthestCave = Math.max(farthestCave, caveDistance);
+        if (caveDistance > 5) {
+          endCandidates[endCandidateCount++] = cave;
         }
       }
+      if (endCandidateCount > 0) {
+        int endCave = endCandidates[this.numberGenerationInterface
+                .getIntInRange(0, endCandidateCount - 1)];
+        this.start = caves.get(startCave);
+        this.playerCurrentLocation = this.start;
+        this.end = caves.get(endCave);
+        return;
+      }
+      // Any two caves are at most twice the farthest cave apart, so no other start can work.
+      if (2 * farthestCave <= 5) {
+        break;
+      }
     }
-    return distance[getEquivalentOneDIndex(destination.getLocation().getX(),
-            destination.getLocation().getY())];
+    throw new IllegalArgumentException("Two nodes with 5 units apart are not found for this "
+                                       + "dungeonmodel");
+  }
+
+  // Find distance between two given caves.
+  private int findDistance(GeneralLocation source, GeneralLocation destination) {
+    return getCaveDistances().distance(getCaveGraph().getCave(getOneDIndex(source)),
+            getCaveGraph().getCave(getOneDIndex(destination)));
   }
 
   // Adds specified percentage of treasures to dungeon.
@@ -304,7 +635,7 @@ public class DungeonGameImpl implements DungeonGame {
       int randomCaveCol = this.numberGenerationInterface
               .getIntInRange(0, this.cols - 1);
       Location location1 =  (Location)this.dungeon[randomCaveRow][randomCaveCol];
-      if (location1.getTreasuresList().size() > 0) {
+      if (location1.getTreasures().size() > 0) {
         continue;
       }
       int randomNumberOfTreasures = this.numberGenerationInterface.getIntInRange(1, 3);
@@ -327,13 +658,14 @@ public class DungeonGameImpl implements DungeonGame {
   private void addMonstersToDungeon() {
     Location end = (Location) this.end;
     // Adding monster to end location.
-    end.addMonster();
+    addMonster(end);
     List<GeneralLocation> caves = this.getCavesInDungeon();
     // Subtracting 1, since monster is allotted to end.
     int tempMonsterCount = this.difficulty - 1;
     int cavesCount = caves.size();
-    if (tempMonsterCount >= cavesCount) {
-      // Since end has monster and start shouldn't have monster.
+    if (tempMonsterCount > cavesCount - 2) {
+      // Since end has monster and start shouldn't have monster. Asking for exactly one monster
+      // more than that used to keep drawing forever, so no recorded seed depends on it.
       tempMonsterCount = cavesCount - 2;
     }
     else {
@@ -346,12 +678,57 @@ public class DungeonGameImpl implements DungeonGame {
         continue;
       }
       if (!caveLocation.hasMonster()) {
-        caveLocation.addMonster();
+        addMonster(caveLocation);
         tempMonsterCount--;
       }
     }
   }
 
+  // Adds specified percentage of treasures to distinct caves drawn without replacement.
+  private void sampleTreasures() {
+    int treasuredCaves = (int) (this.caveGraph.getCaveCount()
+            * (this.treasureArrowPercent / 100.0));
+    int[] selected = sampleCaves(treasuredCaves, cell -> true);
+    Treasures[] treasures = Treasures.values();
+    for (int cell : selected) {
+      Location location = (Location) getLocationFromOneDIndex(cell);
+      int treasureCount = this.numberGenerationInterface.getIntInRange(1, 3);
+      for (int i = 0; i < treasureCount; i++) {
+        location.addTreasures(treasures[this.numberGenerationInterface
+                .getIntInRange(0, treasures.length - 1)]);
+      }
+    }
+  }
+
+  // Adds monster to end and to requested number of other caves drawn without replacement. Start
+  // never has a monster.
+  private void sampleMonsters() {
+    addMonster((Location) this.end);
+    int startCell = getOneDIndex(this.start);
+    int endCell = getOneDIndex(this.end);
+    int monsterCount = Math.min(this.difficulty - 1, this.caveGraph.getCaveCount() - 2);
+    int[] selected = sampleCaves(monsterCount, cell -> cell != startCell && cell != endCell);
+    for (int cell : selected) {
+      addMonster((Location) getLocationFromOneDIndex(cell));
+    }
+  }
+
+  // Adds arrows to specified percentage of all the locations drawn without replacement.
+  private void sampleArrows() {
+    int arrowedLocations = (int) (this.graph.getCellCount()
+            * (this.treasureArrowPercent / 100.0));
+    for (int cell : sampleCells(arrowedLocations, cell -> true)) {
+      ((Location) getLocationFromOneDIndex(cell))
+              .addArrows(this.numberGenerationInterface.getIntInRange(1, 3));
+    }
+  }
+
+  // Adds a monster to the given location.
+  private void addMonster(Location location) {
+    location.addMonster();
+    this.smellField.addMonster(getOneDIndex(location));
+  }
+
   //  Add requested number of arrows to dungeon.
   private void addArrowsToDungeon() {
     double currentArrowedLocations = 0;
@@ -377,17 +754,16 @@ public class DungeonGameImpl implements DungeonGame {
     if (t == null) {
       throw new IllegalArgumentException("Treasure cannot be null.");
     }
-    GeneralLocation location = this.playerCurrentLocation;
-    if (location.getTreasuresList().size() == 0) {
+    Location location = (Location) this.playerCurrentLocation;
+    if (location.getTreasures().size() == 0) {
       throw new IllegalArgumentException("Current location doesn't have any treasures");
     }
-    if (!location.getTreasuresList().contains(t)) {
+    if (location.getTreasureCount(t) == 0) {
       throw new IllegalArgumentException("Give from a valid treasure in the location");
     }
     GeneralPlayerImpl concretePlayer = (GeneralPlayerImpl)this.player;
     concretePlayer.addTreasures(t);
-    Location location1 =  (Location)location;
-    location1.removeTreasure(t);
+    location.removeTreasure(t);
   }
 
   @Override
@@ -401,16 +777,6 @@ public class DungeonGameImpl implements DungeonGame {
     location.removeArrow();
   }
 
-  // Given entry location gets exit location for tunnel.
-  private GeneralLocation getExitLocationForTunnel(GeneralLocation tunnelLocation,
-                                                   GeneralLocation enteredLocation) {
-    List<GeneralLocation> tunnelAdjacencies = tunnelLocation.getAdjacencyList();
-    if (tunnelAdjacencies.get(0).equals(enteredLocation)) {
-      return tunnelAdjacencies.get(1);
-    }
-    return tunnelAdjacencies.get(0);
-  }
-
   @Override
   public MonsterStatus shootArrow(int distance, Directions direction) {
 
@@ -429,57 +795,20 @@ public class DungeonGameImpl implements DungeonGame {
     }
     // Remove arrow as one is used.
     ((GeneralPlayerImpl) this.player).removeArrow();
-    Map<Directions, GeneralLocation> possibleDirections =
-            this.playerCurrentLocation.getPossibleDirectionMoves(this.rows, this.cols);
-    GeneralLocation arrowLocation = this.playerCurrentLocation;
-    if (!possibleDirections.containsKey(direction)) {
-      return MonsterStatus.UNAFFECTED;
-    }
-
-    Directions enteringDirection = direction;
-    GeneralLocation prevLocation = arrowLocation;
-    arrowLocation = possibleDirections.get(direction);
-    boolean flag = true;
-    boolean enteredWhile = false;
-    while (distance > 0) {
-      enteredWhile = true;
-      possibleDirections =
-              arrowLocation.getPossibleDirectionMoves(this.rows, this.cols);
-      if (!arrowLocation.isCave()) {
-        GeneralLocation temp = prevLocation;
-        GeneralLocation nextLocation = getExitLocationForTunnel(arrowLocation, temp);
-        for (Map.Entry<Directions, GeneralLocation> entry : possibleDirections.entrySet()) {
-          if (nextLocation.equals(entry.getValue())) {
-            enteringDirection = entry.getKey();
-          }
-        }
-        prevLocation = arrowLocation;
-        arrowLocation = nextLocation;
-      } else if (arrowLocation.isCave()) {
-        prevLocation = arrowLocation;
-        arrowLocation = possibleDirections.get(enteringDirection);
-        enteringDirection = getOppositeDirection(enteringDirection);
-        distance--;
-        if (!possibleDirections.containsKey(enteringDirection)) {
-          flag = false;
-          break;
-        }
-      }
+    if (this.tunnelPassThrough == null) {
+      this.tunnelPassThrough = new TunnelPassThrough(this.graph);
     }
-    if (!flag) {
+    int cave = this.tunnelPassThrough.getTarget(getOneDIndex(this.playerCurrentLocation),
+            direction, distance);
+    if (cave == -1) {
       return MonsterStatus.UNAFFECTED;
     }
-    Location concreteArrowLocation;
-    if (enteredWhile) {
-      concreteArrowLocation = (Location) prevLocation;
-    }
-    else {
-      concreteArrowLocation = (Location) arrowLocation;
-    }
+    Location concreteArrowLocation = (Location) getLocationFromOneDIndex(cave);
     if (concreteArrowLocation.hasMonster()) {
       // Make damage to monster.
       concreteArrowLocation.damageMonster();
       if (concreteArrowLocation.getMonster().getPotentialDamage() == 0) {
+        this.smellField.removeMonster(getOneDIndex(concreteArrowLocation));
         return MonsterStatus.DEAD;
       }
       else if (concreteArrowLocation.getMonster().getPotentialDamage() == 0.5) {
@@ -496,7 +825,8 @@ public class DungeonGameImpl implements DungeonGame {
   public String getPlayerInfo() {
     StringBuilder stringBuilder = new StringBuilder();
     stringBuilder.append("Player owns below treasures: \n");
-    stringBuilder.append(getCumulativeTreasures(this.player.getTreasuresOwned()));
+    stringBuilder.append(getCumulativeTreasures(
+            ((GeneralPlayerImpl) this.player).getTreasures()));
     stringBuilder.append("\n");
     stringBuilder.append("Player owns: ");
     GeneralPlayerImpl concretePlayer = (GeneralPlayerImpl)this.player;
@@ -505,15 +835,6 @@ public class DungeonGameImpl implements DungeonGame {
     return stringBuilder.toString();
   }
 
-  private Directions getOppositeDirection(Directions direction) {
-    Map<Directions, Directions> directionsMap = new HashMap<>();
-    directionsMap.put(Directions.SOUTH, Directions.NORTH);
-    directionsMap.put(Directions.NORTH, Directions.SOUTH);
-    directionsMap.put(Directions.WEST, Directions.EAST);
-    directionsMap.put(Directions.EAST, Directions.WEST);
-    return directionsMap.get(direction);
-  }
-
   @Override
   public int getDeathReason() {
     return ((GeneralPlayerImpl)this.player).getDeathReason();
@@ -533,14 +854,12 @@ public class DungeonGameImpl implements DungeonGame {
     checkIfGameOver();
     GeneralPlayerImpl concretePlayer = (GeneralPlayerImpl) this.player;
 
-    Location playerLocation = (Location) this.playerCurrentLocation;
-    Map<Directions, GeneralLocation> possibleDirections =
-            playerLocation.getPossibleDirectionMoves(this.rows, this.cols);
-    if (!possibleDirections.containsKey(direction)) {
+    GeneralLocation nextLocation = getNeighbour(this.playerCurrentLocation, direction);
+    if (nextLocation == null) {
       throw new IllegalArgumentException("Given direction is not possible from current location");
     }
 
-    this.playerCurrentLocation = possibleDirections.get(direction);
+    this.playerCurrentLocation = nextLocation;
     ((Location)this.playerCurrentLocation).setVisited();
     Monster monster = ((Location)(this.playerCurrentLocation)).getMonster();
     if (monster != null) {
@@ -565,8 +884,8 @@ public class DungeonGameImpl implements DungeonGame {
     listOfCaves = new ArrayList<>();
     for (int row = 0; row < this.rows; row++) {
       for (int col = 0; col < this.cols; col++) {
-        if (this.dungeon[row][col].isCave()) {
-          listOfCaves.add(this.dungeon[row][col]);
+        if (getLocationAt(row, col).isCave()) {
+          listOfCaves.add(getLocationAt(row, col));
         }
       }
     }
@@ -579,8 +898,8 @@ public class DungeonGameImpl implements DungeonGame {
     listOfTunnels = new ArrayList<>();
     for (int row = 0; row < this.rows; row++) {
       for (int col = 0; col < this.cols; col++) {
-        if (!this.dungeon[row][col].isCave()) {
-          listOfTunnels.add(this.dungeon[row][col]);
+        if (!getLocationAt(row, col).isCave()) {
+          listOfTunnels.add(getLocationAt(row, col));
         }
       }
     }
@@ -589,231 +908,244 @@ public class DungeonGameImpl implements DungeonGame {
 
   @Override
   public GeneralLocation getStartLocation() {
-    // Deep copying start location before returning.
-    GeneralLocation finalLoc = new Location(this.start.getLocation());
-    Location concreteFinalLoc;
-    concreteFinalLoc = (Location)finalLoc;
-    Location startLoc = (Location) this.start;
-    for (int i = 0; i < this.start.getAdjacencyList().size(); i++) {
-      concreteFinalLoc.updateAdjacencies(this.start.getAdjacencyList().get(i));
-    }
-    for (int i = 0; i < this.start.getTreasuresList().size(); i++) {
-      concreteFinalLoc.addTreasures(this.start.getTreasuresList().get(i));
-    }
-    concreteFinalLoc.addArrows(startLoc.getArrowCount());
-    double actualMonsterHealth;
-    if (startLoc.getMonster() != null) {
-      actualMonsterHealth = startLoc.getMonster().getPotentialDamage();
-      concreteFinalLoc.addMonster();
-      concreteFinalLoc.getMonster().assignDamage(actualMonsterHealth);
-    }
-    return concreteFinalLoc;
+    return ((Location) this.start).getSnapshot();
   }
 
   @Override
   public GeneralLocation getEndLocation() {
-    // Deep copying end location before returning.
-    GeneralLocation finalLoc = new Location(this.end.getLocation());
-    Location concreteFinalLoc;
-    concreteFinalLoc = (Location)finalLoc;
-    Location endLoc = (Location) this.end;
-    for (int i = 0; i < this.end.getAdjacencyList().size(); i++) {
-      concreteFinalLoc.updateAdjacencies(this.end.getAdjacencyList().get(i));
-    }
-    for (int i = 0; i < this.end.getTreasuresList().size(); i++) {
-      concreteFinalLoc.addTreasures(this.end.getTreasuresList().get(i));
-    }
-    concreteFinalLoc.addArrows(endLoc.getArrowCount());
-    double actualMonsterHealth;
-    if (endLoc.getMonster() != null) {
-      actualMonsterHealth = endLoc.getMonster().getPotentialDamage();
-      concreteFinalLoc.addMonster();
-      concreteFinalLoc.getMonster().assignDamage(actualMonsterHealth);
-    }
-    return finalLoc;
+    return ((Location) this.end).getSnapshot();
   }
 
   @Override
   public GeneralLocation getPlayerCurrentLocation() {
-    GeneralLocation finalLoc = new Location(this.playerCurrentLocation.getLocation());
-    Location concreteFinalLoc;
-    concreteFinalLoc = (Location)finalLoc;
-    Location playerLoc = (Location) this.playerCurrentLocation;
-    for (int i = 0; i < this.playerCurrentLocation.getAdjacencyList().size(); i++) {
-      concreteFinalLoc.updateAdjacencies(this.playerCurrentLocation.getAdjacencyList().get(i));
-    }
-    for (int i = 0; i < this.playerCurrentLocation.getTreasuresList().size(); i++) {
-      concreteFinalLoc.addTreasures(this.playerCurrentLocation.getTreasuresList().get(i));
-    }
-    concreteFinalLoc.addArrows(playerLoc.getArrowCount());
-    double actualMonsterHealth;
-    if (playerLoc.getMonster() != null) {
-      actualMonsterHealth = playerLoc.getMonster().getPotentialDamage();
-      concreteFinalLoc.addMonster();
-      concreteFinalLoc.getMonster().assignDamage(actualMonsterHealth);
-    }
-    return finalLoc;
+    return ((Location) this.playerCurrentLocation).getSnapshot();
   }
 
-  // Incorporates interconnectivity specified.
-  private void incorporateInterConnectivity(List<LocationMap> unusedPaths) {
-    int interConnectivity = this.interconnectivity;
-    Map<LocationMap, Boolean> pathsUsed = getMapFromPaths(unusedPaths);
-    while (interConnectivity > 0) {
-      int randomIndex = this.numberGenerationInterface.getIntInRange(0, unusedPaths.size() - 1);
-      LocationMap path = unusedPaths.get(randomIndex);
-      while (pathsUsed.get(path) == Boolean.TRUE) {
-        randomIndex = this.numberGenerationInterface.getIntInRange(0, unusedPaths.size() - 1);
-        path = unusedPaths.get(randomIndex);
+  // Incorporates interconnectivity specified. Legacy generation draws once from all the unused
+  // paths for every interconnection, as it always has, and connects a path drawn again once more.
+  // The location then lists the same neighbour twice, which decides whether it is a cave and
+  // hence where treasures go, so recorded seeds need it to build the same dungeon. The other modes
+  // choose distinct paths by a partial Fisher-Yates shuffle, which takes one draw per path.
+  private void incorporateInterConnectivity(GridEdges potentialPaths, int[] unusedPaths) {
+    if (this.generationMode == GenerationMode.LEGACY) {
+      for (int i = 0; i < this.interconnectivity; i++) {
+        connect(unusedPaths[this.numberGenerationInterface.getIntInRange(0,
+                unusedPaths.length - 1)]);
       }
-      GeneralLocation sourceLocation = path.getSourceLocation();
-      GeneralLocation destLocation = path.getDestLocation();
-      ((Location) (sourceLocation)).updateAdjacencies(destLocation);
-      ((Location) (destLocation)).updateAdjacencies(sourceLocation);
-      interConnectivity--;
+      return;
+    }
+    for (int i = 0; i < this.interconnectivity; i++) {
+      int randomIndex = this.numberGenerationInterface.getIntInRange(i, unusedPaths.length - 1);
+      int path = unusedPaths[randomIndex];
+      unusedPaths[randomIndex] = unusedPaths[i];
+      unusedPaths[i] = path;
+      connect(path);
     }
   }
 
-  // Gets map from the list of paths.
-  private Map<LocationMap, Boolean> getMapFromPaths(List<LocationMap> paths) {
-    // This map is to track paths that are used in randomization.
-    Map<LocationMap, Boolean> pathsUsed = new HashMap<>();
-
-    // Initially all of them are unused, hence set to False.
-    for (LocationMap path : paths) {
-      pathsUsed.put(path, Boolean.FALSE);
-    }
-    return pathsUsed;
+  // Connects both the locations of the given path.
+  private void connect(int path) {
+    this.connectedPaths[this.connectedPathCount++] = path;
   }
 
-  // This method builds Minimum spanning tree.
-  private List<LocationMap> buildMst(List<LocationMap> potentialPaths) {
+  // This method builds Minimum spanning tree by repeatedly drawing a random path until the tree
+  // is complete. Returns the paths that are not part of the tree.
+  private int[] buildMst(GridEdges potentialPaths) {
     int edgeCount = 0;
     int verticesCount = this.rows * this.cols;
-    Map<LocationMap, Boolean> pathsUsed = getMapFromPaths(potentialPaths);
-
-    // Initialize sets of disjoint sets.
-    for (int i = 0; i < verticesCount; i++) {
-      this.parentNodes[i] = i;
-    }
+    // Unused paths were always listed in the iteration order of a map keyed by location map, so
+    // that order is kept for seeds recorded earlier to choose the same interconnections. Wrapping
+    // paths that are the same as an earlier path share its entry, hence they stand for that path.
+    Map<LocationMap, Integer> legacyOrder = new HashMap<>();
+    int[] firstPaths = new int[potentialPaths.size()];
+    for (int path = 0; path < potentialPaths.size(); path++) {
+      Integer firstPath = legacyOrder.putIfAbsent(new LocationMap(
+              getLocationFromOneDIndex(potentialPaths.source(path)),
+              getLocationFromOneDIndex(potentialPaths.destination(path))), path);
+      firstPaths[path] = firstPath == null ? path : firstPath;
+    }
+    boolean[] pathsUsed = new boolean[potentialPaths.size()];
+    DisjointSet disjointSet = new DisjointSet(verticesCount);
 
     while (edgeCount != verticesCount - 1) {
-      int randomIndex = this.numberGenerationInterface.getIntInRange(0, potentialPaths.size() - 1);
-      LocationMap path = potentialPaths.get(randomIndex);
-      while (pathsUsed.get(path) == Boolean.TRUE) {
-        randomIndex = this.numberGenerationInterface.getIntInRange(0, potentialPaths.size() - 1);
-        path = potentialPaths.get(randomIndex);
-      }
-      GeneralLocation sourceLocation = path.getSourceLocation();
-      GeneralLocation destLocation = path.getDestLocation();
-      int sourceRow = sourceLocation.getLocation().getX();
-      int sourceCol = sourceLocation.getLocation().getY();
-      int destRow = destLocation.getLocation().getX();
-      int destCol = destLocation.getLocation().getY();
-      int oneDIndexOfSource = getEquivalentOneDIndex(sourceRow, sourceCol);
-      int oneDIndexOfDest = getEquivalentOneDIndex(destRow, destCol);
-      if (find(oneDIndexOfSource) != find(oneDIndexOfDest)) {
-        union1(oneDIndexOfSource, oneDIndexOfDest);
+      int path = firstPaths[this.numberGenerationInterface.getIntInRange(0,
+              potentialPaths.size() - 1)];
+      if (disjointSet.union(potentialPaths.source(path), potentialPaths.destination(path))) {
         edgeCount++;
-        ((Location) (sourceLocation)).updateAdjacencies(destLocation);
-        ((Location) (destLocation)).updateAdjacencies(sourceLocation);
-        pathsUsed.put(path, Boolean.TRUE);
+        connect(path);
+        pathsUsed[path] = true;
+      }
+    }
+    int[] unusedPotentialPaths = new int[legacyOrder.size() - edgeCount];
+    int unusedCount = 0;
+    for (int path : legacyOrder.values()) {
+      if (!pathsUsed[path]) {
+        unusedPotentialPaths[unusedCount++] = path;
+      }
+    }
+    return unusedPotentialPaths;
+  }
+
+  // This method builds Minimum spanning tree by shuffling all the paths once and then adding them
+  // in that order whenever they do not form a cycle. Returns the paths that are not part of the
+  // tree.
+  private int[] buildMstFromShuffledPaths(GridEdges potentialPaths) {
+    int pathCount = potentialPaths.size();
+    int[] paths = new int[pathCount];
+    for (int path = 0; path < pathCount; path++) {
+      paths[path] = path;
+    }
+    // Fisher-Yates shuffle.
+    for (int i = pathCount - 1; i > 0; i--) {
+      int randomIndex = this.numberGenerationInterface.getIntInRange(0, i);
+      int temp = paths[i];
+      paths[i] = paths[randomIndex];
+      paths[randomIndex] = temp;
+    }
+    DisjointSet disjointSet = new DisjointSet(this.rows * this.cols);
+    int[] unusedPotentialPaths = new int[pathCount];
+    int unusedCount = 0;
+    for (int path : paths) {
+      if (disjointSet.union(potentialPaths.source(path), potentialPaths.destination(path))) {
+        connect(path);
+      }
+      else {
+        unusedPotentialPaths[unusedCount++] = path;
       }
     }
-    List<LocationMap> unusedPotentialPaths;
-    unusedPotentialPaths = new ArrayList<>();
-    // looping over pathsUsed map.
-    for (LocationMap location : pathsUsed.keySet()) {
-      if (!pathsUsed.get(location)) {
-        unusedPotentialPaths.add(location);
+    return Arrays.copyOf(unusedPotentialPaths, unusedCount);
+  }
+
+  // This method builds Minimum spanning tree one row at a time, either generating the rows with
+  // Eller's algorithm or reading them from the maze file. Returns the paths that are not part of
+  // the tree.
+  private int[] buildMstByRows(GridEdges potentialPaths) {
+    EllerMazeGenerator generator = null;
+    if (this.maze == null) {
+      generator = new EllerMazeGenerator(this.rows, this.cols, this.numberGenerationInterface);
+    }
+    boolean[] pathsUsed = new boolean[potentialPaths.size()];
+    DisjointSet disjointSet = new DisjointSet(this.rows * this.cols);
+    byte[] pathsInRow = new byte[this.cols];
+    for (int row = 0; row < this.rows; row++) {
+      if (generator != null) {
+        generator.nextRow(pathsInRow);
+      }
+      else {
+        readMazeRow(pathsInRow);
+      }
+      for (int col = 0; col < this.cols; col++) {
+        if ((pathsInRow[col] & EllerMazeGenerator.EAST) != 0) {
+          connectTreePath(potentialPaths, col + 1 < this.cols ? potentialPaths.eastEdge(row, col)
+                  : -1, disjointSet, pathsUsed);
+        }
+        if ((pathsInRow[col] & EllerMazeGenerator.SOUTH) != 0) {
+          connectTreePath(potentialPaths, row + 1 < this.rows ? potentialPaths.southEdge(row, col)
+                  : -1, disjointSet, pathsUsed);
+        }
+      }
+    }
+    if (disjointSet.getSetCount() > 1) {
+      throw new IllegalArgumentException("Maze doesn't describe a spanning tree of the dungeon");
+    }
+    return getUnusedPaths(potentialPaths, pathsUsed);
+  }
+
+  // This method builds Minimum spanning tree from tiles that are built in parallel. The tree only
+  // depends on a seed drawn from the number generator. Returns the paths that are not part of the
+  // tree.
+  private int[] buildMstFromTiles(GridEdges potentialPaths) {
+    long seed = (long) this.numberGenerationInterface.getIntInRange(0, Integer.MAX_VALUE - 1) << 31
+            | this.numberGenerationInterface.getIntInRange(0, Integer.MAX_VALUE - 1);
+    boolean[] pathsUsed = new boolean[potentialPaths.size()];
+    for (int path : new TiledSpanningTree(this.rows, this.cols, potentialPaths).build(seed)) {
+      connect(path);
+      pathsUsed[path] = true;
+    }
+    return getUnusedPaths(potentialPaths, pathsUsed);
+  }
+
+  // Returns the paths that are not used, in the order of the potential paths.
+  private int[] getUnusedPaths(GridEdges potentialPaths, boolean[] pathsUsed) {
+    int[] unusedPotentialPaths = new int[potentialPaths.size() - this.connectedPathCount];
+    int unusedCount = 0;
+    for (int path = 0; path < potentialPaths.size(); path++) {
+      if (!pathsUsed[path]) {
+        unusedPotentialPaths[unusedCount++] = path;
       }
     }
     return unusedPotentialPaths;
   }
 
+  // Connects the given path of the spanning tree, -1 stands for a path leading out of the dungeon.
+  private void connectTreePath(GridEdges potentialPaths, int path, DisjointSet disjointSet,
+                               boolean[] pathsUsed) {
+    if (path == -1 || !disjointSet.union(potentialPaths.source(path),
+            potentialPaths.destination(path))) {
+      throw new IllegalArgumentException("Maze doesn't describe a spanning tree of the dungeon");
+    }
+    connect(path);
+    pathsUsed[path] = true;
+  }
+
+  private void readMazeRow(byte[] pathsInRow) {
+    try {
+      this.maze.readRow(pathsInRow);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
   // Dumps dungeon to screen, this is used for debugging purposes.
   private String printGraph() {
     StringBuilder graphInfo = new StringBuilder();
     for (int row = 0; row < this.rows; row++) {
       for (int col = 0; col < this.cols; col++) {
         graphInfo.append(String.format("Vertex %d, %d is connected to %s \n", row, col,
-                this.dungeon[row][col].getAdjacencyList()));
+                getLocationAt(row, col).getAdjacencyList()));
       }
     }
     return graphInfo.toString();
   }
 
+  // Returns equivalent one dimensional index of a location.
+  protected int getOneDIndex(GeneralLocation location) {
+    if (location instanceof Location) {
+      return ((Location) location).getId();
+    }
+    Point2D point = location.getLocation();
+    return getEquivalentOneDIndex(point.getX(), point.getY());
+  }
+
   // Returns equivalent one dimensional index for a 2D index.
   private int getEquivalentOneDIndex(int sourceRow, int sourceCol) {
     return ((this.cols) * (sourceRow)) + sourceCol;
   }
 
-  // Find set of vertex i`
-  private int find(int i) {
-    while (this.parentNodes[i] != i) {
-      i = parentNodes[i];
+  // Returns location for an equivalent one dimensional index.
+  protected GeneralLocation getLocationFromOneDIndex(int oneDIndex) {
+    return getLocationAt(oneDIndex / this.cols, oneDIndex % this.cols);
+  }
+
+  // Returns location at given row and column, creating it from the saved state if the dungeon was
+  // loaded and the location is asked for the first time.
+  private GeneralLocation getLocationAt(int row, int col) {
+    if (this.dungeon[row][col] == null) {
+      this.dungeon[row][col] = restoreLocation(getEquivalentOneDIndex(row, col));
     }
-    return i;
+    return this.dungeon[row][col];
   }
 
-  // Does union of i and j. It returns
-  // false if i and j are already in same
-  // set.
-  private void union1(int i, int j) {
-    int a = find(i);
-    int b = find(j);
-    parentNodes[a] = b;
+  // Returns location of the given cell, null if the dungeon was loaded and the location is not
+  // created yet, in which case it is still as saved.
+  Location getCreatedLocation(int cell) {
+    return (Location) this.dungeon[cell / this.cols][cell % this.cols];
   }
 
-  // Method computes and stores all the potential paths in dungeon.
-  private List<LocationMap> makePotentialPaths(boolean wrapping) {
-    List<LocationMap> potentialPaths;
-    potentialPaths = new ArrayList<>();
-    LocationMap currentMap;
-    for (int row = 0; row < this.rows; row++) {
-      for (int col = 0; col < this.cols; col++) {
-        int eastIndex = col + 1;
-        int westIndex = col - 1;
-        int northIndex = row - 1;
-        if (eastIndex <= this.cols - 1) {
-          currentMap = new LocationMap(this.dungeon[row][col], this.dungeon[row][eastIndex]);
-          if (!potentialPaths.contains(currentMap)) {
-            potentialPaths.add(currentMap);
-          }
-        }
-        if (westIndex >= 0) {
-          currentMap = new LocationMap(this.dungeon[row][col], this.dungeon[row][westIndex]);
-          if (!potentialPaths.contains(currentMap)) {
-            potentialPaths.add(currentMap);
-          }
-        }
-        if (northIndex >= 0) {
-          currentMap = new LocationMap(this.dungeon[row][col], this.dungeon[northIndex][col]);
-          if (!potentialPaths.contains(currentMap)) {
-            potentialPaths.add(currentMap);
-          }
-        }
-        int southIndex = row + 1;
-        if (southIndex <= this.rows - 1) {
-          currentMap = new LocationMap(this.dungeon[row][col], this.dungeon[southIndex][col]);
-          if (!potentialPaths.contains(currentMap)) {
-            potentialPaths.add(currentMap);
-          }
-        }
-      }
-    }
-    // If Wrapping is true, add edge nodes connections as well.
-    if (wrapping) {
-      // Connecting north and south nodes.
-      for (int col = 0; col < this.cols; col++) {
-        potentialPaths.add(new LocationMap(this.dungeon[0][col], this.dungeon[this.rows - 1][col]));
-      }
-      // Connecting east and west nodes.
-      for (int row = 0; row < this.rows; row++) {
-        potentialPaths.add(new LocationMap(this.dungeon[row][0], this.dungeon[row][this.cols - 1]));
-      }
-    }
-    return potentialPaths;
+  // Returns the saved state the dungeon was loaded from, null if it was generated.
+  DungeonState getSavedState() {
+    return this.savedState;
   }
 
   @Override
@@ -828,8 +1160,13 @@ public class DungeonGameImpl implements DungeonGame {
 
   @Override
   public GeneralLocation[][] getBoard() {
-    return Arrays.stream(this.dungeon).map(GeneralLocation[]::clone)
-            .toArray(GeneralLocation[][]::new);
+    GeneralLocation[][] board = new GeneralLocation[this.rows][this.cols];
+    for (int row = 0; row < this.rows; row++) {
+      for (int col = 0; col < this.cols; col++) {
+        board[row][col] = getLocationAt(row, col);
+      }
+    }
+    return board;
   }
 
   @Override
@@ -885,13 +1222,12 @@ public class DungeonGameImpl implements DungeonGame {
   public void pickAllTreasures() {
     checkIfGameOver();
     GeneralPlayerImpl concretePlayer = (GeneralPlayerImpl) this.player;
-    GeneralLocation location = this.playerCurrentLocation;
-    if (location.getTreasuresList().size() == 0) {
+    Location location = (Location) this.playerCurrentLocation;
+    if (location.getTreasures().size() == 0) {
       throw new IllegalArgumentException("Current location doesn't have any treasures");
     }
-    concretePlayer.addAllTreasures(location.getTreasuresList());
-    Location location1 =  (Location)location;
-    location1.removeAllTreasures();
+    concretePlayer.addAllTreasures(location.getTreasures());
+    location.removeAllTreasures();
   }
 
   @Override
@@ -902,32 +1238,17 @@ public class DungeonGameImpl implements DungeonGame {
 
   @Override
   public int getPlayerRubyCount() {
-    if (getCumulativeTreasures(this.player.getTreasuresOwned()).get(Treasures.RUBIES) == null) {
-      return  0;
-    }
-    else  {
-      return getCumulativeTreasures(this.player.getTreasuresOwned()).get(Treasures.RUBIES);
-    }
+    return ((GeneralPlayerImpl) this.player).getTreasureCount(Treasures.RUBIES);
   }
 
   @Override
   public int getPlayerDiamondCount() {
-    if (getCumulativeTreasures(this.player.getTreasuresOwned()).get(Treasures.DIAMONDS) == null) {
-      return  0;
-    }
-    else  {
-      return getCumulativeTreasures(this.player.getTreasuresOwned()).get(Treasures.DIAMONDS);
-    }
+    return ((GeneralPlayerImpl) this.player).getTreasureCount(Treasures.DIAMONDS);
   }
 
   @Override
   public int getPlayerEmeraldCount() {
-    if (getCumulativeTreasures(this.player.getTreasuresOwned()).get(Treasures.SAPPHIRE) == null) {
-      return  0;
-    }
-    else  {
-      return getCumulativeTreasures(this.player.getTreasuresOwned()).get(Treasures.SAPPHIRE);
-    }
+    return ((GeneralPlayerImpl) this.player).getTreasureCount(Treasures.SAPPHIRE);
   }
 
   @Override
@@ -942,38 +1263,17 @@ public class DungeonGameImpl implements DungeonGame {
 
   @Override
   public int getCurrentLocationRubyCount() {
-    if (getCumulativeTreasures(playerCurrentLocation.getTreasuresList())
-                .get(Treasures.RUBIES) == null) {
-      return  0;
-    }
-    else  {
-      return getCumulativeTreasures(playerCurrentLocation.getTreasuresList())
-              .get(Treasures.RUBIES);
-    }
+    return ((Location) this.playerCurrentLocation).getTreasureCount(Treasures.RUBIES);
   }
 
   @Override
   public int getCurrentLocationDiamondCount() {
-    if (getCumulativeTreasures(playerCurrentLocation.getTreasuresList())
-                .get(Treasures.DIAMONDS) == null) {
-      return  0;
-    }
-    else  {
-      return getCumulativeTreasures(playerCurrentLocation.getTreasuresList())
-              .get(Treasures.DIAMONDS);
-    }
+    return ((Location) this.playerCurrentLocation).getTreasureCount(Treasures.DIAMONDS);
   }
 
   @Override
   public int getCurrentLocationEmeraldCount() {
-    if (getCumulativeTreasures(playerCurrentLocation.getTreasuresList())
-                .get(Treasures.SAPPHIRE) == null) {
-      return  0;
-    }
-    else  {
-      return getCumulativeTreasures(playerCurrentLocation.getTreasuresList())
-              .get(Treasures.SAPPHIRE);
-    }
+    return ((Location) this.playerCurrentLocation).getTreasureCount(Treasures.SAPPHIRE);
   }
 
 }
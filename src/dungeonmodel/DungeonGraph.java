@@ -0,0 +1,354 @@
+package dungeonmodel;
+
+import java.util.Arrays;
+
+/**
+ * This class represents a compact, read only view of the paths in a dungeon. Every location is a
+ * cell identified by {@code row * cols + col}. Neighbours of all the cells are stored in a single
+ * array in compressed sparse row form, in the order in which the paths were added to the dungeon.
+ * Every cell also has a mask of the directions in which it has a neighbour along with the
+ * neighbour in each of those directions, so moves can be resolved without any allocation. When
+ * the dungeon wraps along a dimension of two cells, the other cell along it is reached by moving
+ * either way, so it is the neighbour in both of those directions. Likewise a path that wraps along
+ * a dimension of one cell leads back to the cell itself whichever way it is taken.
+ *
+ * <p>The graph replaces the lists of neighbours the locations used to grow. Locations don't store
+ * their neighbours or their position any more and read them from the graph instead, but they are
+ * still objects of their own since they are part of the board.
+ */
+public final class DungeonGraph {
+  private static final int DIRECTION_COUNT = Directions.values().length;
+  private static final int NORTH_SOUTH = 1 << Directions.NORTH.ordinal()
+          | 1 << Directions.SOUTH.ordinal();
+  private static final int EAST_WEST = 1 << Directions.EAST.ordinal()
+          | 1 << Directions.WEST.ordinal();
+  private final int rows;
+  private final int cols;
+  private final int[] offsets;
+  private final int[] neighbours;
+  private final byte[] directionMasks;
+  private final int[] directionNeighbours;
+
+  // Constructs the graph from the given paths, connected in the given order.
+  DungeonGraph(int rows, int cols, boolean wrapping, GridEdges potentialPaths,
+               int[] connectedPaths, int connectedPathCount) {
+    this.rows = rows;
+    this.cols = cols;
+    int cellCount = rows * cols;
+    this.offsets = new int[cellCount + 1];
+    for (int i = 0; i < connectedPathCount; i++) {
+      this.offsets[potentialPaths.source(connectedPaths[i]) + 1]++;
+      this.offsets[potentialPaths.destination(connectedPaths[i]) + 1]++;
+    }
+    for (int cell = 0; cell < cellCount; cell++) {
+      this.offsets[cell + 1] += this.offsets[cell];
+    }
+    this.neighbours = new int[this.offsets[cellCount]];
+    int[] cursors = new int[cellCount];
+    System.arraycopy(this.offsets, 0, cursors, 0, cellCount);
+    for (int i = 0; i < connectedPathCount; i++) {
+      int source = potentialPaths.source(connectedPaths[i]);
+      int destination = potentialPaths.destination(connectedPaths[i]);
+      this.neighbours[cursors[source]++] = destination;
+      this.neighbours[cursors[destination]++] = source;
+    }
+    this.directionMasks = new byte[cellCount];
+    this.directionNeighbours = new int[cellCount * DIRECTION_COUNT];
+    Arrays.fill(this.directionNeighbours, -1);
+    for (int cell = 0; cell < cellCount; cell++) {
+      for (int edge = this.offsets[cell]; edge < this.offsets[cell + 1]; edge++) {
+        int neighbour = this.neighbours[edge];
+        int direction = getDirection(cell, neighbour).ordinal();
+        setNeighbour(cell, direction, neighbour);
+        int dimension = direction < Directions.EAST.ordinal() ? rows : cols;
+        if (wrapping && (dimension == 2 || neighbour == cell)) {
+          // Directions are declared in opposite pairs, so the opposite one only differs in the
+          // last bit of the ordinal.
+          setNeighbour(cell, direction ^ 1, neighbour);
+        }
+      }
+    }
+  }
+
+  // Constructs the graph from the direction masks of the cells, laid out as getDirectionMask
+  // returns them, followed by the paths connected more than once as a cell and the direction of
+  // the path, east or south. Every path is connected from the cell it leaves east or south, in row
+  // major order of the cells. Directions that mirror a path of the other cell across a wrapped
+  // dimension of two cells are skipped, as that path is already connected from the other cell.
+  // Neighbours of a cell are counted from its mask, hence masks whose paths don't agree between
+  // the cells on their two ends are rejected.
+  DungeonGraph(int rows, int cols, boolean wrapping, byte[] directionMasks, int[] repeatedCells,
+               Directions[] repeatedDirections) {
+    this.rows = rows;
+    this.cols = cols;
+    int cellCount = rows * cols;
+    this.offsets = new int[cellCount + 1];
+    for (int i = 0; i < repeatedCells.length; i++) {
+      this.offsets[repeatedCells[i] + 1]++;
+      this.offsets[getPathEnd(wrapping, getRow(repeatedCells[i]), getCol(repeatedCells[i]),
+              repeatedDirections[i].ordinal()) + 1]++;
+    }
+    // Both directions across a wrapped dimension of two cells are the same path.
+    int northSouthShift = wrapping && rows == 2 ? 1 : 0;
+    int eastWestShift = wrapping && cols == 2 ? 1 : 0;
+    for (int cell = 0; cell < cellCount; cell++) {
+      this.offsets[cell + 1] += this.offsets[cell]
+              + (Integer.bitCount(directionMasks[cell] & NORTH_SOUTH) >> northSouthShift)
+              + (Integer.bitCount(directionMasks[cell] & EAST_WEST) >> eastWestShift);
+    }
+    this.neighbours = new int[this.offsets[cellCount]];
+    this.directionMasks = new byte[cellCount];
+    this.directionNeighbours = new int[cellCount * DIRECTION_COUNT];
+    Arrays.fill(this.directionNeighbours, -1);
+    int[] cursors = new int[cellCount];
+    System.arraycopy(this.offsets, 0, cursors, 0, cellCount);
+    for (int row = 0, cell = 0; row < rows; row++) {
+      for (int col = 0; col < cols; col++, cell++) {
+        if (isPath(directionMasks[cell], row, col, Directions.EAST.ordinal())) {
+          addPath(cell, Directions.EAST.ordinal(),
+                  getPathEnd(wrapping, row, col, Directions.EAST.ordinal()), wrapping, cursors);
+        }
+        if (isPath(directionMasks[cell], row, col, Directions.SOUTH.ordinal())) {
+          addPath(cell, Directions.SOUTH.ordinal(),
+                  getPathEnd(wrapping, row, col, Directions.SOUTH.ordinal()), wrapping, cursors);
+        }
+      }
+    }
+    for (int i = 0; i < repeatedCells.length; i++) {
+      int cell = repeatedCells[i];
+      int direction = repeatedDirections[i].ordinal();
+      addPath(cell, direction, getPathEnd(wrapping, getRow(cell), getCol(cell), direction),
+              wrapping, cursors);
+    }
+    for (int cell = 0; cell < cellCount; cell++) {
+      if (cursors[cell] != this.offsets[cell + 1]) {
+        throw new IllegalArgumentException("Paths of the cells are not consistent");
+      }
+    }
+  }
+
+  /**
+   * Returns the number of rows in the dungeon.
+   * @return number of rows.
+   */
+  public int getRows() {
+    return this.rows;
+  }
+
+  /**
+   * Returns the number of columns in the dungeon.
+   * @return number of columns.
+   */
+  public int getCols() {
+    return this.cols;
+  }
+
+  /**
+   * Returns the number of cells in the dungeon.
+   * @return number of cells.
+   */
+  public int getCellCount() {
+    return this.offsets.length - 1;
+  }
+
+  /**
+   * Returns the cell of the location at given row and column.
+   * @param row Row of the location.
+   * @param col Column of the location.
+   * @return cell of the location.
+   */
+  public int getCell(int row, int col) {
+    return row * this.cols + col;
+  }
+
+  /**
+   * Returns the row of the given cell.
+   * @param cell Given cell.
+   * @return row of the cell.
+   */
+  public int getRow(int cell) {
+    return cell / this.cols;
+  }
+
+  /**
+   * Returns the column of the given cell.
+   * @param cell Given cell.
+   * @return column of the cell.
+   */
+  public int getCol(int cell) {
+    return cell % this.cols;
+  }
+
+  /**
+   * Returns the number of neighbours of the given cell.
+   * @param cell Given cell.
+   * @return number of neighbours.
+   */
+  public int getDegree(int cell) {
+    return this.offsets[cell + 1] - this.offsets[cell];
+  }
+
+  /**
+   * Returns a neighbour of the given cell.
+   * @param cell Given cell.
+   * @param index Index of the neighbour, from 0 to degree - 1.
+   * @return the neighbouring cell.
+   * @throws IndexOutOfBoundsException if index is not a valid neighbour index.
+   */
+  public int getNeighbour(int cell, int index) {
+    if (index < 0 || index >= getDegree(cell)) {
+      throw new IndexOutOfBoundsException(String.format("Cell %d doesn't have neighbour %d", cell,
+              index));
+    }
+    return this.neighbours[this.offsets[cell] + index];
+  }
+
+  /**
+   * Checks if the given cell is a cave, i.e. it doesn't have exactly two neighbours.
+   * @param cell Given cell.
+   * @return true if the cell is a cave, false if it is a tunnel.
+   */
+  public boolean isCave(int cell) {
+    return getDegree(cell) != 2;
+  }
+
+  /**
+   * Returns the directions in which the given cell has a neighbour, as a mask with the bit
+   * {@code 1 << direction.ordinal()} set for every such direction.
+   * @param cell Given cell.
+   * @return direction mask of the cell.
+   */
+  public int getDirectionMask(int cell) {
+    return this.directionMasks[cell];
+  }
+
+  /**
+   * Checks if the given cell has a neighbour in the given direction.
+   * @param cell Given cell.
+   * @param direction Given direction.
+   * @return true if a move in the direction is possible, false otherwise.
+   */
+  public boolean hasNeighbour(int cell, Directions direction) {
+    return (this.directionMasks[cell] & (1 << direction.ordinal())) != 0;
+  }
+
+  /**
+   * Returns the neighbour of the given cell in the given direction.
+   * @param cell Given cell.
+   * @param direction Given direction.
+   * @return the neighbouring cell, -1 if the cell has no neighbour in that direction.
+   */
+  public int getNeighbour(int cell, Directions direction) {
+    return this.directionNeighbours[cell * DIRECTION_COUNT + direction.ordinal()];
+  }
+
+  /**
+   * Returns a new object to compute distances between cells of this dungeon.
+   * @return graph distances of the dungeon.
+   */
+  public GraphDistances newGraphDistances() {
+    return new GraphDistances(this.offsets, this.neighbours);
+  }
+
+  // Checks if the given direction of the cell, which is east or south, can only be the opposite
+  // direction to a neighbour on the other side of a wrapped dimension of two cells. Such a
+  // direction is not a path of its own, as the path is already east or south of the other cell.
+  static boolean isMirrored(int rows, int cols, int cell, Directions direction) {
+    if (direction == Directions.EAST) {
+      return cols == 2 && cell % cols == cols - 1;
+    }
+    return rows == 2 && cell / cols == rows - 1;
+  }
+
+  // Checks if the mask of the cell at given row and column has a path in the direction with the
+  // given ordinal, east or south, that is connected from the cell.
+  private boolean isPath(int directionMask, int row, int col, int direction) {
+    if ((directionMask & (1 << direction)) == 0) {
+      return false;
+    }
+    if (direction == Directions.EAST.ordinal()) {
+      return this.cols != 2 || col != 1;
+    }
+    return this.rows != 2 || row != 1;
+  }
+
+  // Returns the cell the path from the cell at given row and column in the direction with the
+  // given ordinal, east or south, leads to.
+  private int getPathEnd(boolean wrapping, int row, int col, int direction) {
+    if (direction == Directions.EAST.ordinal()) {
+      if (col + 1 < this.cols) {
+        return row * this.cols + col + 1;
+      }
+      if (wrapping) {
+        return row * this.cols;
+      }
+    }
+    else {
+      if (row + 1 < this.rows) {
+        return (row + 1) * this.cols + col;
+      }
+      if (wrapping) {
+        return col;
+      }
+    }
+    throw new IllegalArgumentException("Paths lead out of the dungeon");
+  }
+
+  // Adds the path from the cell in the direction with the given ordinal, east or south, to the
+  // given end, appending each of its cells to the neighbours of the other at the given cursors.
+  private void addPath(int cell, int direction, int end, boolean wrapping, int[] cursors) {
+    addNeighbour(cell, end, cursors);
+    addNeighbour(end, cell, cursors);
+    setNeighbour(cell, direction, end);
+    setNeighbour(end, direction ^ 1, cell);
+    int dimension = direction == Directions.EAST.ordinal() ? this.cols : this.rows;
+    if (wrapping && (dimension == 2 || end == cell)) {
+      setNeighbour(cell, direction ^ 1, end);
+      setNeighbour(end, direction, cell);
+    }
+  }
+
+  // Appends the neighbour to the neighbours of the cell at the given cursors, unless the cell has
+  // as many neighbours as counted for it already.
+  private void addNeighbour(int cell, int neighbour, int[] cursors) {
+    if (cursors[cell] == this.offsets[cell + 1]) {
+      throw new IllegalArgumentException("Paths of the cells are not consistent");
+    }
+    this.neighbours[cursors[cell]++] = neighbour;
+  }
+
+  // Records the neighbour of the cell in the direction with the given ordinal.
+  private void setNeighbour(int cell, int direction, int neighbour) {
+    this.directionMasks[cell] |= (byte) (1 << direction);
+    this.directionNeighbours[cell * DIRECTION_COUNT + direction] = neighbour;
+  }
+
+  // Returns direction in which neighbour lies from the cell. Wrapping is only considered when the
+  // neighbour is not directly next to the cell. A path from the cell to itself wraps along a
+  // dimension of one cell, the rows when there is only one row.
+  private Directions getDirection(int cell, int neighbour) {
+    if (neighbour == cell) {
+      return this.rows == 1 ? Directions.SOUTH : Directions.EAST;
+    }
+    int row = getRow(cell);
+    int col = getCol(cell);
+    int neighbourRow = getRow(neighbour);
+    int neighbourCol = getCol(neighbour);
+    if (neighbourCol == col) {
+      if (neighbourRow == row + 1) {
+        return Directions.SOUTH;
+      }
+      if (neighbourRow == row - 1) {
+        return Directions.NORTH;
+      }
+      return neighbourRow == 0 ? Directions.SOUTH : Directions.NORTH;
+    }
+    if (neighbourCol == col + 1) {
+      return Directions.EAST;
+    }
+    if (neighbourCol == col - 1) {
+      return Directions.WEST;
+    }
+    return neighbourCol == 0 ? Directions.EAST : Directions.WEST;
+  }
+}
@@ -0,0 +1,127 @@
+package dungeonmodel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// This class appends the records of a journaled game to its journal file. The file starts with a
+// magic number and a format version. Every random number drawn by the game is a draw record, and
+// every action of the player is an action record written once the action is over, hence the draws
+// before an action record are the ones drawn by that action. Records are gathered in a buffer and
+// the file is forced to the disk once every given number of actions.
+final class DungeonJournal implements Closeable {
+  static final int MAGIC = 0x444a4e4c;
+  static final int VERSION = 1;
+  static final int HEADER_SIZE = 8;
+  static final byte DRAW = 0;
+  static final byte MOVE = 1;
+  static final byte SHOOT = 2;
+  static final byte PICK_TREASURE = 3;
+  static final byte PICK_ARROW = 4;
+  static final byte PICK_ALL_ARROWS = 5;
+  static final byte PICK_ALL_TREASURES = 6;
+  // Outcome of an action that threw an exception, shooting outcomes follow DONE in the order of
+  // MonsterStatus.
+  static final byte FAILED = 0;
+  static final byte DONE = 1;
+  static final int DRAW_SIZE = 5;
+  static final int ACTION_SIZE = 7;
+  private static final int BUFFER_SIZE = 1 << 16;
+  private final FileChannel channel;
+  private final ByteBuffer buffer;
+  private final int syncInterval;
+  private int unsyncedActions;
+
+  private DungeonJournal(FileChannel channel, int syncInterval) {
+    this.channel = channel;
+    this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+    this.syncInterval = syncInterval;
+    this.unsyncedActions = 0;
+  }
+
+  // Creates an empty journal at the given path, replacing the file if it exists.
+  static DungeonJournal create(Path path, int syncInterval) throws IOException {
+    DungeonJournal journal = new DungeonJournal(FileChannel.open(path, StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING), syncInterval);
+    journal.buffer.putInt(MAGIC);
+    journal.buffer.putInt(VERSION);
+    journal.sync();
+    return journal;
+  }
+
+  // Opens the journal at the given path to append after its first length bytes, anything after
+  // them is dropped.
+  static DungeonJournal append(Path path, long length, int syncInterval) throws IOException {
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE);
+    channel.truncate(length);
+    channel.position(length);
+    channel.force(false);
+    return new DungeonJournal(channel, syncInterval);
+  }
+
+  void writeDraw(int value) {
+    if (this.buffer.remaining() < DRAW_SIZE) {
+      flush();
+    }
+    this.buffer.put(DRAW);
+    this.buffer.putInt(value);
+  }
+
+  // Writes an action with an argument, a direction ordinal or -1 for none and its outcome.
+  void writeAction(byte action, int argument, int direction, byte outcome) {
+    if (this.buffer.remaining() < ACTION_SIZE) {
+      flush();
+    }
+    this.buffer.put(action);
+    this.buffer.putInt(argument);
+    this.buffer.put((byte) direction);
+    this.buffer.put(outcome);
+    if (++this.unsyncedActions >= this.syncInterval) {
+      sync();
+    }
+  }
+
+  // Writes the buffered records to the file and forces them to the disk.
+  void sync() {
+    flush();
+    try {
+      this.channel.force(false);
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    this.unsyncedActions = 0;
+  }
+
+  private void flush() {
+    this.buffer.flip();
+    try {
+      while (this.buffer.hasRemaining()) {
+        this.channel.write(this.buffer);
+      }
+    }
+    catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    finally {
+      this.buffer.clear();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      sync();
+    }
+    catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    finally {
+      this.channel.close();
+    }
+  }
+}
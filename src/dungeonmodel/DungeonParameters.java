@@ -0,0 +1,100 @@
+package dungeonmodel;
+
+/**
+ * This class represents the parameters of a single dungeon to be generated. The seed is the only
+ * source of random numbers, hence the same parameters always generate the same dungeon.
+ */
+public final class DungeonParameters {
+  private final int rows;
+  private final int cols;
+  private final int interconnectivity;
+  private final boolean wrapping;
+  private final int treasureArrowPercent;
+  private final int difficulty;
+  private final long seed;
+
+  /**
+   * Constructs the parameters of a dungeon. They are validated only when the dungeon is generated.
+   * @param rows Number of rows in dungeon.
+   * @param cols Number of cols in dungeon.
+   * @param interconnectivity Interconnectivity of dungeon.
+   * @param wrapping Represents if dungeon should be wrapped or not.
+   * @param treasureArrowPercent Percentage of caves that should be treasured.
+   *                        Also, adds arrows of given percent in both caves and tunnels.
+   * @param difficulty Represents number of monsters in dungeon.
+   * @param seed Seed of the random numbers used to generate the dungeon.
+   */
+  public DungeonParameters(int rows, int cols, int interconnectivity, boolean wrapping,
+                           int treasureArrowPercent, int difficulty, long seed) {
+    this.rows = rows;
+    this.cols = cols;
+    this.interconnectivity = interconnectivity;
+    this.wrapping = wrapping;
+    this.treasureArrowPercent = treasureArrowPercent;
+    this.difficulty = difficulty;
+    this.seed = seed;
+  }
+
+  /**
+   * Returns the number of rows in the dungeon.
+   * @return number of rows.
+   */
+  public int getRows() {
+    return this.rows;
+  }
+
+  /**
+   * Returns the number of columns in the dungeon.
+   * @return number of columns.
+   */
+  public int getCols() {
+    return this.cols;
+  }
+
+  /**
+   * Returns the interconnectivity of the dungeon.
+   * @return interconnectivity.
+   */
+  public int getInterconnectivity() {
+    return this.interconnectivity;
+  }
+
+  /**
+   * Checks if the dungeon is wrapped.
+   * @return true if the dungeon is wrapped, false otherwise.
+   */
+  public boolean isWrapping() {
+    return this.wrapping;
+  }
+
+  /**
+   * Returns the percentage of locations that get treasures and arrows.
+   * @return treasure and arrow percentage.
+   */
+  public int getTreasureArrowPercent() {
+    return this.treasureArrowPercent;
+  }
+
+  /**
+   * Returns the difficulty, i.e. number of monsters of the dungeon.
+   * @return difficulty.
+   */
+  public int getDifficulty() {
+    return this.difficulty;
+  }
+
+  /**
+   * Returns the seed of the random numbers used to generate the dungeon.
+   * @return seed.
+   */
+  public long getSeed() {
+    return this.seed;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("(%d, %d) interconnectivity: %d wrapping: %b treasure: %d%% "
+            + "difficulty: %d seed: %d", this.rows, this.cols, this.interconnectivity,
+            this.wrapping, this.treasureArrowPercent, this.difficulty, this.seed);
+  }
+}
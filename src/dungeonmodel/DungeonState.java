@@ -0,0 +1,79 @@
+package dungeonmodel;
+
+// This class holds everything a saved dungeon game is made of, so that the game can be built again
+// without generating it. Every cell has a byte of flags: the direction mask of its paths in the
+// lower four bits followed by the visited, pit and thief bits. It also has a byte for its monster,
+// 0 if there is none, otherwise one more than the monster's health in halves. Treasures and arrows
+// are only kept for the cells that have any, and paths connected more than once only for the
+// cells that have them.
+final class DungeonState {
+  static final int DIRECTION_MASK = 0x0f;
+  static final int VISITED = 1 << 4;
+  static final int PIT = 1 << 5;
+  static final int THIEF = 1 << 6;
+  static final int TREASURE_KINDS = Treasures.values().length;
+  final int rows;
+  final int cols;
+  final boolean wrapping;
+  final boolean pitsAndThieves;
+  final GenerationMode generationMode;
+  final int interconnectivity;
+  final int treasureArrowPercent;
+  final int difficulty;
+  final int startCell;
+  final int endCell;
+  final int playerCell;
+  final int pitCount;
+  final int thiefCount;
+  final byte[] cellFlags;
+  final byte[] monsters;
+  // Cells that have treasures or arrows in increasing order, along with their arrows and their
+  // treasures of every kind, TREASURE_KINDS counts for each of the cells.
+  final int[] itemCells;
+  final int[] itemArrows;
+  final int[] itemTreasures;
+  // Cells and directions, east or south, of the paths connected again, once for every extra time.
+  final int[] repeatedCells;
+  final Directions[] repeatedDirections;
+
+  DungeonState(int rows, int cols, boolean wrapping, boolean pitsAndThieves,
+               GenerationMode generationMode, int interconnectivity, int treasureArrowPercent,
+               int difficulty, int startCell, int endCell, int playerCell, int pitCount,
+               int thiefCount, byte[] cellFlags, byte[] monsters, int[] itemCells,
+               int[] itemArrows, int[] itemTreasures, int[] repeatedCells,
+               Directions[] repeatedDirections) {
+    this.rows = rows;
+    this.cols = cols;
+    this.wrapping = wrapping;
+    this.pitsAndThieves = pitsAndThieves;
+    this.generationMode = generationMode;
+    this.interconnectivity = interconnectivity;
+    this.treasureArrowPercent = treasureArrowPercent;
+    this.difficulty = difficulty;
+    this.startCell = startCell;
+    this.endCell = endCell;
+    this.playerCell = playerCell;
+    this.pitCount = pitCount;
+    this.thiefCount = thiefCount;
+    this.cellFlags = cellFlags;
+    this.monsters = monsters;
+    this.itemCells = itemCells;
+    this.itemArrows = itemArrows;
+    this.itemTreasures = itemTreasures;
+    this.repeatedCells = repeatedCells;
+    this.repeatedDirections = repeatedDirections;
+  }
+
+  // Returns the monster byte for a monster of given health, 0 for no monster.
+  static byte encodeMonster(Monster monster) {
+    if (monster == null) {
+      return 0;
+    }
+    return (byte) (1 + Math.round(monster.getPotentialDamage() * 2));
+  }
+
+  // Returns health of the monster of the given monster byte.
+  static double decodeMonster(byte monster) {
+    return (monster - 1) / 2.0;
+  }
+}
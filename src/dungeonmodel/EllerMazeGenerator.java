@@ -0,0 +1,169 @@
+package dungeonmodel;
+
+/**
+ * This class generates the spanning tree of a dungeon one row at a time using Eller's algorithm.
+ * Only the sets of the cells in the current row are remembered, hence the working memory is
+ * proportional to the number of columns no matter how many rows the dungeon has. Every row is
+ * described by one byte per cell with {@link #EAST} set if the cell is connected to the cell on
+ * its east and {@link #SOUTH} set if it is connected to the cell on its south. Paths never wrap
+ * around the edges of the dungeon.
+ */
+public final class EllerMazeGenerator {
+  /**
+   * Bit set for a cell that is connected to the cell on its east.
+   */
+  public static final byte EAST = 1;
+
+  /**
+   * Bit set for a cell that is connected to the cell on its south.
+   */
+  public static final byte SOUTH = 2;
+
+  private final long rows;
+  private final int cols;
+  private final NumberGenerationInterface numberGenerationInterface;
+  private final int[] sets;
+  private final int[] parents;
+  private final int[] remaining;
+  private final boolean[] carried;
+  private final int[] nextSets;
+  private long currentRow;
+
+  /**
+   * Constructs a generator for a dungeon of given size.
+   * @param rows Number of rows in dungeon.
+   * @param cols Number of cols in dungeon.
+   * @param numberGenerationInterface Number Generator interface.
+   * @throws IllegalArgumentException if rows or cols are negative
+   *                                  or if numberGenerationInterface is null.
+   */
+  public EllerMazeGenerator(long rows, int cols,
+                            NumberGenerationInterface numberGenerationInterface) {
+    if (rows < 0 || cols < 0) {
+      throw new IllegalArgumentException("Number of rows, columns cannot be negative");
+    }
+    if (numberGenerationInterface == null) {
+      throw new IllegalArgumentException("Number generation interface cannot be null");
+    }
+    this.rows = rows;
+    this.cols = cols;
+    this.numberGenerationInterface = numberGenerationInterface;
+    this.sets = new int[cols];
+    this.parents = new int[cols];
+    this.remaining = new int[cols];
+    this.carried = new boolean[cols];
+    this.nextSets = new int[cols];
+    for (int col = 0; col < cols; col++) {
+      this.sets[col] = col;
+    }
+    this.currentRow = 0;
+  }
+
+  /**
+   * Returns the number of rows in the dungeon.
+   * @return number of rows.
+   */
+  public long getRows() {
+    return this.rows;
+  }
+
+  /**
+   * Returns the number of columns in the dungeon.
+   * @return number of columns.
+   */
+  public int getCols() {
+    return this.cols;
+  }
+
+  /**
+   * Checks if there are rows that have not been generated yet.
+   * @return true if there is a next row, false otherwise.
+   */
+  public boolean hasNextRow() {
+    return this.currentRow < this.rows;
+  }
+
+  /**
+   * Generates the next row of the dungeon.
+   * @param row Array of at least {@link #getCols()} entries that is filled with the paths of every
+   *            cell in the row.
+   * @throws IllegalStateException if all the rows have already been generated.
+   * @throws IllegalArgumentException if row is too small.
+   */
+  public void nextRow(byte[] row) {
+    if (!hasNextRow()) {
+      throw new IllegalStateException("All the rows have already been generated");
+    }
+    if (row == null || row.length < this.cols) {
+      throw new IllegalArgumentException("Row must have an entry for every column");
+    }
+    boolean lastRow = this.currentRow == this.rows - 1;
+    // Sets of the row are labelled 0 to cols - 1, so a union find over those labels is enough to
+    // join them along the row.
+    for (int col = 0; col < this.cols; col++) {
+      this.parents[col] = col;
+      row[col] = 0;
+    }
+    for (int col = 0; col + 1 < this.cols; col++) {
+      int set = find(this.sets[col]);
+      int eastSet = find(this.sets[col + 1]);
+      if (set != eastSet
+              && (lastRow || this.numberGenerationInterface.getIntInRange(0, 1) == 1)) {
+        this.parents[eastSet] = set;
+        row[col] |= EAST;
+      }
+    }
+    if (!lastRow) {
+      carryDown(row);
+    }
+    this.currentRow++;
+  }
+
+  // Connects every set of the row to the next row at least once and labels the cells of the next
+  // row, cells that are not connected from above start a set of their own.
+  private void carryDown(byte[] row) {
+    for (int col = 0; col < this.cols; col++) {
+      this.sets[col] = find(this.sets[col]);
+      this.remaining[this.sets[col]] = 0;
+      this.carried[this.sets[col]] = false;
+    }
+    for (int col = 0; col < this.cols; col++) {
+      this.remaining[this.sets[col]]++;
+    }
+    for (int col = 0; col < this.cols; col++) {
+      int set = this.sets[col];
+      this.remaining[set]--;
+      if ((this.remaining[set] == 0 && !this.carried[set])
+              || this.numberGenerationInterface.getIntInRange(0, 1) == 1) {
+        this.carried[set] = true;
+        row[col] |= SOUTH;
+      }
+    }
+    // Labels are renumbered in the order they appear, which keeps them below cols.
+    for (int col = 0; col < this.cols; col++) {
+      this.nextSets[col] = -1;
+    }
+    int label = 0;
+    for (int col = 0; col < this.cols; col++) {
+      if ((row[col] & SOUTH) != 0) {
+        int set = this.sets[col];
+        if (this.nextSets[set] == -1) {
+          this.nextSets[set] = label++;
+        }
+        this.parents[col] = this.nextSets[set];
+      }
+      else {
+        this.parents[col] = label++;
+      }
+    }
+    System.arraycopy(this.parents, 0, this.sets, 0, this.cols);
+  }
+
+  private int find(int set) {
+    while (this.parents[set] != set) {
+      this.parents[set] = this.parents[this.parents[set]];
+      set = this.parents[set];
+    }
+    return set;
+  }
+}
@@ -1,6 +1,5 @@
 package dungeonmodel;
 
-import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -9,7 +8,7 @@ import java.util.List;
  */
 public class GeneralPlayerImpl implements GeneralPlayer {
   private final String name;
-  private final List<Treasures> treasuresOwned;
+  private final TreasureCounter treasuresOwned;
   private int arrowsHold;
   private boolean isAlive;
   private int deathReason;
@@ -20,12 +19,22 @@ public class GeneralPlayerImpl implements GeneralPlayer {
    */
   public GeneralPlayerImpl(String name) {
     this.name = name;
-    this.treasuresOwned = new ArrayList<>();
+    this.treasuresOwned = new TreasureCounter();
     this.arrowsHold = 3;
     this.isAlive = true;
     this.deathReason = 0;
   }
 
+  // Constructs a player with the given possessions and status, used to load a saved game.
+  GeneralPlayerImpl(String name, TreasureCounter treasuresOwned, int arrowsHold, boolean isAlive,
+                    int deathReason) {
+    this.name = name;
+    this.treasuresOwned = treasuresOwned;
+    this.arrowsHold = arrowsHold;
+    this.isAlive = isAlive;
+    this.deathReason = deathReason;
+  }
+
   // Changes player life status to death.
   protected void killPlayer() {
     this.isAlive = false;
@@ -54,7 +63,7 @@ public class GeneralPlayerImpl implements GeneralPlayer {
 
   @Override
   public List<Treasures> getTreasuresOwned() {
-    return List.copyOf(this.treasuresOwned);
+    return this.treasuresOwned.asList();
   }
 
   // Adds treasure to the player.
@@ -63,8 +72,18 @@ public class GeneralPlayerImpl implements GeneralPlayer {
   }
 
   // Adds all treasure to the player.
-  protected void addAllTreasures(List<Treasures> treasuresList) {
-    this.treasuresOwned.addAll(treasuresList);
+  protected void addAllTreasures(TreasureCounter treasures) {
+    this.treasuresOwned.addAll(treasures);
+  }
+
+  // Returns number of treasures of given kind owned by the player.
+  protected int getTreasureCount(Treasures treasure) {
+    return this.treasuresOwned.count(treasure);
+  }
+
+  // Returns the treasures owned by the player.
+  protected TreasureCounter getTreasures() {
+    return this.treasuresOwned;
   }
 
   // Adds arrow to current location.
@@ -0,0 +1,35 @@
+package dungeonmodel;
+
+/**
+ * This enumeration represents the ways in which a dungeon can consume random numbers while it is
+ * being generated. The same sequence of random numbers always produces the same dungeon for a
+ * given mode.
+ */
+public enum GenerationMode {
+  /**
+   * Draws random numbers exactly the way the dungeon has always drawn them, retrying whenever a
+   * draw cannot be used. Seeds recorded earlier can only be replayed in this mode.
+   */
+  LEGACY,
+
+  /**
+   * Shuffles the candidates once and consumes them in order, so the number of draws is bounded
+   * by the size of the dungeon instead of depending on how many draws get rejected.
+   */
+  SHUFFLE,
+
+  /**
+   * Generates the paths one row at a time with Eller's algorithm, so the same paths can also be
+   * streamed to a {@link MazeFile} for mazes that don't fit in memory. A dungeon is still kept in
+   * memory as a whole in this mode. Everything else is placed the same way as in
+   * {@link #SHUFFLE} mode.
+   */
+  ROW_BY_ROW,
+
+  /**
+   * Builds the paths of square tiles of the dungeon in parallel and then joins the tiles, drawing
+   * only a seed from the number generator so the dungeon doesn't depend on the number of threads.
+   * Everything else is placed the same way as in {@link #SHUFFLE} mode.
+   */
+  TILED;
+}
@@ -0,0 +1,137 @@
+package dungeonmodel;
+
+import java.util.Arrays;
+
+/**
+ * This class computes shortest path lengths in an unweighted graph by breadth first search. The
+ * graph is given in compressed sparse row form: neighbours of vertex v are
+ * {@code targets[offsets[v]]} up to {@code targets[offsets[v + 1] - 1]}. For a dungeon a vertex
+ * is the location at (row, col) identified by {@code row * cols + col}.
+ *
+ * <p>Scratch buffers are allocated once and reused by every query, hence a single object must not
+ * be queried from more than one thread at a time.
+ */
+public final class GraphDistances {
+  private final int[] offsets;
+  private final int[] targets;
+  private final int[] distances;
+  private final int[] visitStamps;
+  private final int[] queue;
+  private int currentStamp;
+
+  /**
+   * Constructs graph distances for the given compressed sparse row graph. The arrays are not
+   * copied and must not be changed afterwards.
+   * @param offsets Offsets of the neighbours of every vertex, with one extra trailing entry.
+   * @param targets Neighbours of all the vertices.
+   * @throws IllegalArgumentException if any of the arrays is null or offsets is empty.
+   */
+  public GraphDistances(int[] offsets, int[] targets) {
+    if (offsets == null || targets == null || offsets.length == 0) {
+      throw new IllegalArgumentException("Offsets and targets must describe a valid graph");
+    }
+    this.offsets = offsets;
+    this.targets = targets;
+    int vertexCount = offsets.length - 1;
+    this.distances = new int[vertexCount];
+    this.visitStamps = new int[vertexCount];
+    this.queue = new int[Math.max(vertexCount, 1)];
+    this.currentStamp = 0;
+  }
+
+  /**
+   * Returns number of vertices in the graph.
+   * @return number of vertices.
+   */
+  public int getVertexCount() {
+    return this.distances.length;
+  }
+
+  /**
+   * Returns the length of the shortest path between the given vertices.
+   * @param source Source vertex.
+   * @param target Target vertex.
+   * @return shortest path length, -1 if target cannot be reached from source.
+   * @throws IllegalArgumentException if any of the vertices is not in the graph.
+   */
+  public int distance(int source, int target) {
+    checkVertex(source);
+    checkVertex(target);
+    return search(source, target);
+  }
+
+  /**
+   * Computes the length of the shortest path from source to every vertex in the graph.
+   * @param source Source vertex.
+   * @param result Array of at least {@link #getVertexCount()} entries that is filled with the
+   *               distances, -1 for vertices that cannot be reached.
+   * @throws IllegalArgumentException if source is not in the graph or result is too small.
+   */
+  public void distancesFrom(int source, int[] result) {
+    checkVertex(source);
+    if (result == null || result.length < getVertexCount()) {
+      throw new IllegalArgumentException("Result must have an entry for every vertex");
+    }
+    search(source, -1);
+    for (int vertex = 0; vertex < getVertexCount(); vertex++) {
+      result[vertex] = this.visitStamps[vertex] == this.currentStamp ? this.distances[vertex] : -1;
+    }
+  }
+
+  // Runs breadth first search from source, stops early once target is reached. Returns distance
+  // to target or -1 if target is not reached.
+  private int search(int source, int target) {
+    nextStamp();
+    int capacity = this.queue.length;
+    int head = 0;
+    int tail = 0;
+    int size = 0;
+    visit(source, 0);
+    if (source == target) {
+      return 0;
+    }
+    this.queue[tail] = source;
+    tail = tail + 1 == capacity ? 0 : tail + 1;
+    size++;
+    while (size > 0) {
+      int current = this.queue[head];
+      head = head + 1 == capacity ? 0 : head + 1;
+      size--;
+      int nextDistance = this.distances[current] + 1;
+      for (int edge = this.offsets[current]; edge < this.offsets[current + 1]; edge++) {
+        int next = this.targets[edge];
+        if (this.visitStamps[next] != this.currentStamp) {
+          visit(next, nextDistance);
+          if (next == target) {
+            return nextDistance;
+          }
+          this.queue[tail] = next;
+          tail = tail + 1 == capacity ? 0 : tail + 1;
+          size++;
+        }
+      }
+    }
+    return -1;
+  }
+
+  private void visit(int vertex, int distance) {
+    this.visitStamps[vertex] = this.currentStamp;
+    this.distances[vertex] = distance;
+  }
+
+  // Moves to a new stamp so that the earlier search results are treated as not visited, stamps
+  // are cleared only once they wrap around.
+  private void nextStamp() {
+    this.currentStamp++;
+    if (this.currentStamp == Integer.MAX_VALUE) {
+      Arrays.fill(this.visitStamps, 0);
+      this.currentStamp = 1;
+    }
+  }
+
+  private void checkVertex(int vertex) {
+    if (vertex < 0 || vertex >= getVertexCount()) {
+      throw new IllegalArgumentException(String.format("Vertex %d is not in the graph", vertex));
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package dungeonmodel;
+
+// This class represents every undirected edge of a rows x cols grid, generated by index
+// arithmetic. Cells are identified by their one dimensional index (row * cols + col).
+// Edges are laid out in the order the dungeon has always produced them: for every cell in row
+// major order its east edge followed by its south edge, then the north-south wrapping edges for
+// every column and finally the east-west wrapping edges for every row. A wrapping edge on a
+// dimension of two or less is either a self loop or the same as an interior edge, such edges are
+// only kept when every wrapping edge is asked for, as the legacy generation draws from them.
+final class GridEdges {
+  private final int rows;
+  private final int cols;
+  private final boolean wrapping;
+  private final boolean everyWrappingEdge;
+  private final int[] sources;
+  private final int[] destinations;
+
+  // Constructs all the potential edges of the grid, leaving out wrapping edges that are self loops
+  // or the same as interior edges.
+  GridEdges(int rows, int cols, boolean wrapping) {
+    this(rows, cols, wrapping, false);
+  }
+
+  // Constructs all the potential edges of the grid, every wrapping edge included if asked for.
+  GridEdges(int rows, int cols, boolean wrapping, boolean everyWrappingEdge) {
+    int count = countEdges(rows, cols, wrapping, everyWrappingEdge);
+    this.rows = rows;
+    this.cols = cols;
+    this.wrapping = wrapping;
+    this.everyWrappingEdge = everyWrappingEdge;
+    this.sources = new int[count];
+    this.destinations = new int[count];
+    int index = 0;
+    for (int row = 0; row < rows; row++) {
+      for (int col = 0; col < cols; col++) {
+        int cell = row * cols + col;
+        if (col + 1 < cols) {
+          this.sources[index] = cell;
+          this.destinations[index] = cell + 1;
+          index++;
+        }
+        if (row + 1 < rows) {
+          this.sources[index] = cell;
+          this.destinations[index] = cell + cols;
+          index++;
+        }
+      }
+    }
+    if (wrapping) {
+      if (rows > 2 || everyWrappingEdge) {
+        for (int col = 0; col < cols; col++) {
+          this.sources[index] = col;
+          this.destinations[index] = (rows - 1) * cols + col;
+          index++;
+        }
+      }
+      if (cols > 2 || everyWrappingEdge) {
+        for (int row = 0; row < rows; row++) {
+          this.sources[index] = row * cols;
+          this.destinations[index] = row * cols + cols - 1;
+          index++;
+        }
+      }
+    }
+  }
+
+  // Returns number of edges a grid of given dimensions has.
+  static int countEdges(int rows, int cols, boolean wrapping) {
+    return countEdges(rows, cols, wrapping, false);
+  }
+
+  // Returns number of edges a grid of given dimensions has, every wrapping edge included if asked
+  // for.
+  static int countEdges(int rows, int cols, boolean wrapping, boolean everyWrappingEdge) {
+    long count = (long) rows * Math.max(cols - 1, 0) + (long) cols * Math.max(rows - 1, 0);
+    if (wrapping) {
+      if (rows > 2 || everyWrappingEdge) {
+        count += cols;
+      }
+      if (cols > 2 || everyWrappingEdge) {
+        count += rows;
+      }
+    }
+    if (count > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(String.format("Dungeon of size: (%d, %d) has too many "
+              + "paths", rows, cols));
+    }
+    return (int) count;
+  }
+
+  // Returns index of the edge between the cell at given row and column and the cell on its east.
+  int eastEdge(int row, int col) {
+    if (row + 1 == this.rows) {
+      return row * (2 * this.cols - 1) + col;
+    }
+    return row * (2 * this.cols - 1) + 2 * col;
+  }
+
+  // Returns index of the edge between the cell at given row and column and the cell on its south.
+  int southEdge(int row, int col) {
+    if (col + 1 == this.cols) {
+      return row * (2 * this.cols - 1) + 2 * col;
+    }
+    return row * (2 * this.cols - 1) + 2 * col + 1;
+  }
+
+  // Returns index of the edge from the cell at given row and column to its neighbour in the given
+  // direction, which is east or south. Returns -1 if there is no such edge. Wrapping edges that
+  // are self loops or the same as interior edges are never returned.
+  int edgeInDirection(int row, int col, Directions direction) {
+    int innerEdgeCount = countEdges(this.rows, this.cols, false);
+    if (direction == Directions.EAST) {
+      if (col + 1 < this.cols) {
+        return eastEdge(row, col);
+      }
+      if (this.wrapping && this.cols > 2) {
+        return innerEdgeCount + (this.rows > 2 || this.everyWrappingEdge ? this.cols : 0) + row;
+      }
+    }
+    else if (direction == Directions.SOUTH) {
+      if (row + 1 < this.rows) {
+        return southEdge(row, col);
+      }
+      if (this.wrapping && this.rows > 2) {
+        return innerEdgeCount + col;
+      }
+    }
+    return -1;
+  }
+
+  // Returns number of edges.
+  int size() {
+    return this.sources.length;
+  }
+
+  // Returns source cell of the edge at given index.
+  int source(int edge) {
+    return this.sources[edge];
+  }
+
+  // Returns destination cell of the edge at given index.
+  int destination(int edge) {
+    return this.destinations[edge];
+  }
+}
@@ -0,0 +1,475 @@
+package dungeonmodel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class plays a dungeon game while writing every action of the player, its outcome and the
+ * random numbers it drew to an append-only journal, so that a game lost in a crash can be
+ * recovered. A journaled game starts from a layout, the game saved by {@link DungeonFile}, and
+ * {@link #recover(Path, Path, NumberGenerationInterface, int)} rebuilds it by loading the layout
+ * and replaying the journal on it.
+ *
+ * <p>Random numbers of the game, {@link #getRandomSeed()} and {@link #getRandomTape()}, are
+ * recorded by the number generator the game is played with when it is a
+ * {@link RandomGeneration}. They are the numbers drawn since the game was started or recovered.
+ *
+ * <p>Records are buffered in memory and the journal is forced to the disk once every given number
+ * of actions, on {@link #sync()} and on {@link #close()}. Actions that were not forced to the disk
+ * yet can be lost in a crash, the game is then recovered as it was after the last action that was.
+ */
+public final class JournaledDungeonGame implements DungeonGame, Closeable {
+  private static final MonsterStatus[] MONSTER_STATUSES = MonsterStatus.values();
+  private static final Directions[] DIRECTIONS = Directions.values();
+  private static final Treasures[] TREASURES = Treasures.values();
+  private final DungeonGame game;
+  private final JournalGeneration numbers;
+  private final DungeonJournal journal;
+  private boolean closed;
+
+  private JournaledDungeonGame(DungeonGame game, JournalGeneration numbers,
+                               DungeonJournal journal) {
+    this.game = game;
+    this.numbers = numbers;
+    this.journal = journal;
+    this.closed = false;
+  }
+
+  /**
+   * Starts journaling a game. The game is saved as the layout and the journal is created empty,
+   * replacing both files if they exist. The given game is not changed, it is played through the
+   * returned game, which is loaded back from the layout.
+   * @param game Game to journal.
+   * @param layout Path of the file to save the game to.
+   * @param journal Path of the journal file.
+   * @param numberGenerationInterface Number Generator interface for the rest of the game.
+   * @param syncInterval Number of actions after which the journal is forced to the disk.
+   * @return the journaled game.
+   * @throws IllegalArgumentException if any argument is null or if syncInterval is less than or
+   *                                  equal to zero.
+   * @throws IOException if the layout or the journal cannot be written.
+   */
+  public static JournaledDungeonGame start(DungeonGameImpl game, Path layout, Path journal,
+                                           NumberGenerationInterface numberGenerationInterface,
+                                           int syncInterval) throws IOException {
+    checkArguments(layout, journal, numberGenerationInterface, syncInterval);
+    if (game == null) {
+      throw new IllegalArgumentException("Game cannot be null");
+    }
+    DungeonFile.save(game, layout);
+    try (FileChannel channel = FileChannel.open(layout, StandardOpenOption.WRITE)) {
+      channel.force(true);
+    }
+    JournalGeneration numbers = new JournalGeneration(numberGenerationInterface);
+    DungeonGame loaded = DungeonFile.load(layout, numbers);
+    DungeonJournal dungeonJournal = DungeonJournal.create(journal, syncInterval);
+    numbers.record(dungeonJournal);
+    return new JournaledDungeonGame(loaded, numbers, dungeonJournal);
+  }
+
+  /**
+   * Recovers a journaled game by loading its layout and replaying every action of its journal
+   * with the random numbers they drew. An incomplete record at the end of the journal, left by a
+   * crash while it was being written, is dropped along with the random numbers drawn after the
+   * last complete action. The recovered game goes on appending to the same journal.
+   * @param layout Path of the layout of the game.
+   * @param journal Path of the journal file.
+   * @param numberGenerationInterface Number Generator interface for the rest of the game.
+   * @param syncInterval Number of actions after which the journal is forced to the disk.
+   * @return the recovered game.
+   * @throws IllegalArgumentException if any argument is null, if syncInterval is less than or
+   *                                  equal to zero, if the layout is not a valid dungeon file or
+   *                                  if the journal is not a valid journal of the layout.
+   * @throws IOException if the layout or the journal cannot be read or written.
+   */
+  public static JournaledDungeonGame recover(Path layout, Path journal,
+                                             NumberGenerationInterface numberGenerationInterface,
+                                             int syncInterval) throws IOException {
+    checkArguments(layout, journal, numberGenerationInterface, syncInterval);
+    JournalGeneration numbers = new JournalGeneration(numberGenerationInterface);
+    DungeonGame game = DungeonFile.load(layout, numbers);
+    ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(journal, StandardOpenOption.READ)) {
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    if (buffer.remaining() < DungeonJournal.HEADER_SIZE || buffer.getInt() != DungeonJournal.MAGIC
+            || buffer.getInt() != DungeonJournal.VERSION) {
+      throw new IllegalArgumentException(String.format("%s is not a dungeon journal", journal));
+    }
+    long length = replay(game, numbers, buffer);
+    DungeonJournal dungeonJournal = DungeonJournal.append(journal, length, syncInterval);
+    numbers.record(dungeonJournal);
+    return new JournaledDungeonGame(game, numbers, dungeonJournal);
+  }
+
+  private static void checkArguments(Path layout, Path journal,
+                                     NumberGenerationInterface numberGenerationInterface,
+                                     int syncInterval) {
+    if (layout == null || journal == null || numberGenerationInterface == null) {
+      throw new IllegalArgumentException("Paths and number generation interface cannot be null");
+    }
+    if (syncInterval <= 0) {
+      throw new IllegalArgumentException("Sync interval must be positive");
+    }
+  }
+
+  // Replays the records of the buffer on the game and returns the length of the journal up to the
+  // end of its last complete action.
+  private static long replay(DungeonGame game, JournalGeneration numbers, ByteBuffer buffer) {
+    long length = buffer.position();
+    try {
+      while (buffer.hasRemaining()) {
+        byte type = buffer.get();
+        if (type == DungeonJournal.DRAW) {
+          numbers.addDraw(buffer.getInt());
+          continue;
+        }
+        if (type < DungeonJournal.MOVE || type > DungeonJournal.PICK_ALL_TREASURES) {
+          throw new IllegalArgumentException("Journal has a record that is not valid");
+        }
+        int argument = buffer.getInt();
+        int direction = buffer.get();
+        byte outcome = buffer.get();
+        if (direction < -1 || direction >= DIRECTIONS.length) {
+          throw new IllegalArgumentException("Journal has an action in an invalid direction");
+        }
+        byte replayed;
+        try {
+          replayed = perform(game, type, argument,
+                  direction < 0 ? null : DIRECTIONS[direction]);
+        }
+        catch (RuntimeException e) {
+          replayed = DungeonJournal.FAILED;
+        }
+        if (replayed != outcome || !numbers.endReplay()) {
+          throw new IllegalArgumentException("Journal does not match the layout of the game");
+        }
+        length = buffer.position();
+      }
+    }
+    catch (BufferUnderflowException e) {
+      // The last record was not completely written before the crash.
+    }
+    numbers.endReplay();
+    return length;
+  }
+
+  // Performs an action on the game and returns its outcome.
+  private static byte perform(DungeonGame game, byte action, int argument,
+                              Directions direction) {
+    switch (action) {
+      case DungeonJournal.MOVE:
+        game.movePlayer(direction);
+        return DungeonJournal.DONE;
+      case DungeonJournal.SHOOT:
+        return (byte) (DungeonJournal.DONE + game.shootArrow(argument, direction).ordinal());
+      case DungeonJournal.PICK_TREASURE:
+        game.pickTreasure(argument < 0 || argument >= TREASURES.length ? null
+                : TREASURES[argument]);
+        return DungeonJournal.DONE;
+      case DungeonJournal.PICK_ARROW:
+        game.pickArrow();
+        return DungeonJournal.DONE;
+      case DungeonJournal.PICK_ALL_ARROWS:
+        game.pickAllArrows();
+        return DungeonJournal.DONE;
+      case DungeonJournal.PICK_ALL_TREASURES:
+        game.pickAllTreasures();
+        return DungeonJournal.DONE;
+      default:
+        throw new IllegalStateException(String.format("Journal action %d is not valid", action));
+    }
+  }
+
+  // Performs an action on the game and journals it, an action that throws is journaled as failed.
+  private byte journal(byte action, int argument, Directions direction) {
+    if (this.closed) {
+      throw new IllegalStateException("Journaled game is closed");
+    }
+    int directionOrdinal = direction == null ? -1 : direction.ordinal();
+    byte outcome;
+    try {
+      outcome = perform(this.game, action, argument, direction);
+    }
+    catch (RuntimeException e) {
+      this.journal.writeAction(action, argument, directionOrdinal, DungeonJournal.FAILED);
+      throw e;
+    }
+    this.journal.writeAction(action, argument, directionOrdinal, outcome);
+    return outcome;
+  }
+
+  /**
+   * Forces every action played so far to the disk.
+   * @throws java.io.UncheckedIOException if the journal cannot be written.
+   */
+  public void sync() {
+    this.journal.sync();
+  }
+
+  /**
+   * Forces every action played so far to the disk and closes the journal. The game cannot be
+   * played after it is closed.
+   * @throws IOException if the journal cannot be written.
+   */
+  @Override
+  public void close() throws IOException {
+    if (!this.closed) {
+      this.closed = true;
+      this.journal.close();
+    }
+  }
+
+  @Override
+  public void movePlayer(Directions direction) {
+    journal(DungeonJournal.MOVE, 0, direction);
+  }
+
+  @Override
+  public MonsterStatus shootArrow(int distance, Directions direction) {
+    return MONSTER_STATUSES[journal(DungeonJournal.SHOOT, distance, direction)
+            - DungeonJournal.DONE];
+  }
+
+  @Override
+  public void pickTreasure(Treasures t) {
+    journal(DungeonJournal.PICK_TREASURE, t == null ? -1 : t.ordinal(), null);
+  }
+
+  @Override
+  public void pickArrow() {
+    journal(DungeonJournal.PICK_ARROW, 0, null);
+  }
+
+  @Override
+  public void pickAllArrows() {
+    journal(DungeonJournal.PICK_ALL_ARROWS, 0, null);
+  }
+
+  @Override
+  public void pickAllTreasures() {
+    journal(DungeonJournal.PICK_ALL_TREASURES, 0, null);
+  }
+
+  @Override
+  public int getRowsInBoard() {
+    return this.game.getRowsInBoard();
+  }
+
+  @Override
+  public int getColsInBoard() {
+    return this.game.getColsInBoard();
+  }
+
+  @Override
+  public GeneralLocation getStartLocation() {
+    return this.game.getStartLocation();
+  }
+
+  @Override
+  public GeneralLocation getEndLocation() {
+    return this.game.getEndLocation();
+  }
+
+  @Override
+  public GeneralLocation getPlayerCurrentLocation() {
+    return this.game.getPlayerCurrentLocation();
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return this.game.isGameOver();
+  }
+
+  @Override
+  public String getPlayerCurrLocationInfo() {
+    return this.game.getPlayerCurrLocationInfo();
+  }
+
+  @Override
+  public String getPlayerInfo() {
+    return this.game.getPlayerInfo();
+  }
+
+  @Override
+  public boolean isPlayerAlive() {
+    return this.game.isPlayerAlive();
+  }
+
+  @Override
+  public GeneralLocation[][] getBoard() {
+    return this.game.getBoard();
+  }
+
+  @Override
+  public boolean getWrapping() {
+    return this.game.getWrapping();
+  }
+
+  @Override
+  public int getInterConnectivity() {
+    return this.game.getInterConnectivity();
+  }
+
+  @Override
+  public int getTreasureArrowPercent() {
+    return this.game.getTreasureArrowPercent();
+  }
+
+  @Override
+  public int getNumberOfMonsters() {
+    return this.game.getNumberOfMonsters();
+  }
+
+  @Override
+  public String getPlayerName() {
+    return this.game.getPlayerName();
+  }
+
+  @Override
+  public int getPlayerArrowCount() {
+    return this.game.getPlayerArrowCount();
+  }
+
+  @Override
+  public int getPlayerRubyCount() {
+    return this.game.getPlayerRubyCount();
+  }
+
+  @Override
+  public int getPlayerDiamondCount() {
+    return this.game.getPlayerDiamondCount();
+  }
+
+  @Override
+  public int getPlayerEmeraldCount() {
+    return this.game.getPlayerEmeraldCount();
+  }
+
+  @Override
+  public int getCurrentLocationArrowCount() {
+    return this.game.getCurrentLocationArrowCount();
+  }
+
+  @Override
+  public int getCurrentLocationRubyCount() {
+    return this.game.getCurrentLocationRubyCount();
+  }
+
+  @Override
+  public int getCurrentLocationDiamondCount() {
+    return this.game.getCurrentLocationDiamondCount();
+  }
+
+  @Override
+  public int getCurrentLocationEmeraldCount() {
+    return this.game.getCurrentLocationEmeraldCount();
+  }
+
+  @Override
+  public Smell getSmellInLocation(GeneralLocation location) {
+    return this.game.getSmellInLocation(location);
+  }
+
+  // Random numbers are those drawn by the generator the game was started or recovered with, the
+  // numbers replayed from the journal are not drawn again.
+  @Override
+  public List<Integer> getRandomSeed() {
+    return getRandomGeneration().getRandomValuesList();
+  }
+
+  @Override
+  public RandomTape getRandomTape() {
+    return getRandomGeneration().getRandomTape();
+  }
+
+  private RandomGeneration getRandomGeneration() {
+    if (!(this.numbers.numbers instanceof RandomGeneration)) {
+      throw new IllegalStateException("Random numbers are recorded only by random generation, "
+              + "seeded generation can be replayed from its seed");
+    }
+    return (RandomGeneration) this.numbers.numbers;
+  }
+
+  @Override
+  public boolean hasPit(GeneralLocation location) {
+    return this.game.hasPit(location);
+  }
+
+  @Override
+  public int getDeathReason() {
+    return this.game.getDeathReason();
+  }
+
+  @Override
+  public boolean hasThief(GeneralLocation location) {
+    return this.game.hasThief(location);
+  }
+
+  @Override
+  public CaveGraph getCaveGraph() {
+    return this.game.getCaveGraph();
+  }
+
+  // This class hands random numbers to the journaled game. While the journal is replayed it hands
+  // out the numbers drawn by the action being replayed, afterwards it draws them from the given
+  // number generator and writes them to the journal.
+  private static final class JournalGeneration implements NumberGenerationInterface {
+    private final NumberGenerationInterface numbers;
+    private DungeonJournal journal;
+    private int[] draws;
+    private int drawCount;
+    private int drawIndex;
+    private boolean overrun;
+
+    private JournalGeneration(NumberGenerationInterface numbers) {
+      this.numbers = numbers;
+      this.draws = new int[16];
+      this.drawCount = 0;
+      this.drawIndex = 0;
+      this.overrun = false;
+    }
+
+    @Override
+    public int getIntInRange(int minimumBound, int maximumBound) {
+      if (this.journal != null) {
+        int value = this.numbers.getIntInRange(minimumBound, maximumBound);
+        this.journal.writeDraw(value);
+        return value;
+      }
+      if (this.drawIndex < this.drawCount) {
+        return this.draws[this.drawIndex++];
+      }
+      // The action drew more numbers than the journal has, which is reported once it is over.
+      this.overrun = true;
+      return minimumBound;
+    }
+
+    private void addDraw(int value) {
+      if (this.drawCount == this.draws.length) {
+        this.draws = Arrays.copyOf(this.draws, this.drawCount * 2);
+      }
+      this.draws[this.drawCount++] = value;
+    }
+
+    // Ends replay of an action, returns true if it drew exactly the numbers it drew when played.
+    private boolean endReplay() {
+      boolean matched = !this.overrun && this.drawIndex == this.drawCount;
+      this.drawCount = 0;
+      this.drawIndex = 0;
+      this.overrun = false;
+      return matched;
+    }
+
+    private void record(DungeonJournal journal) {
+      this.journal = journal;
+    }
+  }
+}
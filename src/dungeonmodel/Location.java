@@ -1,32 +1,35 @@
 package dungeonmodel;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 /**
  * This class represents a single location in the dungeon. It includes all the methods that can be
- * operated on a single location.
+ * operated on a single location. Position and paths of the location are not stored in it, they are
+ * read from the graph of the dungeon it belongs to.
  */
 public class Location implements GeneralLocation {
-  private final Point2D location;
-  private final List<GeneralLocation> adjacencyList;
-  private final List<Treasures> treasuresList;
+  private static final Directions[] DIRECTIONS = Directions.values();
+  private final DungeonGameImpl dungeon;
+  private final int id;
+  private final TreasureCounter treasures;
   private Monster monster;
   private int arrowCount;
   private boolean isVisited;
   private boolean hasPit;
   private boolean hasThieve;
+  private int modificationCount;
+  private LocationSnapshot snapshot;
+  private int snapshotModificationCount;
 
-  Location(Point2D location) {
-    if (location == null) {
+  Location(DungeonGameImpl dungeon, int id) {
+    if (dungeon == null) {
       throw new IllegalArgumentException("Null cannot be passed");
     }
-    this.location = location;
-    this.adjacencyList = new ArrayList<>();
-    this.treasuresList = new ArrayList<>();
+    this.dungeon = dungeon;
+    this.id = id;
+    this.treasures = new TreasureCounter();
     this.monster = null;
     this.arrowCount = 0;
     this.isVisited = false;
@@ -34,6 +37,28 @@ public class Location implements GeneralLocation {
     this.hasThieve = false;
   }
 
+  // Constructs a copy of the given location with its treasures, arrows and monster.
+  Location(Location other) {
+    this.dungeon = other.dungeon;
+    this.id = other.id;
+    this.treasures = new TreasureCounter(other.treasures);
+    if (other.monster != null) {
+      this.monster = new Otyugh();
+      this.monster.assignDamage(other.monster.getPotentialDamage());
+    }
+    this.arrowCount = other.arrowCount;
+  }
+
+  // Returns a read only copy of current location. The copy is cached and shared by every caller
+  // until treasures, arrows or monster of this location change.
+  protected Location getSnapshot() {
+    if (this.snapshot == null || this.snapshotModificationCount != this.modificationCount) {
+      this.snapshot = new LocationSnapshot(this);
+      this.snapshotModificationCount = this.modificationCount;
+    }
+    return this.snapshot;
+  }
+
   protected void addPit() {
     this.hasPit = true;
   }
@@ -63,16 +88,19 @@ public class Location implements GeneralLocation {
   // Add arrows to location.
   protected void addArrows(int count) {
     this.arrowCount = count;
+    this.modificationCount++;
   }
 
   // Remove arrows from location.
   protected void removeArrow() {
     this.arrowCount--;
+    this.modificationCount++;
   }
 
   // Remove all arrows from location.
   protected void removeAllArrows() {
     this.arrowCount = 0;
+    this.modificationCount++;
   }
 
   @Override
@@ -83,6 +111,7 @@ public class Location implements GeneralLocation {
   // Damages monster if present at current location.
   protected void damageMonster() {
     this.monster.reducedDamage();
+    this.modificationCount++;
   }
 
   // Returns monster if present at current location.
@@ -93,6 +122,7 @@ public class Location implements GeneralLocation {
   // Adds monster to current location.
   protected void addMonster() {
     this.monster = new Otyugh();
+    this.modificationCount++;
   }
 
   // Checks if current location has monster.
@@ -103,107 +133,74 @@ public class Location implements GeneralLocation {
 
   @Override
   public Point2D getLocation() {
-    return new Point2D(this.location.getX(), this.location.getY());
+    int cols = this.dungeon.getColsInBoard();
+    return new Point2D(this.id / cols, this.id % cols);
+  }
+
+  // Returns id of current location, which is row * cols + col in its dungeon.
+  protected int getId() {
+    return this.id;
   }
 
+  // Locations are only compared with the locations of the same dungeon, where ids are unique.
   @Override
   public boolean equals(Object other)  {
-    if (other instanceof GeneralLocation) {
-      return this.getLocation().equals(((Location) other).getLocation());
+    if (other instanceof Location) {
+      return this.id == ((Location) other).id;
     }
     return false;
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(this.location.getX(), this.location.getX());
-  }
-
-  // updates adjacencies for current location.
-  protected void updateAdjacencies(GeneralLocation location) {
-    this.adjacencyList.add(location);
+    return this.id;
   }
 
   @Override
   public List<GeneralLocation> getAdjacencyList() {
-    return List.copyOf(this.adjacencyList);
+    DungeonGraph graph = this.dungeon.getGraph();
+    GeneralLocation[] adjacencies = new GeneralLocation[graph.getDegree(this.id)];
+    for (int i = 0; i < adjacencies.length; i++) {
+      adjacencies[i] = this.dungeon.getLocationFromOneDIndex(graph.getNeighbour(this.id, i));
+    }
+    return List.of(adjacencies);
   }
 
-
   // Adds treasure to current location.
   protected void addTreasures(Treasures treasure) {
-    this.treasuresList.add(treasure);
-  }
-
-  // Gets smell in current location.
-  protected Smell getSmellInCave() {
-    List<GeneralLocation> twoDistantAwayLocations = new ArrayList<>();
-    for (int i = 0; i < this.adjacencyList.size(); i++) {
-      Location location = (Location) this.adjacencyList.get(i);
-      for (int j = 0; j < location.getAdjacencyList().size(); j++) {
-        Location location1 = (Location) location.getAdjacencyList().get(j);
-        if (!twoDistantAwayLocations.contains(location1)) {
-          twoDistantAwayLocations.add(location1);
-        }
-      }
-      if (location.hasMonster()) {
-        return Smell.MOREPUNGENT;
-      }
-    }
-    int monsterCount = 0;
-    for (int i = 0; i < twoDistantAwayLocations.size(); i++) {
-      Location location = (Location) twoDistantAwayLocations.get(i);
-      if (location.hasMonster()) {
-        monsterCount++;
-      }
-    }
-    if (monsterCount == 1) {
-      return Smell.LESSPUNGENT;
-    }
-    else if (monsterCount > 1) {
-      return Smell.MOREPUNGENT;
-    }
-    else {
-      return null;
-    }
+    this.treasures.add(treasure);
+    this.modificationCount++;
+  }
+
+  // Adds count treasures of given kind to current location.
+  protected void addTreasures(Treasures treasure, int count) {
+    this.treasures.add(treasure, count);
+    this.modificationCount++;
   }
 
   @Override
   public List<Treasures> getTreasuresList() {
-    return List.copyOf(this.treasuresList);
+    return this.treasures.asList();
+  }
+
+  // Returns number of treasures of given kind in current location.
+  protected int getTreasureCount(Treasures treasure) {
+    return this.treasures.count(treasure);
+  }
+
+  // Returns the treasures in current location.
+  protected TreasureCounter getTreasures() {
+    return this.treasures;
   }
 
   @Override
   public Map<Directions, GeneralLocation> getPossibleDirectionMoves(int rowCount, int colCount) {
-    Map<Directions, GeneralLocation> locationMap = new HashMap<>();
-    int currentX = this.location.getX();
-    int currentY = this.location.getY();
-    for (int i = 0; i < this.adjacencyList.size(); i++) {
-      int adjacentX = this.adjacencyList.get(i).getLocation().getX();
-      int adjacentY = this.adjacencyList.get(i).getLocation().getY();
-      if ((adjacentX == currentX + 1)) {
-        locationMap.put(Directions.SOUTH, this.getAdjacencyList().get(i));
-      }
-      else if (adjacentX == currentX - 1 ) {
-        locationMap.put(Directions.NORTH, this.getAdjacencyList().get(i));
-      }
-      else if (adjacentY == currentY + 1 ) {
-        locationMap.put( Directions.EAST, this.getAdjacencyList().get(i));
-      }
-      else if (adjacentY == currentY - 1 ) {
-        locationMap.put(Directions.WEST, this.getAdjacencyList().get(i));
-      }
-      if (currentX - adjacentX == - (rowCount - 1) ) {
-        locationMap.put(Directions.NORTH, this.getAdjacencyList().get(i));
-      }
-      else if (currentX - adjacentX == rowCount - 1) {
-        locationMap.put(Directions.SOUTH, this.getAdjacencyList().get(i));
-      }
-      if (currentY - adjacentY == - (colCount - 1) ) {
-        locationMap.put(Directions.WEST, this.getAdjacencyList().get(i));
-      }
-      else if (currentY - adjacentY == colCount - 1) {
-        locationMap.put(Directions.EAST, this.getAdjacencyList().get(i));
+    DungeonGraph graph = this.dungeon.getGraph();
+    Map<Directions, GeneralLocation> locationMap = new EnumMap<>(Directions.class);
+    for (Directions direction : DIRECTIONS) {
+      int neighbour = graph.getNeighbour(this.id, direction);
+      if (neighbour != -1) {
+        locationMap.put(direction, this.dungeon.getLocationFromOneDIndex(neighbour));
       }
     }
     return locationMap;
@@ -211,14 +208,14 @@ public class Location implements GeneralLocation {
 
   @Override
   public boolean isCave() {
-    return this.adjacencyList.size() != 2;
+    return this.dungeon.getGraph().isCave(this.id);
   }
 
   @Override
   public String toString() {
-    StringBuilder stringBuilder = new StringBuilder(this.location.toString())
+    StringBuilder stringBuilder = new StringBuilder(getLocation().toString())
             .append(", Treasures: ")
-            .append(this.treasuresList);
+            .append(this.treasures);
     if (this.getArrowCount() > 0) {
       stringBuilder.append(", Has ").append(this.arrowCount).append(" Arrows");
     }
@@ -233,12 +230,14 @@ public class Location implements GeneralLocation {
 
   // Removes treasure from current location.
   protected void removeTreasure(Treasures t) {
-    this.treasuresList.remove(t);
+    this.treasures.remove(t);
+    this.modificationCount++;
   }
 
   // Removes treasure from current location.
   protected void removeAllTreasures() {
-    this.treasuresList.clear();
+    this.treasures.clear();
+    this.modificationCount++;
   }
 
 
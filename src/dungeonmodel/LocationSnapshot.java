@@ -0,0 +1,77 @@
+package dungeonmodel;
+
+// This class represents a read only copy of a location, as it was when the copy was taken. It is
+// handed out for start, end and player locations so that callers cannot change the dungeon
+// through it. Every method that would change the location throws UnsupportedOperationException.
+final class LocationSnapshot extends Location {
+
+  // Constructs read only copy of given location.
+  LocationSnapshot(Location location) {
+    super(location);
+  }
+
+  @Override
+  protected Location getSnapshot() {
+    return this;
+  }
+
+  @Override
+  protected void addPit() {
+    throw new UnsupportedOperationException("Location snapshot cannot be changed");
+  }
+
+  @Override
+  protected void addThief() {
+    throw new UnsupportedOperationException("Location snapshot cannot be changed");
+  }
+
+  @Override
+  protected void setVisited() {
+    throw new UnsupportedOperationException("Location snapshot cannot be changed");
+  }
+
+  @Override
+  protected void addArrows(int count) {
+    throw new UnsupportedOperationException("Location snapshot cannot be changed");
+  }
+
+  @Override
+  protected void removeArrow() {
+    throw new UnsupportedOperationException("Location snapshot cannot be changed");
+  }
+
+  @Override
+  protected void removeAllArrows() {
+    throw new UnsupportedOperationException("Location snapshot cannot be changed");
+  }
+
+  @Override
+  protected void damageMonster() {
+    throw new UnsupportedOperationException("Location snapshot cannot be changed");
+  }
+
+  @Override
+  protected void addMonster() {
+    throw new UnsupportedOperationException("Location snapshot cannot be changed");
+  }
+
+  @Override
+  protected void addTreasures(Treasures treasure) {
+    throw new UnsupportedOperationException("Location snapshot cannot be changed");
+  }
+
+  @Override
+  protected void addTreasures(Treasures treasure, int count) {
+    throw new UnsupportedOperationException("Location snapshot cannot be changed");
+  }
+
+  @Override
+  protected void removeTreasure(Treasures t) {
+    throw new UnsupportedOperationException("Location snapshot cannot be changed");
+  }
+
+  @Override
+  protected void removeAllTreasures() {
+    throw new UnsupportedOperationException("Location snapshot cannot be changed");
+  }
+}
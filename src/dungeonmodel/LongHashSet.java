@@ -0,0 +1,86 @@
+package dungeonmodel;
+
+import java.util.Arrays;
+
+// This class represents a set of long values stored in an open addressing hash table, so that
+// values are neither boxed nor wrapped in entry objects. It is used to remember pairs of cells,
+// with both cell ids packed into one long.
+final class LongHashSet {
+  private static final long EMPTY = Long.MIN_VALUE;
+  private long[] values;
+  private int size;
+  private boolean hasEmptyValue;
+
+  // Constructs an empty set.
+  LongHashSet() {
+    this.values = new long[16];
+    Arrays.fill(this.values, EMPTY);
+    this.size = 0;
+    this.hasEmptyValue = false;
+  }
+
+  // Returns a single value for the unordered pair of given cells.
+  static long pairOf(int firstCell, int secondCell) {
+    int low = Math.min(firstCell, secondCell);
+    int high = Math.max(firstCell, secondCell);
+    return ((long) low << 32) | (high & 0xffffffffL);
+  }
+
+  // Adds value to the set, returns false if it was already present.
+  boolean add(long value) {
+    if (value == EMPTY) {
+      boolean added = !this.hasEmptyValue;
+      this.hasEmptyValue = true;
+      return added;
+    }
+    int slot = find(this.values, value);
+    if (this.values[slot] == value) {
+      return false;
+    }
+    this.values[slot] = value;
+    this.size++;
+    if (this.size * 2 > this.values.length) {
+      grow();
+    }
+    return true;
+  }
+
+  // Checks if value is in the set.
+  boolean contains(long value) {
+    if (value == EMPTY) {
+      return this.hasEmptyValue;
+    }
+    return this.values[find(this.values, value)] == value;
+  }
+
+  // Returns number of values in the set.
+  int size() {
+    return this.size + (this.hasEmptyValue ? 1 : 0);
+  }
+
+  // Returns slot that holds the value or the empty slot where it would be added.
+  private static int find(long[] table, long value) {
+    int mask = table.length - 1;
+    int slot = mix(value) & mask;
+    while (table[slot] != EMPTY && table[slot] != value) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private static int mix(long value) {
+    long hash = value * 0x9E3779B97F4A7C15L;
+    return (int) (hash ^ (hash >>> 32));
+  }
+
+  private void grow() {
+    long[] table = new long[this.values.length * 2];
+    Arrays.fill(table, EMPTY);
+    for (long value : this.values) {
+      if (value != EMPTY) {
+        table[find(table, value)] = value;
+      }
+    }
+    this.values = table;
+  }
+}
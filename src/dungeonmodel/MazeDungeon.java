@@ -0,0 +1,403 @@
+package dungeonmodel;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents a read only view of the dungeon stored in a {@link MazeFile}, for mazes
+ * too large to be loaded as a game. The file is mapped into memory and every location is decoded
+ * from it when it is asked for, hence the view takes memory only for the locations being looked
+ * at, whatever the size of the maze.
+ *
+ * <p>The dungeon is the spanning tree of the maze, it doesn't wrap and has no interconnections.
+ * Nothing is placed in it: there are no treasures, arrows, monsters, pits or thieves. It starts at
+ * the first location of the first row and ends at the last location of the last row, where the
+ * player is yet to go from the start.
+ */
+public final class MazeDungeon implements ReadOnlyDungeon {
+  private static final Directions[] DIRECTIONS = Directions.values();
+  private final int rows;
+  private final int cols;
+  private final int packedRowSize;
+  private final int rowsPerBuffer;
+  private final ByteBuffer[] buffers;
+
+  private MazeDungeon(int rows, int cols, ByteBuffer[] buffers, int rowsPerBuffer) {
+    this.rows = rows;
+    this.cols = cols;
+    this.packedRowSize = MazeFile.getPackedRowSize(cols);
+    this.rowsPerBuffer = rowsPerBuffer;
+    this.buffers = buffers;
+  }
+
+  /**
+   * Opens a view of the maze stored in the given file. The file is mapped in parts of at most 2 GB
+   * each, and stays mapped as long as the view is in use.
+   * @param path Path of the maze file.
+   * @return view of the maze.
+   * @throws IllegalArgumentException if path is null or the file is not a complete maze file
+   *                                  or if the maze has no locations or too many rows.
+   * @throws IOException if the file cannot be read.
+   */
+  public static MazeDungeon open(Path path) throws IOException {
+    long mazeRows;
+    int cols;
+    try (MazeFile maze = MazeFile.open(path)) {
+      mazeRows = maze.getRows();
+      cols = maze.getCols();
+    }
+    if (mazeRows == 0 || cols == 0) {
+      throw new IllegalArgumentException(String.format("%s has no locations", path));
+    }
+    if (mazeRows > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException(String.format("Maze of %d rows is too large for a dungeon",
+              mazeRows));
+    }
+    int rows = (int) mazeRows;
+    int packedRowSize = MazeFile.getPackedRowSize(cols);
+    // A buffer maps at most Integer.MAX_VALUE bytes, hence larger mazes are mapped a number of
+    // whole rows at a time.
+    int rowsPerBuffer = Math.min(Integer.MAX_VALUE / packedRowSize, rows);
+    ByteBuffer[] buffers = new ByteBuffer[(rows + rowsPerBuffer - 1) / rowsPerBuffer];
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      for (int i = 0; i < buffers.length; i++) {
+        long firstRow = (long) i * rowsPerBuffer;
+        int rowCount = (int) Math.min(rowsPerBuffer, rows - firstRow);
+        buffers[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                MazeFile.HEADER_SIZE + firstRow * packedRowSize, (long) rowCount * packedRowSize);
+      }
+    }
+    return new MazeDungeon(rows, cols, buffers, rowsPerBuffer);
+  }
+
+  /**
+   * Returns the location at given row and column, decoded from the maze file.
+   * @param row Row of the location.
+   * @param col Column of the location.
+   * @return location at given row and column.
+   * @throws IllegalArgumentException if the location is not in the dungeon.
+   */
+  public GeneralLocation getLocation(int row, int col) {
+    if (row < 0 || row >= this.rows || col < 0 || col >= this.cols) {
+      throw new IllegalArgumentException(String.format("Location (%d, %d) is not in the dungeon",
+              row, col));
+    }
+    return new MazeLocation(this, row, col);
+  }
+
+  // Returns the EllerMazeGenerator.EAST and EllerMazeGenerator.SOUTH paths of the given location.
+  private int getPaths(int row, int col) {
+    ByteBuffer buffer = this.buffers[row / this.rowsPerBuffer];
+    int index = (row % this.rowsPerBuffer) * this.packedRowSize + col / MazeFile.CELLS_PER_BYTE;
+    return (buffer.get(index) >> (2 * (col % MazeFile.CELLS_PER_BYTE)))
+            & (EllerMazeGenerator.EAST | EllerMazeGenerator.SOUTH);
+  }
+
+  // Checks if the given location has a path in the given direction.
+  private boolean hasPath(int row, int col, Directions direction) {
+    switch (direction) {
+      case NORTH:
+        return row > 0 && (getPaths(row - 1, col) & EllerMazeGenerator.SOUTH) != 0;
+      case SOUTH:
+        return (getPaths(row, col) & EllerMazeGenerator.SOUTH) != 0;
+      case EAST:
+        return (getPaths(row, col) & EllerMazeGenerator.EAST) != 0;
+      default:
+        return col > 0 && (getPaths(row, col - 1) & EllerMazeGenerator.EAST) != 0;
+    }
+  }
+
+  // Returns the location next to the given one in the given direction.
+  private MazeLocation getNeighbour(int row, int col, Directions direction) {
+    switch (direction) {
+      case NORTH:
+        return new MazeLocation(this, row - 1, col);
+      case SOUTH:
+        return new MazeLocation(this, row + 1, col);
+      case EAST:
+        return new MazeLocation(this, row, col + 1);
+      default:
+        return new MazeLocation(this, row, col - 1);
+    }
+  }
+
+  // Returns the directions in which the given location has a path, in declaration order.
+  private List<Directions> getDirections(int row, int col) {
+    List<Directions> directions = new ArrayList<>(DIRECTIONS.length);
+    for (Directions direction : DIRECTIONS) {
+      if (hasPath(row, col, direction)) {
+        directions.add(direction);
+      }
+    }
+    return directions;
+  }
+
+  @Override
+  public int getRowsInBoard() {
+    return this.rows;
+  }
+
+  @Override
+  public int getColsInBoard() {
+    return this.cols;
+  }
+
+  @Override
+  public GeneralLocation getStartLocation() {
+    return new MazeLocation(this, 0, 0);
+  }
+
+  @Override
+  public GeneralLocation getEndLocation() {
+    return new MazeLocation(this, this.rows - 1, this.cols - 1);
+  }
+
+  @Override
+  public GeneralLocation getPlayerCurrentLocation() {
+    return getStartLocation();
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return this.rows == 1 && this.cols == 1;
+  }
+
+  @Override
+  public String getPlayerCurrLocationInfo() {
+    StringBuilder stringBuilder = new StringBuilder("You are in a ");
+    if (getPlayerCurrentLocation().isCave()) {
+      stringBuilder.append("cave\n");
+    }
+    else {
+      stringBuilder.append("tunnel\n");
+    }
+    List<Directions> directions = getDirections(0, 0);
+    directions.sort(Comparator.comparing(Enum::toString));
+    stringBuilder.append("Doors lead to ");
+    stringBuilder.append(directions).append("\n");
+    return stringBuilder.toString();
+  }
+
+  @Override
+  public String getPlayerInfo() {
+    return "Player owns below treasures: \n" + new EnumMap<>(Treasures.class) + "\n"
+            + "Player owns: 0 arrows\n";
+  }
+
+  @Override
+  public boolean isPlayerAlive() {
+    return true;
+  }
+
+  /**
+   * Returns every location of the dungeon. Every location is decoded and kept in the board, hence
+   * only boards of mazes that fit in memory can be asked for, see {@link #getLocation(int, int)}.
+   * @return board of the dungeon.
+   */
+  @Override
+  public GeneralLocation[][] getBoard() {
+    GeneralLocation[][] board = new GeneralLocation[this.rows][this.cols];
+    for (int row = 0; row < this.rows; row++) {
+      for (int col = 0; col < this.cols; col++) {
+        board[row][col] = new MazeLocation(this, row, col);
+      }
+    }
+    return board;
+  }
+
+  @Override
+  public boolean getWrapping() {
+    return false;
+  }
+
+  @Override
+  public int getInterConnectivity() {
+    return 0;
+  }
+
+  @Override
+  public int getTreasureArrowPercent() {
+    return 0;
+  }
+
+  @Override
+  public int getNumberOfMonsters() {
+    return 0;
+  }
+
+  @Override
+  public String getPlayerName() {
+    return null;
+  }
+
+  @Override
+  public int getPlayerArrowCount() {
+    return 0;
+  }
+
+  @Override
+  public int getPlayerRubyCount() {
+    return 0;
+  }
+
+  @Override
+  public int getPlayerDiamondCount() {
+    return 0;
+  }
+
+  @Override
+  public int getPlayerEmeraldCount() {
+    return 0;
+  }
+
+  @Override
+  public int getCurrentLocationArrowCount() {
+    return 0;
+  }
+
+  @Override
+  public int getCurrentLocationRubyCount() {
+    return 0;
+  }
+
+  @Override
+  public int getCurrentLocationDiamondCount() {
+    return 0;
+  }
+
+  @Override
+  public int getCurrentLocationEmeraldCount() {
+    return 0;
+  }
+
+  @Override
+  public Smell getSmellInLocation(GeneralLocation location) {
+    return null;
+  }
+
+  @Override
+  public List<Integer> getRandomSeed() {
+    throw new IllegalStateException("Maze view doesn't draw random numbers");
+  }
+
+  @Override
+  public RandomTape getRandomTape() {
+    throw new IllegalStateException("Maze view doesn't draw random numbers");
+  }
+
+  @Override
+  public boolean hasPit(GeneralLocation location) {
+    return false;
+  }
+
+  @Override
+  public int getDeathReason() {
+    return 0;
+  }
+
+  @Override
+  public boolean hasThief(GeneralLocation location) {
+    return false;
+  }
+
+  /**
+   * Cave graph of a maze view is not available, since it would keep every cave of the maze in
+   * memory.
+   * @throws IllegalStateException always.
+   */
+  @Override
+  public CaveGraph getCaveGraph() {
+    throw new IllegalStateException("Cave graph of a maze view is not available");
+  }
+
+  // This class represents a location of the maze, decoded from the file whenever it is asked
+  // about. Two views of the same location are equal.
+  private static final class MazeLocation implements GeneralLocation {
+    private final MazeDungeon maze;
+    private final int row;
+    private final int col;
+
+    private MazeLocation(MazeDungeon maze, int row, int col) {
+      this.maze = maze;
+      this.row = row;
+      this.col = col;
+    }
+
+    @Override
+    public Point2D getLocation() {
+      return new Point2D(this.row, this.col);
+    }
+
+    @Override
+    public List<GeneralLocation> getAdjacencyList() {
+      List<GeneralLocation> adjacencies = new ArrayList<>(DIRECTIONS.length);
+      for (Directions direction : this.maze.getDirections(this.row, this.col)) {
+        adjacencies.add(this.maze.getNeighbour(this.row, this.col, direction));
+      }
+      return List.copyOf(adjacencies);
+    }
+
+    @Override
+    public boolean isCave() {
+      return this.maze.getDirections(this.row, this.col).size() != 2;
+    }
+
+    @Override
+    public List<Treasures> getTreasuresList() {
+      return List.of();
+    }
+
+    @Override
+    public Map<Directions, GeneralLocation> getPossibleDirectionMoves(int rowCount,
+                                                                      int colCount) {
+      Map<Directions, GeneralLocation> locationMap = new EnumMap<>(Directions.class);
+      for (Directions direction : this.maze.getDirections(this.row, this.col)) {
+        locationMap.put(direction, this.maze.getNeighbour(this.row, this.col, direction));
+      }
+      return locationMap;
+    }
+
+    @Override
+    public int getArrowCount() {
+      return 0;
+    }
+
+    @Override
+    public boolean hasMonster() {
+      return false;
+    }
+
+    @Override
+    public boolean getVisited() {
+      return this.row == 0 && this.col == 0;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (other instanceof MazeLocation) {
+        MazeLocation location = (MazeLocation) other;
+        return this.maze == location.maze && this.row == location.row
+                && this.col == location.col;
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * this.row + this.col;
+    }
+
+    @Override
+    public String toString() {
+      return getLocation() + ", Treasures: [], No Arrows";
+    }
+  }
+}
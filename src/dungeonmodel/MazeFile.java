@@ -0,0 +1,181 @@
+package dungeonmodel;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * This class represents the spanning tree of a dungeon stored on disk, so that spanning trees too
+ * large to be generated in memory, of 10^8 cells and more, can be produced row by row. The file
+ * starts with a header of a magic number, a format version, the number of rows and the number of
+ * columns. It is followed by the rows in order, every row packs the {@link EllerMazeGenerator#EAST}
+ * and {@link EllerMazeGenerator#SOUTH} bits of four cells into each byte.
+ *
+ * <p>Rows are read back in order one at a time, hence reading a maze file needs memory only for a
+ * single row. A dungeon game built from a maze file still keeps a location for every cell, hence
+ * a maze can only be played if its whole dungeon fits in memory, see
+ * {@link DungeonGameImpl#DungeonGameImpl(MazeFile, int, boolean, int, int, GeneralPlayer,
+ * NumberGenerationInterface)}. Mazes of any size can be looked at through a {@link MazeDungeon},
+ * which decodes locations from the file as they are asked for.
+ */
+public final class MazeFile implements Closeable {
+  private static final int MAGIC = 0x444d5a31;
+  private static final int VERSION = 1;
+  static final int HEADER_SIZE = 4 + 4 + 8 + 4;
+  static final int CELLS_PER_BYTE = 4;
+  private final long rows;
+  private final int cols;
+  private final DataInputStream input;
+  private final byte[] packedRow;
+  private long currentRow;
+
+  private MazeFile(long rows, int cols, DataInputStream input) {
+    this.rows = rows;
+    this.cols = cols;
+    this.input = input;
+    this.packedRow = new byte[getPackedRowSize(cols)];
+    this.currentRow = 0;
+  }
+
+  /**
+   * Generates the spanning tree of a dungeon of given size row by row and writes it to the given
+   * file, replacing the file if it exists.
+   * @param path Path of the file to write.
+   * @param rows Number of rows in dungeon.
+   * @param cols Number of cols in dungeon.
+   * @param numberGenerationInterface Number Generator interface.
+   * @throws IllegalArgumentException if path is null
+   *                                  or if rows or cols are negative
+   *                                  or if numberGenerationInterface is null.
+   * @throws IOException if the file cannot be written.
+   */
+  public static void write(Path path, long rows, int cols,
+                           NumberGenerationInterface numberGenerationInterface)
+          throws IOException {
+    if (path == null) {
+      throw new IllegalArgumentException("Path cannot be null");
+    }
+    EllerMazeGenerator generator = new EllerMazeGenerator(rows, cols, numberGenerationInterface);
+    try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(
+            Files.newOutputStream(path)))) {
+      output.writeInt(MAGIC);
+      output.writeInt(VERSION);
+      output.writeLong(rows);
+      output.writeInt(cols);
+      byte[] row = new byte[cols];
+      byte[] packedRow = new byte[getPackedRowSize(cols)];
+      while (generator.hasNextRow()) {
+        generator.nextRow(row);
+        for (int col = 0; col < cols; col++) {
+          packedRow[col / CELLS_PER_BYTE] |= (byte) (row[col] << (2 * (col % CELLS_PER_BYTE)));
+        }
+        output.write(packedRow);
+        Arrays.fill(packedRow, (byte) 0);
+      }
+    }
+  }
+
+  /**
+   * Opens the given maze file to read its rows.
+   * @param path Path of the file to read.
+   * @return the opened maze file, positioned at its first row.
+   * @throws IllegalArgumentException if path is null or the file is not a complete maze file.
+   * @throws IOException if the file cannot be read.
+   */
+  public static MazeFile open(Path path) throws IOException {
+    if (path == null) {
+      throw new IllegalArgumentException("Path cannot be null");
+    }
+    DataInputStream input = new DataInputStream(new BufferedInputStream(
+            Files.newInputStream(path)));
+    try {
+      if (input.readInt() != MAGIC) {
+        throw new IllegalArgumentException(String.format("%s is not a maze file", path));
+      }
+      int version = input.readInt();
+      if (version != VERSION) {
+        throw new IllegalArgumentException(String.format("Maze file version %d is not supported",
+                version));
+      }
+      long rows = input.readLong();
+      int cols = input.readInt();
+      if (rows < 0 || cols < 0 || Files.size(path)
+              != HEADER_SIZE + rows * getPackedRowSize(cols)) {
+        throw new IllegalArgumentException(String.format("%s is not a complete maze file", path));
+      }
+      return new MazeFile(rows, cols, input);
+    }
+    catch (EOFException e) {
+      input.close();
+      throw new IllegalArgumentException(String.format("%s is not a complete maze file", path));
+    }
+    catch (IOException | RuntimeException e) {
+      input.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the number of rows in the dungeon.
+   * @return number of rows.
+   */
+  public long getRows() {
+    return this.rows;
+  }
+
+  /**
+   * Returns the number of columns in the dungeon.
+   * @return number of columns.
+   */
+  public int getCols() {
+    return this.cols;
+  }
+
+  /**
+   * Checks if there are rows that have not been read yet.
+   * @return true if there is a next row, false otherwise.
+   */
+  public boolean hasNextRow() {
+    return this.currentRow < this.rows;
+  }
+
+  /**
+   * Reads the next row of the dungeon.
+   * @param row Array of at least {@link #getCols()} entries that is filled with the paths of every
+   *            cell in the row, in the same form as {@link EllerMazeGenerator#nextRow(byte[])}.
+   * @throws IllegalStateException if all the rows have already been read.
+   * @throws IllegalArgumentException if row is too small.
+   * @throws IOException if the file cannot be read.
+   */
+  public void readRow(byte[] row) throws IOException {
+    if (!hasNextRow()) {
+      throw new IllegalStateException("All the rows have already been read");
+    }
+    if (row == null || row.length < this.cols) {
+      throw new IllegalArgumentException("Row must have an entry for every column");
+    }
+    this.input.readFully(this.packedRow);
+    for (int col = 0; col < this.cols; col++) {
+      row[col] = (byte) ((this.packedRow[col / CELLS_PER_BYTE] >> (2 * (col % CELLS_PER_BYTE)))
+              & (EllerMazeGenerator.EAST | EllerMazeGenerator.SOUTH));
+    }
+    this.currentRow++;
+  }
+
+  @Override
+  public void close() throws IOException {
+    this.input.close();
+  }
+
+  // Returns number of bytes a row of given number of columns is packed into.
+  static int getPackedRowSize(int cols) {
+    return (int) (((long) cols + CELLS_PER_BYTE - 1) / CELLS_PER_BYTE);
+  }
+}
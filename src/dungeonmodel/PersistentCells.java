@@ -0,0 +1,81 @@
+package dungeonmodel;
+
+// This class holds a long for every cell of a dungeon in an immutable trie with 32 children per
+// node, with leaves of 32 longs. Setting a cell copies only the nodes on the path from the root to
+// its leaf and shares the rest of the trie with the old one, hence it takes O(log n) time and
+// space, while both tries stay valid.
+final class PersistentCells {
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+  // Root is a leaf when shift is zero, otherwise an array of nodes one level below.
+  private final Object root;
+  private final int shift;
+  private final int size;
+
+  private PersistentCells(Object root, int shift, int size) {
+    this.root = root;
+    this.shift = shift;
+    this.size = size;
+  }
+
+  // Constructs a trie of the given values.
+  static PersistentCells of(long[] values) {
+    int count = (values.length + MASK) >>> BITS;
+    Object[] level = new Object[Math.max(count, 1)];
+    for (int i = 0; i < level.length; i++) {
+      int from = i << BITS;
+      long[] leaf = new long[Math.min(WIDTH, Math.max(values.length - from, 0))];
+      System.arraycopy(values, from, leaf, 0, leaf.length);
+      level[i] = leaf;
+    }
+    int shift = 0;
+    while (level.length > 1) {
+      Object[] parents = new Object[(level.length + MASK) >>> BITS];
+      for (int i = 0; i < parents.length; i++) {
+        int from = i << BITS;
+        Object[] node = new Object[Math.min(WIDTH, level.length - from)];
+        System.arraycopy(level, from, node, 0, node.length);
+        parents[i] = node;
+      }
+      level = parents;
+      shift += BITS;
+    }
+    return new PersistentCells(level[0], shift, values.length);
+  }
+
+  // Returns number of cells in the trie.
+  int size() {
+    return this.size;
+  }
+
+  // Returns value of the given cell.
+  long get(int cell) {
+    Object node = this.root;
+    for (int level = this.shift; level > 0; level -= BITS) {
+      node = ((Object[]) node)[(cell >>> level) & MASK];
+    }
+    return ((long[]) node)[cell & MASK];
+  }
+
+  // Returns a trie with the value of the given cell set, which shares all the other leaves with
+  // this trie.
+  PersistentCells set(int cell, long value) {
+    if (get(cell) == value) {
+      return this;
+    }
+    return new PersistentCells(set(this.root, this.shift, cell, value), this.shift, this.size);
+  }
+
+  private static Object set(Object node, int level, int cell, long value) {
+    if (level == 0) {
+      long[] leaf = ((long[]) node).clone();
+      leaf[cell & MASK] = value;
+      return leaf;
+    }
+    Object[] copy = ((Object[]) node).clone();
+    int slot = (cell >>> level) & MASK;
+    copy[slot] = set(copy[slot], level - BITS, cell, value);
+    return copy;
+  }
+}
@@ -0,0 +1,720 @@
+package dungeonmodel;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class represents a dungeon game that can be forked cheaply, for looking ahead at many
+ * possible plays of a game. The layout of the dungeon, which never changes, is shared by every
+ * fork. Treasures, arrows, monster and visited state of every location are kept in a persistent
+ * trie, hence a fork takes constant time and shares all of it with the game it was forked from,
+ * and every action copies only the part of the trie it changes, in time logarithmic in the size
+ * of the dungeon. Forks never see the actions played on each other.
+ *
+ * <p>The game plays by the rules of the game it was made from, including pits and thieves. Its
+ * locations are read only copies taken when they are asked for.
+ */
+public final class PersistentDungeonGame implements PitsThievesDungeon {
+  private static final Treasures[] TREASURES = Treasures.values();
+  private static final Directions[] DIRECTIONS = Directions.values();
+  // Every location is packed into a long: its arrows, the count of every kind of treasure, its
+  // monster byte as saved by DungeonState and whether it is visited.
+  private static final int ARROW_BITS = 16;
+  private static final int TREASURE_BITS = 12;
+  private static final int MONSTER_SHIFT = ARROW_BITS + TREASURE_BITS * 3;
+  private static final long VISITED = 1L << (MONSTER_SHIFT + 8);
+  private final Layout layout;
+  private final NumberGenerationInterface numberGenerationInterface;
+  private final int[] playerTreasures;
+  private PersistentCells cells;
+  private int playerCell;
+  private int playerArrows;
+  private boolean playerAlive;
+  private int deathReason;
+
+  /**
+   * Constructs a persistent copy of the given game as it is now. Taking the copy takes time
+   * linear in the size of the dungeon, forking it afterwards takes constant time.
+   * @param game Game to copy.
+   * @param numberGenerationInterface Number Generator interface for the rest of the game.
+   * @throws IllegalArgumentException if game or numberGenerationInterface is null
+   *                                  or if a location has too many treasures or arrows to copy.
+   */
+  public PersistentDungeonGame(DungeonGameImpl game,
+                               NumberGenerationInterface numberGenerationInterface) {
+    if (game == null || numberGenerationInterface == null) {
+      throw new IllegalArgumentException("Game and number generation interface cannot be null");
+    }
+    this.layout = new Layout(game);
+    this.numberGenerationInterface = numberGenerationInterface;
+    long[] values = new long[game.getRowsInBoard() * game.getColsInBoard()];
+    for (int cell = 0; cell < values.length; cell++) {
+      Location location = (Location) game.getLocationFromOneDIndex(cell);
+      long value = pack(location.getArrowCount(), 0, ARROW_BITS)
+              | (long) (DungeonState.encodeMonster(location.getMonster()) & 0xff) << MONSTER_SHIFT;
+      for (Treasures treasure : TREASURES) {
+        value |= pack(location.getTreasureCount(treasure), treasureShift(treasure), TREASURE_BITS);
+      }
+      if (location.getVisited()) {
+        value |= VISITED;
+      }
+      values[cell] = value;
+    }
+    this.cells = PersistentCells.of(values);
+    GeneralPlayerImpl player = (GeneralPlayerImpl) game.player;
+    this.playerTreasures = new int[TREASURES.length];
+    for (Treasures treasure : TREASURES) {
+      this.playerTreasures[treasure.ordinal()] = player.getTreasureCount(treasure);
+    }
+    this.playerCell = game.getOneDIndex(game.getPlayerCurrentLocation());
+    this.playerArrows = player.getArrow();
+    this.playerAlive = player.getPlayerStatus();
+    this.deathReason = player.getDeathReason();
+  }
+
+  // Constructs a fork of the given game.
+  private PersistentDungeonGame(PersistentDungeonGame other,
+                                NumberGenerationInterface numberGenerationInterface) {
+    this.layout = other.layout;
+    this.numberGenerationInterface = numberGenerationInterface;
+    this.playerTreasures = other.playerTreasures.clone();
+    this.cells = other.cells;
+    this.playerCell = other.playerCell;
+    this.playerArrows = other.playerArrows;
+    this.playerAlive = other.playerAlive;
+    this.deathReason = other.deathReason;
+  }
+
+  /**
+   * Forks the game in constant time. The fork draws random numbers from a generator split from the
+   * seeded generator of this game, hence after the fork neither of them changes the numbers the
+   * other one draws. Games played with any other generator must be forked with a generator of
+   * their own.
+   * @return fork of the game.
+   * @throws IllegalStateException if the game is not played with a {@link SeededGeneration}.
+   */
+  public PersistentDungeonGame fork() {
+    if (!(this.numberGenerationInterface instanceof SeededGeneration)) {
+      throw new IllegalStateException("Only games played with seeded generation can be forked "
+              + "without a number generator");
+    }
+    return new PersistentDungeonGame(this,
+            ((SeededGeneration) this.numberGenerationInterface).split());
+  }
+
+  /**
+   * Forks the game in constant time, with its own number generator.
+   * @param numberGenerationInterface Number Generator interface for the rest of the fork.
+   * @return fork of the game.
+   * @throws IllegalArgumentException if numberGenerationInterface is null.
+   */
+  public PersistentDungeonGame fork(NumberGenerationInterface numberGenerationInterface) {
+    if (numberGenerationInterface == null) {
+      throw new IllegalArgumentException("Number generation interface cannot be null");
+    }
+    return new PersistentDungeonGame(this, numberGenerationInterface);
+  }
+
+  private static long pack(int count, int shift, int bits) {
+    if (count >= 1 << bits) {
+      throw new IllegalArgumentException(String.format("Location cannot hold %d items", count));
+    }
+    return (long) count << shift;
+  }
+
+  private static int treasureShift(Treasures treasure) {
+    return ARROW_BITS + TREASURE_BITS * treasure.ordinal();
+  }
+
+  private static int getArrows(long value) {
+    return (int) (value & ((1 << ARROW_BITS) - 1));
+  }
+
+  private static int getTreasureCount(long value, Treasures treasure) {
+    return (int) (value >>> treasureShift(treasure)) & ((1 << TREASURE_BITS) - 1);
+  }
+
+  private static int getTreasureTotal(long value) {
+    int total = 0;
+    for (Treasures treasure : TREASURES) {
+      total += getTreasureCount(value, treasure);
+    }
+    return total;
+  }
+
+  private static byte getMonster(long value) {
+    return (byte) (value >>> MONSTER_SHIFT);
+  }
+
+  // A monster byte of 1 is a monster that is killed.
+  private static boolean hasLiveMonster(long value) {
+    return getMonster(value) > 1;
+  }
+
+  private static List<Treasures> getTreasuresList(long value) {
+    List<Treasures> treasures = new ArrayList<>(getTreasureTotal(value));
+    for (Treasures treasure : TREASURES) {
+      for (int i = 0; i < getTreasureCount(value, treasure); i++) {
+        treasures.add(treasure);
+      }
+    }
+    return List.copyOf(treasures);
+  }
+
+  // Returns one dimensional index of the given location.
+  private int getCell(GeneralLocation location) {
+    if (location instanceof CellView) {
+      return ((CellView) location).cell;
+    }
+    Point2D point = location.getLocation();
+    return point.getX() * this.layout.cols + point.getY();
+  }
+
+  private GeneralLocation getView(int cell) {
+    return new CellView(this.layout, this.cells, cell);
+  }
+
+  private void checkIfGameOver() {
+    if (isGameOver() && !this.playerAlive) {
+      throw new IllegalStateException("Game is over. Player is no more alive.");
+    }
+    else if (isGameOver() && this.playerAlive) {
+      throw new IllegalStateException("Game is over. Player has won.");
+    }
+  }
+
+  private void killPlayer(int reason) {
+    this.playerAlive = false;
+    this.deathReason = reason;
+  }
+
+  @Override
+  public void movePlayer(Directions direction) {
+    if (direction == null) {
+      throw new IllegalArgumentException("Direction cannot be null.");
+    }
+    checkIfGameOver();
+    int next = this.layout.graph.getNeighbour(this.playerCell, direction);
+    if (next == -1) {
+      throw new IllegalArgumentException("Given direction is not possible from current location");
+    }
+    this.playerCell = next;
+    long value = this.cells.get(next);
+    this.cells = this.cells.set(next, value | VISITED);
+    double monsterHealth = DungeonState.decodeMonster(getMonster(value));
+    if (getMonster(value) != 0 && monsterHealth == 1) {
+      killPlayer(1);
+    }
+    if (getMonster(value) != 0 && monsterHealth == 0.5
+            && this.numberGenerationInterface.getIntInRange(0, 1) == 0) {
+      killPlayer(1);
+    }
+    if (this.layout.pits[next] && this.numberGenerationInterface.getIntInRange(0, 2) == 0) {
+      killPlayer(2);
+    }
+    if (this.layout.thieves[next]) {
+      for (int i = 0; i < this.playerTreasures.length; i++) {
+        this.playerTreasures[i] = 0;
+      }
+    }
+  }
+
+  @Override
+  public MonsterStatus shootArrow(int distance, Directions direction) {
+    checkIfGameOver();
+    if (distance <= 0 || distance > 4) {
+      throw new IllegalArgumentException("Valid distances are (1 - 4). Both inclusive.");
+    }
+    if (direction == null) {
+      throw new IllegalArgumentException("Direction cannot be null.");
+    }
+    if (this.playerArrows == 0) {
+      throw new IllegalStateException("Player doesn't have any arrows to shoot.");
+    }
+    this.playerArrows--;
+    int cave = this.layout.tunnelPassThrough.getTarget(this.playerCell, direction, distance);
+    if (cave == -1) {
+      return MonsterStatus.UNAFFECTED;
+    }
+    long value = this.cells.get(cave);
+    if (!hasLiveMonster(value)) {
+      return MonsterStatus.UNAFFECTED;
+    }
+    // Every arrow takes half of the health of the monster, which is one step of its byte.
+    value -= 1L << MONSTER_SHIFT;
+    this.cells = this.cells.set(cave, value);
+    return hasLiveMonster(value) ? MonsterStatus.INJURED : MonsterStatus.DEAD;
+  }
+
+  @Override
+  public void pickTreasure(Treasures t) {
+    if (t == null) {
+      throw new IllegalArgumentException("Treasure cannot be null.");
+    }
+    long value = this.cells.get(this.playerCell);
+    if (getTreasureTotal(value) == 0) {
+      throw new IllegalArgumentException("Current location doesn't have any treasures");
+    }
+    if (getTreasureCount(value, t) == 0) {
+      throw new IllegalArgumentException("Give from a valid treasure in the location");
+    }
+    this.playerTreasures[t.ordinal()]++;
+    this.cells = this.cells.set(this.playerCell, value - (1L << treasureShift(t)));
+  }
+
+  @Override
+  public void pickArrow() {
+    long value = this.cells.get(this.playerCell);
+    if (getArrows(value) == 0) {
+      throw new IllegalArgumentException("Current location don't have arrows");
+    }
+    this.playerArrows++;
+    this.cells = this.cells.set(this.playerCell, value - 1);
+  }
+
+  @Override
+  public void pickAllArrows() {
+    checkIfGameOver();
+    long value = this.cells.get(this.playerCell);
+    if (getArrows(value) == 0) {
+      throw new IllegalArgumentException("Current location don't have arrows");
+    }
+    this.playerArrows += getArrows(value);
+    this.cells = this.cells.set(this.playerCell, value & ~((1L << ARROW_BITS) - 1));
+  }
+
+  @Override
+  public void pickAllTreasures() {
+    checkIfGameOver();
+    long value = this.cells.get(this.playerCell);
+    if (getTreasureTotal(value) == 0) {
+      throw new IllegalArgumentException("Current location doesn't have any treasures");
+    }
+    for (Treasures treasure : TREASURES) {
+      this.playerTreasures[treasure.ordinal()] += getTreasureCount(value, treasure);
+      value &= ~(((1L << TREASURE_BITS) - 1) << treasureShift(treasure));
+    }
+    this.cells = this.cells.set(this.playerCell, value);
+  }
+
+  @Override
+  public int getRowsInBoard() {
+    return this.layout.rows;
+  }
+
+  @Override
+  public int getColsInBoard() {
+    return this.layout.cols;
+  }
+
+  @Override
+  public GeneralLocation getStartLocation() {
+    return getView(this.layout.startCell);
+  }
+
+  @Override
+  public GeneralLocation getEndLocation() {
+    return getView(this.layout.endCell);
+  }
+
+  @Override
+  public GeneralLocation getPlayerCurrentLocation() {
+    return getView(this.playerCell);
+  }
+
+  @Override
+  public boolean isGameOver() {
+    return this.playerCell == this.layout.endCell || !this.playerAlive;
+  }
+
+  @Override
+  public String getPlayerCurrLocationInfo() {
+    long value = this.cells.get(this.playerCell);
+    StringBuilder stringBuilder = new StringBuilder();
+    Smell smell = getSmell(this.playerCell);
+    if (smell != null) {
+      stringBuilder.append("You smell something ").append(smell).append(" here\n");
+    }
+    stringBuilder.append("You are in a ");
+    if (this.layout.graph.isCave(this.playerCell)) {
+      stringBuilder.append("cave\n");
+    }
+    else {
+      stringBuilder.append("tunnel\n");
+    }
+    if (getTreasureTotal(value) > 0) {
+      stringBuilder.append("You find ");
+      for (Treasures treasure : TREASURES) {
+        if (getTreasureCount(value, treasure) > 0) {
+          stringBuilder.append(getTreasureCount(value, treasure)).append(" ").append(treasure)
+                  .append(", ");
+        }
+      }
+      stringBuilder.append(" here\n");
+    }
+    if (getArrows(value) > 0) {
+      stringBuilder.append("You find ");
+      stringBuilder.append(getArrows(value));
+      stringBuilder.append(" arrows here\n");
+    }
+    List<Directions> directions = new ArrayList<>();
+    for (Directions direction : DIRECTIONS) {
+      if (this.layout.graph.hasNeighbour(this.playerCell, direction)) {
+        directions.add(direction);
+      }
+    }
+    directions.sort(Comparator.comparing(Enum::toString));
+    stringBuilder.append("Doors lead to ");
+    stringBuilder.append(directions).append("\n");
+    return stringBuilder.toString();
+  }
+
+  @Override
+  public String getPlayerInfo() {
+    Map<Treasures, Integer> treasures = new EnumMap<>(Treasures.class);
+    for (Treasures treasure : TREASURES) {
+      if (this.playerTreasures[treasure.ordinal()] > 0) {
+        treasures.put(treasure, this.playerTreasures[treasure.ordinal()]);
+      }
+    }
+    return "Player owns below treasures: \n" + treasures + "\n" + "Player owns: "
+            + this.playerArrows + " arrows\n";
+  }
+
+  @Override
+  public boolean isPlayerAlive() {
+    return this.playerAlive;
+  }
+
+  @Override
+  public GeneralLocation[][] getBoard() {
+    GeneralLocation[][] board = new GeneralLocation[this.layout.rows][this.layout.cols];
+    for (int row = 0; row < this.layout.rows; row++) {
+      for (int col = 0; col < this.layout.cols; col++) {
+        board[row][col] = getView(row * this.layout.cols + col);
+      }
+    }
+    return board;
+  }
+
+  @Override
+  public boolean getWrapping() {
+    return this.layout.wrapping;
+  }
+
+  @Override
+  public int getInterConnectivity() {
+    return this.layout.interconnectivity;
+  }
+
+  @Override
+  public int getTreasureArrowPercent() {
+    return this.layout.treasureArrowPercent;
+  }
+
+  @Override
+  public int getNumberOfMonsters() {
+    return this.layout.difficulty;
+  }
+
+  @Override
+  public String getPlayerName() {
+    return this.layout.playerName;
+  }
+
+  @Override
+  public int getPlayerArrowCount() {
+    return this.playerArrows;
+  }
+
+  @Override
+  public int getPlayerRubyCount() {
+    return this.playerTreasures[Treasures.RUBIES.ordinal()];
+  }
+
+  @Override
+  public int getPlayerDiamondCount() {
+    return this.playerTreasures[Treasures.DIAMONDS.ordinal()];
+  }
+
+  @Override
+  public int getPlayerEmeraldCount() {
+    return this.playerTreasures[Treasures.SAPPHIRE.ordinal()];
+  }
+
+  @Override
+  public int getCurrentLocationArrowCount() {
+    return getArrows(this.cells.get(this.playerCell));
+  }
+
+  @Override
+  public int getCurrentLocationRubyCount() {
+    return getTreasureCount(this.cells.get(this.playerCell), Treasures.RUBIES);
+  }
+
+  @Override
+  public int getCurrentLocationDiamondCount() {
+    return getTreasureCount(this.cells.get(this.playerCell), Treasures.DIAMONDS);
+  }
+
+  @Override
+  public int getCurrentLocationEmeraldCount() {
+    return getTreasureCount(this.cells.get(this.playerCell), Treasures.SAPPHIRE);
+  }
+
+  @Override
+  public Smell getSmellInLocation(GeneralLocation location) {
+    return getSmell(getCell(location));
+  }
+
+  // Returns smell in the given cell, null if there is no smell. Smell is worked out from the
+  // monsters next to the cell and the monsters two steps away from it, the same way as SmellField
+  // keeps it, as the monsters of a fork cannot be kept in a field of counts shared by all forks.
+  private Smell getSmell(int cell) {
+    DungeonGraph graph = this.layout.graph;
+    int adjacentMonsters = 0;
+    int twoStepMonsters = 0;
+    // A cell has at most four neighbours, each with at most four neighbours.
+    int[] twoStepCells = new int[16];
+    int twoStepCount = 0;
+    for (int i = 0; i < graph.getDegree(cell); i++) {
+      int neighbour = graph.getNeighbour(cell, i);
+      if (hasLiveMonster(this.cells.get(neighbour))) {
+        adjacentMonsters++;
+      }
+      for (int j = 0; j < graph.getDegree(neighbour); j++) {
+        int twoStepCell = graph.getNeighbour(neighbour, j);
+        if (!contains(twoStepCells, twoStepCount, twoStepCell)) {
+          twoStepCells[twoStepCount++] = twoStepCell;
+          if (hasLiveMonster(this.cells.get(twoStepCell))) {
+            twoStepMonsters++;
+          }
+        }
+      }
+    }
+    if (adjacentMonsters > 0 || twoStepMonsters > 1) {
+      return Smell.MOREPUNGENT;
+    }
+    if (twoStepMonsters == 1) {
+      return Smell.LESSPUNGENT;
+    }
+    return null;
+  }
+
+  private static boolean contains(int[] cells, int count, int cell) {
+    for (int i = 0; i < count; i++) {
+      if (cells[i] == cell) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public List<Integer> getRandomSeed() {
+    if (!(this.numberGenerationInterface instanceof RandomGeneration)) {
+      throw new IllegalStateException("Random numbers are recorded only by random generation, "
+              + "seeded generation can be replayed from its seed");
+    }
+    return ((RandomGeneration) this.numberGenerationInterface).getRandomValuesList();
+  }
+
+  @Override
+  public RandomTape getRandomTape() {
+    if (!(this.numberGenerationInterface instanceof RandomGeneration)) {
+      throw new IllegalStateException("Random numbers are recorded only by random generation, "
+              + "seeded generation can be replayed from its seed");
+    }
+    return ((RandomGeneration) this.numberGenerationInterface).getRandomTape();
+  }
+
+  @Override
+  public boolean hasPit(GeneralLocation location) {
+    return this.layout.pits[getCell(location)];
+  }
+
+  @Override
+  public int getDeathReason() {
+    return this.deathReason;
+  }
+
+  @Override
+  public boolean hasThief(GeneralLocation location) {
+    return this.layout.thieves[getCell(location)];
+  }
+
+  @Override
+  public CaveGraph getCaveGraph() {
+    return this.layout.caveGraph;
+  }
+
+  @Override
+  public List<Directions> getPitsAroundThisLocation(GeneralLocation location) {
+    int cell = getCell(location);
+    List<Directions> pitsDirsList = new ArrayList<>();
+    for (Directions direction : DIRECTIONS) {
+      int neighbour = this.layout.graph.getNeighbour(cell, direction);
+      if (neighbour != -1 && this.layout.pits[neighbour]) {
+        pitsDirsList.add(direction);
+      }
+    }
+    return pitsDirsList;
+  }
+
+  @Override
+  public int getPitCount() {
+    return this.layout.pitCount;
+  }
+
+  @Override
+  public int getThiefCount() {
+    return this.layout.thiefCount;
+  }
+
+  // This class holds everything about the dungeon that never changes while it is played, which is
+  // shared by every fork of a game.
+  private static final class Layout {
+    private final int rows;
+    private final int cols;
+    private final boolean wrapping;
+    private final int interconnectivity;
+    private final int treasureArrowPercent;
+    private final int difficulty;
+    private final int startCell;
+    private final int endCell;
+    private final String playerName;
+    private final DungeonGraph graph;
+    private final CaveGraph caveGraph;
+    private final TunnelPassThrough tunnelPassThrough;
+    private final boolean[] pits;
+    private final boolean[] thieves;
+    private final int pitCount;
+    private final int thiefCount;
+
+    private Layout(DungeonGameImpl game) {
+      this.rows = game.getRowsInBoard();
+      this.cols = game.getColsInBoard();
+      this.wrapping = game.getWrapping();
+      this.interconnectivity = game.getInterConnectivity();
+      this.treasureArrowPercent = game.getTreasureArrowPercent();
+      this.difficulty = game.getNumberOfMonsters();
+      this.startCell = game.getOneDIndex(game.getStartLocation());
+      this.endCell = game.getOneDIndex(game.getEndLocation());
+      this.playerName = game.getPlayerName();
+      this.graph = game.getGraph();
+      this.caveGraph = game.getCaveGraph();
+      this.tunnelPassThrough = new TunnelPassThrough(this.graph);
+      this.pits = new boolean[this.rows * this.cols];
+      this.thieves = new boolean[this.rows * this.cols];
+      for (int cell = 0; cell < this.pits.length; cell++) {
+        Location location = (Location) game.getLocationFromOneDIndex(cell);
+        this.pits[cell] = location.locationHasPit();
+        this.thieves[cell] = location.locationHasThief();
+      }
+      boolean pitsAndThieves = game instanceof PitsThievesDungeonImpl;
+      this.pitCount = pitsAndThieves ? ((PitsThievesDungeonImpl) game).getPitCount() : 0;
+      this.thiefCount = pitsAndThieves ? ((PitsThievesDungeonImpl) game).getThiefCount() : 0;
+    }
+  }
+
+  // This class is a read only copy of a location of a persistent game, as it was when the copy
+  // was taken. Copies are equal when they are of the same location of the same dungeon.
+  private static final class CellView implements GeneralLocation {
+    private final Layout layout;
+    private final PersistentCells cells;
+    private final int cell;
+
+    private CellView(Layout layout, PersistentCells cells, int cell) {
+      this.layout = layout;
+      this.cells = cells;
+      this.cell = cell;
+    }
+
+    @Override
+    public Point2D getLocation() {
+      return new Point2D(this.cell / this.layout.cols, this.cell % this.layout.cols);
+    }
+
+    @Override
+    public List<GeneralLocation> getAdjacencyList() {
+      GeneralLocation[] adjacencies = new GeneralLocation[this.layout.graph.getDegree(this.cell)];
+      for (int i = 0; i < adjacencies.length; i++) {
+        adjacencies[i] = new CellView(this.layout, this.cells,
+                this.layout.graph.getNeighbour(this.cell, i));
+      }
+      return List.of(adjacencies);
+    }
+
+    @Override
+    public boolean isCave() {
+      return this.layout.graph.isCave(this.cell);
+    }
+
+    @Override
+    public List<Treasures> getTreasuresList() {
+      return PersistentDungeonGame.getTreasuresList(this.cells.get(this.cell));
+    }
+
+    @Override
+    public Map<Directions, GeneralLocation> getPossibleDirectionMoves(int rowCount,
+                                                                      int colCount) {
+      Map<Directions, GeneralLocation> locationMap = new EnumMap<>(Directions.class);
+      for (Directions direction : DIRECTIONS) {
+        int neighbour = this.layout.graph.getNeighbour(this.cell, direction);
+        if (neighbour != -1) {
+          locationMap.put(direction, new CellView(this.layout, this.cells, neighbour));
+        }
+      }
+      return locationMap;
+    }
+
+    @Override
+    public int getArrowCount() {
+      return getArrows(this.cells.get(this.cell));
+    }
+
+    @Override
+    public boolean hasMonster() {
+      return hasLiveMonster(this.cells.get(this.cell));
+    }
+
+    @Override
+    public boolean getVisited() {
+      return (this.cells.get(this.cell) & VISITED) != 0;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (other instanceof CellView) {
+        return this.layout == ((CellView) other).layout && this.cell == ((CellView) other).cell;
+      }
+      return false;
+    }
+
+    @Override
+    public int hashCode() {
+      return this.cell;
+    }
+
+    @Override
+    public String toString() {
+      long value = this.cells.get(this.cell);
+      StringBuilder stringBuilder = new StringBuilder(getLocation().toString())
+              .append(", Treasures: ")
+              .append(PersistentDungeonGame.getTreasuresList(value));
+      if (getArrows(value) > 0) {
+        stringBuilder.append(", Has ").append(getArrows(value)).append(" Arrows");
+      }
+      else {
+        stringBuilder.append(", No Arrows");
+      }
+      if (this.layout.pits[this.cell]) {
+        stringBuilder.append("Has pit.");
+      }
+      return stringBuilder.toString();
+    }
+  }
+}
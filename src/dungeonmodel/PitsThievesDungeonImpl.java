@@ -2,15 +2,18 @@ package dungeonmodel;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * This class represents the actual dungeon which includes pits and thieves features.
  */
 public class PitsThievesDungeonImpl extends DungeonGameImpl implements PitsThievesDungeon {
+  private int pitCount;
+  private int thiefCount;
 
   /**
-   * Constructs a new dungeon game object.
+   * Constructs a new dungeon game object that is generated in {@link GenerationMode#LEGACY} mode,
+   * so that random numbers recorded earlier build the same game again. New games should be
+   * generated in one of the other modes.
    *
    * @param rows                      Number of rows in dungeon.
    * @param cols                      Number of cols in dungeon.
@@ -32,24 +35,68 @@ public class PitsThievesDungeonImpl extends DungeonGameImpl implements PitsThiev
   public PitsThievesDungeonImpl(int rows, int cols, int interconnectivity, boolean wrapping,
                                 int treasureArrowPercent, int difficulty, GeneralPlayer player,
                                 NumberGenerationInterface numberGenerationInterface) {
+    this(rows, cols, interconnectivity, wrapping, treasureArrowPercent, difficulty, player,
+            numberGenerationInterface, GenerationMode.LEGACY);
+  }
+
+  /**
+   * Constructs a new dungeon game object.
+   *
+   * @param rows                      Number of rows in dungeon.
+   * @param cols                      Number of cols in dungeon.
+   * @param interconnectivity         Interconnectivity of dungeon.
+   * @param wrapping                  Represents if dungeon should be wrapped or not.
+   * @param treasureArrowPercent      Percentage of caves that should be treasured.
+   *                                  Also, adds arrows of given percent in both caves and tunnels.
+   * @param difficulty                Represents number of monsters in dungeon.
+   * @param player                    Player playing the game.
+   * @param numberGenerationInterface Number Generator interface.
+   * @param generationMode            Represents how random numbers are consumed to generate the
+   *                                  dungeon.
+   * @throws IllegalArgumentException if rows are negative
+   *                                  or if cols are negative
+   *                                  or if interconnectivity are negative
+   *                                  or if treasureArrowPercent is negative or greater than 100.
+   *                                  or if difficulty is less than or equal to zero.
+   *                                  or if player is null
+   *                                  or if numberGenerationInterface is null
+   *                                  or if generationMode is null
+   *                                  or if generationMode is not LEGACY and there are fewer
+   *                                  caves other than start and end, or fewer tunnels, than
+   *                                  difficulty.
+   */
+  public PitsThievesDungeonImpl(int rows, int cols, int interconnectivity, boolean wrapping,
+                                int treasureArrowPercent, int difficulty, GeneralPlayer player,
+                                NumberGenerationInterface numberGenerationInterface,
+                                GenerationMode generationMode) {
     super(rows, cols, interconnectivity, wrapping, treasureArrowPercent, difficulty, player,
-            numberGenerationInterface);
-    addPits();
-    addThieves();
+            numberGenerationInterface, generationMode);
+    if (getGenerationMode() == GenerationMode.LEGACY) {
+      addPits();
+      addThieves();
+    }
+    else {
+      samplePits();
+      sampleThieves();
+    }
   }
 
 
+  // Constructs a dungeon game from the given saved state, without generating it again.
+  PitsThievesDungeonImpl(DungeonState state, GeneralPlayer player,
+                         NumberGenerationInterface numberGenerationInterface) {
+    super(state, player, numberGenerationInterface);
+    this.pitCount = state.pitCount;
+    this.thiefCount = state.thiefCount;
+  }
+
   // Adds pits to the dungeon.
   private void addPits() {
     Location end = (Location) this.getEndLocation();
     Location start = (Location) this.getStartLocation();
     List<GeneralLocation> caves = this.getCavesInDungeon();
-    int pitsCount = this.getNumberOfMonsters();
-    int cavesCount = caves.size();
-    if (pitsCount >= cavesCount) {
-      // Since end and start shouldn't have pits.
-      pitsCount = cavesCount - 2;
-    }
+    int pitsCount = getPlaceablePitCount(caves.size());
+    this.pitCount = pitsCount;
     while (pitsCount > 0) {
       int randomCave = this.numberGenerationInterface.getIntInRange(0, caves.size() - 1);
       Location caveLocation = (Location) caves.get(randomCave);
@@ -64,20 +111,14 @@ public class PitsThievesDungeonImpl extends DungeonGameImpl implements PitsThiev
 
   // Adds thieves to the dungeon.
   private void addThieves() {
-    Location end = (Location) this.getEndLocation();
-    Location start = (Location) this.getStartLocation();
     List<GeneralLocation> tunnels = this.getTunnelsInDungeon();
-    int thievesCount = this.getNumberOfMonsters();
+    int thievesCount = getPlaceableThiefCount(tunnels.size());
+    this.thiefCount = thievesCount;
     int tunnelsCount = tunnels.size();
-    if (thievesCount >= tunnelsCount) {
-      // Since end and start shouldn't have thieves.
-      thievesCount = tunnelsCount;
-    }
     while (thievesCount > 0) {
       int randomCave = this.numberGenerationInterface.getIntInRange(0, tunnelsCount - 1);
       Location caveLocation = (Location) tunnels.get(randomCave);
-      if (caveLocation.equals(end) || caveLocation.equals(start)
-          || caveLocation.locationHasThief()) {
+      if (caveLocation.locationHasThief()) {
         continue;
       } else {
         caveLocation.addThief();
@@ -86,15 +127,74 @@ public class PitsThievesDungeonImpl extends DungeonGameImpl implements PitsThiev
     }
   }
 
+  // Adds pits to distinct caves other than start and end, drawn without replacement.
+  private void samplePits() {
+    int startCell = getOneDIndex(this.getStartLocation());
+    int endCell = getOneDIndex(this.getEndLocation());
+    int[] selected = sampleCaves(getPlaceablePitCount(this.getCaveGraph().getCaveCount()),
+            cell -> cell != startCell && cell != endCell);
+    for (int cell : selected) {
+      ((Location) getLocationFromOneDIndex(cell)).addPit();
+    }
+    this.pitCount = selected.length;
+  }
+
+  // Adds thieves to distinct tunnels, drawn without replacement.
+  private void sampleThieves() {
+    int tunnelCount = this.getRowsInBoard() * this.getColsInBoard()
+            - this.getCaveGraph().getCaveCount();
+    int[] selected = sampleTunnels(getPlaceableThiefCount(tunnelCount), cell -> true);
+    for (int cell : selected) {
+      ((Location) getLocationFromOneDIndex(cell)).addThief();
+    }
+    this.thiefCount = selected.length;
+  }
+
+  // Returns number of pits to place, one for every monster in a cave other than start and end.
+  // Legacy generation places as many as there are caves for, other modes don't place fewer.
+  private int getPlaceablePitCount(int caveCount) {
+    int placeableCount = Math.max(caveCount - 2, 0);
+    if (this.getNumberOfMonsters() <= placeableCount) {
+      return this.getNumberOfMonsters();
+    }
+    if (getGenerationMode() != GenerationMode.LEGACY) {
+      throw new IllegalArgumentException(String.format("Dungeon has only %d caves other than "
+              + "start and end for %d pits", placeableCount, this.getNumberOfMonsters()));
+    }
+    return placeableCount;
+  }
+
+  // Returns number of thieves to place, one for every monster in a tunnel. Start and end are
+  // always caves, so every tunnel can have a thief. Legacy generation places as many as there are
+  // tunnels for, other modes don't place fewer.
+  private int getPlaceableThiefCount(int tunnelCount) {
+    if (this.getNumberOfMonsters() <= tunnelCount) {
+      return this.getNumberOfMonsters();
+    }
+    if (getGenerationMode() != GenerationMode.LEGACY) {
+      throw new IllegalArgumentException(String.format("Dungeon has only %d tunnels for %d "
+              + "thieves", tunnelCount, this.getNumberOfMonsters()));
+    }
+    return tunnelCount;
+  }
+
+  @Override
+  public int getPitCount() {
+    return this.pitCount;
+  }
+
+  @Override
+  public int getThiefCount() {
+    return this.thiefCount;
+  }
+
   @Override
   public List<Directions> getPitsAroundThisLocation(GeneralLocation location) {
-    Map<Directions, GeneralLocation> pitsDirs = location
-            .getPossibleDirectionMoves(this.getRowsInBoard(), this.getColsInBoard());
     List<Directions> pitsDirsList = new ArrayList<>();
-    for (Map.Entry<Directions, GeneralLocation> entry : pitsDirs.entrySet()) {
-      Location loc = (Location) entry.getValue();
-      if (loc.locationHasPit()) {
-        pitsDirsList.add(entry.getKey());
+    for (Directions direction : Directions.values()) {
+      Location loc = (Location) getNeighbour(location, direction);
+      if (loc != null && loc.locationHasPit()) {
+        pitsDirsList.add(direction);
       }
     }
     return pitsDirsList;
@@ -14,4 +14,18 @@ public interface PitsThievesReadOnly extends ReadOnlyDungeon {
    * @return List of directions where pits are present.
    */
   List<Directions> getPitsAroundThisLocation(GeneralLocation location);
+
+  /**
+   * Returns the number of pits in the dungeon. There is a pit for every monster, unless there
+   * aren't enough caves other than start and end, in which case every such cave has a pit.
+   * @return number of pits.
+   */
+  int getPitCount();
+
+  /**
+   * Returns the number of thieves in the dungeon. There is a thief for every monster, unless there
+   * aren't enough tunnels, in which case every tunnel has a thief.
+   * @return number of thieves.
+   */
+  int getThiefCount();
 }
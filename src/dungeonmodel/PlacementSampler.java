@@ -0,0 +1,34 @@
+package dungeonmodel;
+
+import java.util.function.IntPredicate;
+
+// This class selects distinct cells of the dungeon to place treasures, arrows, monsters, pits or
+// thieves in. Cells are drawn by a partial Fisher-Yates shuffle of the candidate cells, so every
+// draw gives a cell that was not drawn before and the number of draws is bounded by the number of
+// cells requested plus the number of ineligible cells drawn, however dense the placement is.
+final class PlacementSampler {
+  private final NumberGenerationInterface numberGenerationInterface;
+
+  // Constructs sampler that draws random numbers from the given generator.
+  PlacementSampler(NumberGenerationInterface numberGenerationInterface) {
+    this.numberGenerationInterface = numberGenerationInterface;
+  }
+
+  // Selects up to count distinct cells among candidates for which eligible holds, in the order
+  // they are drawn, into selected. Candidates are shuffled in place, any order of them is a valid
+  // input. Returns the number of cells selected, less than count only if there are not enough
+  // eligible candidates.
+  int select(int[] candidates, int count, IntPredicate eligible, int[] selected) {
+    int selectedCount = 0;
+    for (int i = 0; i < candidates.length && selectedCount < count; i++) {
+      int randomIndex = this.numberGenerationInterface.getIntInRange(i, candidates.length - 1);
+      int cell = candidates[randomIndex];
+      candidates[randomIndex] = candidates[i];
+      candidates[i] = cell;
+      if (eligible.test(cell)) {
+        selected[selectedCount++] = cell;
+      }
+    }
+    return selectedCount;
+  }
+}
@@ -1,47 +1,76 @@
 package dungeonmodel;
 
-import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Random;
 
 /**
  * This class generates Predictive Numbers inorder to be used for testing. This enables predictive
  * testing when random cannot exactly help for any scenarios.
  */
 public class PredictiveGeneration implements NumberGenerationInterface {
-  private final List<Integer> predictiveValues;
+  // Seed of the numbers that follow values given as a list, which don't come with a seed.
+  private static final long LIST_CONTINUATION_SEED = 0;
+  private final int[] predictiveValues;
+  private final int size;
+  private final NumberGenerationInterface continuation;
   private int index;
-  private boolean isRestart;
 
   /**
    * Constructs Predictive generation object.
    * @param predictiveValues Values that can be used instead of Randomly generated values.
    */
   public PredictiveGeneration(Integer... predictiveValues) {
-    this.predictiveValues = new ArrayList<>(Arrays.asList(predictiveValues));
+    this.predictiveValues = new int[predictiveValues.length];
+    for (int i = 0; i < predictiveValues.length; i++) {
+      this.predictiveValues[i] = predictiveValues[i];
+    }
+    this.size = predictiveValues.length;
+    this.continuation = null;
     this.index = 0;
-    this.isRestart = false;
   }
 
   /**
-   * Constructs Predictive generation object from List of Integers.
+   * Constructs Predictive generation object from List of Integers. Once all the values are used,
+   * numbers are generated from a fixed seed, hence they are the same every time.
    * @param predictiveValues List of values that can be used instead of Randomly generated values.
    */
   public PredictiveGeneration(List<Integer> predictiveValues) {
-    this.predictiveValues = predictiveValues;
+    this.predictiveValues = new int[predictiveValues.size()];
+    int i = 0;
+    for (int value : predictiveValues) {
+      this.predictiveValues[i++] = value;
+    }
+    this.size = this.predictiveValues.length;
+    this.continuation = new SeededGeneration(LIST_CONTINUATION_SEED);
+    this.index = 0;
+  }
+
+  /**
+   * Constructs Predictive generation object from a tape. Once all the values recorded on the
+   * tape are used, numbers are generated from the continuation seed of the tape. Values recorded
+   * on the tape later are not used.
+   * @param tape Tape of values that can be used instead of Randomly generated values.
+   * @throws IllegalArgumentException if tape is null.
+   */
+  public PredictiveGeneration(RandomTape tape) {
+    if (tape == null) {
+      throw new IllegalArgumentException("Tape cannot be null");
+    }
+    RandomTape copy = tape.copy();
+    this.predictiveValues = copy.getValues();
+    this.size = copy.size();
+    this.continuation = new SeededGeneration(copy.getContinuationSeed());
     this.index = 0;
-    this.isRestart = true;
   }
 
   @Override
   public int getIntInRange(int minimumBound, int maximumBound) {
-    if (index == this.predictiveValues.size() - 1 && this.isRestart) {
-      Random random = new Random();
-      return random.nextInt( 2);
+    if (this.index < this.size) {
+      return this.predictiveValues[this.index++];
+    }
+    if (this.continuation == null) {
+      throw new IndexOutOfBoundsException(String.format("Predictive value %d is not available",
+              this.index));
     }
-    int randomValue = this.predictiveValues.get(index);
-    index++;
-    return randomValue;
+    return this.continuation.getIntInRange(minimumBound, maximumBound);
   }
 }
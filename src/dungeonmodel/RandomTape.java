@@ -0,0 +1,106 @@
+package dungeonmodel;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This class represents a recording of random numbers in the order they were drawn, stored as a
+ * growable array of primitive values. A tape also holds a seed that {@link PredictiveGeneration}
+ * continues from once every recorded value has been replayed, so replaying a tape is
+ * deterministic even past its end.
+ */
+public final class RandomTape {
+  private static final int INITIAL_CAPACITY = 64;
+  private final long continuationSeed;
+  private int[] values;
+  private int size;
+
+  /**
+   * Constructs an empty tape.
+   * @param continuationSeed Seed of the numbers that follow the recorded ones.
+   */
+  public RandomTape(long continuationSeed) {
+    this(continuationSeed, new int[INITIAL_CAPACITY], 0);
+  }
+
+  private RandomTape(long continuationSeed, int[] values, int size) {
+    this.continuationSeed = continuationSeed;
+    this.values = values;
+    this.size = size;
+  }
+
+  /**
+   * Records the given value at the end of the tape.
+   * @param value Value to record.
+   */
+  public void add(int value) {
+    if (this.size == this.values.length) {
+      this.values = Arrays.copyOf(this.values, Math.max(INITIAL_CAPACITY,
+              this.values.length + (this.values.length >> 1)));
+    }
+    this.values[this.size++] = value;
+  }
+
+  /**
+   * Returns the value recorded at the given index.
+   * @param index Index of the value.
+   * @return recorded value.
+   * @throws IndexOutOfBoundsException if nothing is recorded at the index.
+   */
+  public int get(int index) {
+    if (index < 0 || index >= this.size) {
+      throw new IndexOutOfBoundsException(String.format("Tape doesn't have value %d", index));
+    }
+    return this.values[index];
+  }
+
+  /**
+   * Returns the number of recorded values.
+   * @return number of values.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Returns the seed of the numbers that follow the recorded ones.
+   * @return continuation seed.
+   */
+  public long getContinuationSeed() {
+    return this.continuationSeed;
+  }
+
+  /**
+   * Returns a copy of this tape that isn't affected by values recorded later.
+   * @return copy of the tape.
+   */
+  public RandomTape copy() {
+    return new RandomTape(this.continuationSeed, Arrays.copyOf(this.values, this.size),
+            this.size);
+  }
+
+  /**
+   * Returns the recorded values as a read only list. Values are boxed only when they are read.
+   * @return list of recorded values.
+   */
+  public List<Integer> asList() {
+    int[] snapshot = Arrays.copyOf(this.values, this.size);
+    return new AbstractList<Integer>() {
+      @Override
+      public Integer get(int index) {
+        return snapshot[index];
+      }
+
+      @Override
+      public int size() {
+        return snapshot.length;
+      }
+    };
+  }
+
+  // Returns the recorded values, the array may be longer than the tape and must not be changed.
+  int[] getValues() {
+    return this.values;
+  }
+}
@@ -158,9 +158,21 @@ public interface ReadOnlyDungeon {
   /**
    * Method returns random seed used for model creation.
    * @return List of random numbers used.
+   * @throws IllegalStateException if the model doesn't record its random numbers, a model
+   *                               created from a {@link SeededGeneration} is replayed from its
+   *                               seed instead.
    */
   List<Integer> getRandomSeed();
 
+  /**
+   * Method returns the tape of random numbers used for model creation and play so far. Unlike
+   * {@link #getRandomSeed()} the values are not boxed and the tape continues deterministically
+   * when it is replayed past its end.
+   * @return copy of the tape of random numbers.
+   * @throws IllegalStateException if the model doesn't record its random numbers.
+   */
+  RandomTape getRandomTape();
+
   /**
    * Method checks if given location has a pit.
    * @param location Given location.
@@ -182,4 +194,11 @@ public interface ReadOnlyDungeon {
    * @return true if thief is present else false.
    */
   boolean hasThief(GeneralLocation location);
+
+  /**
+   * Returns the read only graph of the paths between caves, where every run of tunnels is a
+   * single edge.
+   * @return cave graph of the dungeon.
+   */
+  CaveGraph getCaveGraph();
 }
@@ -0,0 +1,16 @@
+package dungeonmodel;
+
+/**
+ * This enumeration represents the order in which dungeons generated in a batch are handed back.
+ */
+public enum ResultOrder {
+  /**
+   * Dungeons are handed back in the order their parameters were given.
+   */
+  SUBMISSION,
+
+  /**
+   * Dungeons are handed back as soon as they are generated.
+   */
+  COMPLETION;
+}
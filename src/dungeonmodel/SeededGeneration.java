@@ -0,0 +1,61 @@
+package dungeonmodel;
+
+import java.util.SplittableRandom;
+
+/**
+ * This class generates random numbers from a single seed. The same seed always produces the same
+ * numbers, hence a game can be generated again from its seed alone and nothing is recorded while
+ * numbers are drawn. Independent generators for use on other threads are made by
+ * {@link #split()}.
+ *
+ * <p>A single object must not be used from more than one thread at a time.
+ */
+public class SeededGeneration implements NumberGenerationInterface {
+  private final long seed;
+  private final SplittableRandom random;
+
+  /**
+   * Constructs a seeded generation object with a seed of its own.
+   */
+  public SeededGeneration() {
+    this(new SplittableRandom().nextLong());
+  }
+
+  /**
+   * Constructs a seeded generation object from the given seed.
+   * @param seed Seed of the random numbers.
+   */
+  public SeededGeneration(long seed) {
+    this.seed = seed;
+    this.random = new SplittableRandom(seed);
+  }
+
+  @Override
+  public int getIntInRange(int minimumBound, int maximumBound) {
+    if (maximumBound < minimumBound) {
+      throw new IllegalArgumentException("Maximum bound cannot be less than minimum bound");
+    }
+    long bound = (long) maximumBound - minimumBound + 1;
+    if (bound <= Integer.MAX_VALUE) {
+      return minimumBound + this.random.nextInt((int) bound);
+    }
+    return (int) (minimumBound + this.random.nextLong(bound));
+  }
+
+  /**
+   * Returns the seed this object was constructed from.
+   * @return seed of the random numbers.
+   */
+  public long getSeed() {
+    return this.seed;
+  }
+
+  /**
+   * Returns a new generator whose numbers are independent of the numbers of this one. The seed of
+   * the new generator is drawn from this one, so splitting is reproducible as well.
+   * @return the new generator.
+   */
+  public SeededGeneration split() {
+    return new SeededGeneration(this.random.nextLong());
+  }
+}
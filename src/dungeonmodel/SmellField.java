@@ -0,0 +1,67 @@
+package dungeonmodel;
+
+// This class keeps the smell of every location in the dungeon up to date. For every cell it
+// counts live monsters next to it and live monsters two steps away from it, where two steps away
+// includes the cell itself and is counted once per monster however many paths lead to it. The
+// counts are updated whenever a monster is added or killed, so a smell is a constant time lookup.
+final class SmellField {
+  private final DungeonGraph graph;
+  private final int[] adjacentMonsters;
+  private final int[] twoStepMonsters;
+  private final int[] twoStepCells;
+
+  // Constructs smell field for a dungeon without any monsters.
+  SmellField(DungeonGraph graph) {
+    this.graph = graph;
+    this.adjacentMonsters = new int[graph.getCellCount()];
+    this.twoStepMonsters = new int[graph.getCellCount()];
+    // A cell has at most four neighbours, each with at most four neighbours.
+    this.twoStepCells = new int[16];
+  }
+
+  // Records a live monster in the given cell.
+  void addMonster(int cell) {
+    update(cell, 1);
+  }
+
+  // Records that the monster in the given cell is killed.
+  void removeMonster(int cell) {
+    update(cell, -1);
+  }
+
+  // Returns smell in the given cell, null if there is no smell.
+  Smell getSmell(int cell) {
+    if (this.adjacentMonsters[cell] > 0 || this.twoStepMonsters[cell] > 1) {
+      return Smell.MOREPUNGENT;
+    }
+    if (this.twoStepMonsters[cell] == 1) {
+      return Smell.LESSPUNGENT;
+    }
+    return null;
+  }
+
+  // Adds delta to the counts of every cell that can smell a monster in the given cell.
+  private void update(int cell, int delta) {
+    int twoStepCount = 0;
+    for (int i = 0; i < this.graph.getDegree(cell); i++) {
+      int neighbour = this.graph.getNeighbour(cell, i);
+      this.adjacentMonsters[neighbour] += delta;
+      for (int j = 0; j < this.graph.getDegree(neighbour); j++) {
+        int twoStepCell = this.graph.getNeighbour(neighbour, j);
+        if (!contains(this.twoStepCells, twoStepCount, twoStepCell)) {
+          this.twoStepCells[twoStepCount++] = twoStepCell;
+          this.twoStepMonsters[twoStepCell] += delta;
+        }
+      }
+    }
+  }
+
+  private static boolean contains(int[] cells, int count, int cell) {
+    for (int i = 0; i < count; i++) {
+      if (cells[i] == cell) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
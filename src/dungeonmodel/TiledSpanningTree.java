@@ -0,0 +1,188 @@
+package dungeonmodel;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+// This class builds a random spanning tree of a dungeon by splitting it into square tiles. Every
+// tile gets a spanning tree of its own by Kruskal's algorithm over its shuffled inner paths, tiles
+// are built in parallel on a fork join pool. Since every tile ends up connected, the tiles are
+// then stitched together by Kruskal's algorithm over the shuffled paths between tiles, treating
+// each tile as a single vertex. Random numbers of every tile come from a generator seeded ahead of
+// time, hence the tree depends only on the seed and not on the number of threads.
+final class TiledSpanningTree {
+  static final int TILE_SIZE = 64;
+  private static final int SEQUENTIAL_TILES = 4;
+  private final int rows;
+  private final int cols;
+  private final GridEdges potentialPaths;
+  private final int tileRows;
+  private final int tileCols;
+
+  // Constructs a tiled spanning tree builder over the given paths of a rows x cols dungeon.
+  TiledSpanningTree(int rows, int cols, GridEdges potentialPaths) {
+    this.rows = rows;
+    this.cols = cols;
+    this.potentialPaths = potentialPaths;
+    this.tileRows = (rows + TILE_SIZE - 1) / TILE_SIZE;
+    this.tileCols = (cols + TILE_SIZE - 1) / TILE_SIZE;
+  }
+
+  // Builds the tree from the given seed and returns its paths, tile by tile followed by the paths
+  // that stitch the tiles together.
+  int[] build(long seed) {
+    int tileCount = this.tileRows * this.tileCols;
+    if (tileCount == 0) {
+      return new int[0];
+    }
+    SplittableRandom random = new SplittableRandom(seed);
+    long[] tileSeeds = new long[tileCount];
+    int[] tileOffsets = new int[tileCount + 1];
+    for (int tile = 0; tile < tileCount; tile++) {
+      tileSeeds[tile] = random.nextLong();
+      tileOffsets[tile + 1] = tileOffsets[tile] + getTileHeight(tile) * getTileWidth(tile) - 1;
+    }
+    int[] treePaths = new int[this.rows * this.cols - 1];
+    TileTask task = new TileTask(0, tileCount, tileSeeds, tileOffsets, treePaths);
+    if (ForkJoinTask.inForkJoinPool()) {
+      task.invoke();
+    }
+    else {
+      ForkJoinPool.commonPool().invoke(task);
+    }
+    stitchTiles(random, treePaths, tileOffsets[tileCount]);
+    return treePaths;
+  }
+
+  // Connects the tiles by the shuffled paths between them, starting at the given index of the
+  // tree paths.
+  private void stitchTiles(SplittableRandom random, int[] treePaths, int treePathCount) {
+    int[] boundaryPaths = getBoundaryPaths();
+    shuffle(boundaryPaths, boundaryPaths.length, random);
+    DisjointSet tiles = new DisjointSet(this.tileRows * this.tileCols);
+    for (int path : boundaryPaths) {
+      if (tiles.union(getTile(this.potentialPaths.source(path)),
+              getTile(this.potentialPaths.destination(path)))) {
+        treePaths[treePathCount++] = path;
+      }
+    }
+  }
+
+  // Lists the paths that connect two different tiles, wrapping paths included.
+  private int[] getBoundaryPaths() {
+    int[] paths = new int[this.potentialPaths.size()];
+    int count = 0;
+    for (int col = TILE_SIZE - 1; col + 1 < this.cols; col += TILE_SIZE) {
+      for (int row = 0; row < this.rows; row++) {
+        paths[count++] = this.potentialPaths.eastEdge(row, col);
+      }
+    }
+    for (int row = TILE_SIZE - 1; row + 1 < this.rows; row += TILE_SIZE) {
+      for (int col = 0; col < this.cols; col++) {
+        paths[count++] = this.potentialPaths.southEdge(row, col);
+      }
+    }
+    int innerPathCount = GridEdges.countEdges(this.rows, this.cols, false);
+    for (int path = innerPathCount; path < this.potentialPaths.size(); path++) {
+      if (getTile(this.potentialPaths.source(path))
+              != getTile(this.potentialPaths.destination(path))) {
+        paths[count++] = path;
+      }
+    }
+    int[] boundaryPaths = new int[count];
+    System.arraycopy(paths, 0, boundaryPaths, 0, count);
+    return boundaryPaths;
+  }
+
+  // Builds the spanning tree of a single tile and stores its paths from the given offset.
+  private void buildTile(int tile, long seed, int[] treePaths, int offset) {
+    int height = getTileHeight(tile);
+    int width = getTileWidth(tile);
+    int firstRow = tile / this.tileCols * TILE_SIZE;
+    int firstCol = tile % this.tileCols * TILE_SIZE;
+    // Inner paths are encoded as 2 * local cell for the east path and 2 * local cell + 1 for the
+    // south path.
+    int[] paths = new int[2 * height * width];
+    int pathCount = 0;
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        int cell = row * width + col;
+        if (col + 1 < width) {
+          paths[pathCount++] = 2 * cell;
+        }
+        if (row + 1 < height) {
+          paths[pathCount++] = 2 * cell + 1;
+        }
+      }
+    }
+    shuffle(paths, pathCount, new SplittableRandom(seed));
+    DisjointSet cells = new DisjointSet(height * width);
+    for (int i = 0; i < pathCount; i++) {
+      int cell = paths[i] / 2;
+      boolean south = paths[i] % 2 == 1;
+      if (cells.union(cell, south ? cell + width : cell + 1)) {
+        int row = firstRow + cell / width;
+        int col = firstCol + cell % width;
+        treePaths[offset++] = south ? this.potentialPaths.southEdge(row, col)
+                : this.potentialPaths.eastEdge(row, col);
+      }
+    }
+  }
+
+  private int getTile(int cell) {
+    return cell / this.cols / TILE_SIZE * this.tileCols + cell % this.cols / TILE_SIZE;
+  }
+
+  private int getTileHeight(int tile) {
+    return Math.min(TILE_SIZE, this.rows - tile / this.tileCols * TILE_SIZE);
+  }
+
+  private int getTileWidth(int tile) {
+    return Math.min(TILE_SIZE, this.cols - tile % this.tileCols * TILE_SIZE);
+  }
+
+  // Fisher-Yates shuffle of the first count values.
+  private static void shuffle(int[] values, int count, SplittableRandom random) {
+    for (int i = count - 1; i > 0; i--) {
+      int randomIndex = random.nextInt(i + 1);
+      int temp = values[i];
+      values[i] = values[randomIndex];
+      values[randomIndex] = temp;
+    }
+  }
+
+  // Builds a range of tiles, splitting it in halves until only a few tiles are left.
+  private final class TileTask extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+    private final int firstTile;
+    private final int lastTile;
+    private final long[] tileSeeds;
+    private final int[] tileOffsets;
+    private final int[] treePaths;
+
+    TileTask(int firstTile, int lastTile, long[] tileSeeds, int[] tileOffsets,
+             int[] treePaths) {
+      this.firstTile = firstTile;
+      this.lastTile = lastTile;
+      this.tileSeeds = tileSeeds;
+      this.tileOffsets = tileOffsets;
+      this.treePaths = treePaths;
+    }
+
+    @Override
+    protected void compute() {
+      if (this.lastTile - this.firstTile <= SEQUENTIAL_TILES) {
+        for (int tile = this.firstTile; tile < this.lastTile; tile++) {
+          buildTile(tile, this.tileSeeds[tile], this.treePaths, this.tileOffsets[tile]);
+        }
+        return;
+      }
+      int middle = (this.firstTile + this.lastTile) >>> 1;
+      invokeAll(new TileTask(this.firstTile, middle, this.tileSeeds, this.tileOffsets,
+                      this.treePaths),
+              new TileTask(middle, this.lastTile, this.tileSeeds, this.tileOffsets,
+                      this.treePaths));
+    }
+  }
+}
@@ -0,0 +1,100 @@
+package dungeonmodel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// This class counts treasures of every kind, so adding, removing and counting a treasure takes
+// constant time. The treasures can also be seen as a list, ordered by kind. The list is only built
+// when it is asked for and is reused until the counts change.
+final class TreasureCounter {
+  private static final Treasures[] KINDS = Treasures.values();
+  private final int[] counts;
+  private int total;
+  private List<Treasures> treasuresList;
+
+  // Constructs counter without any treasures.
+  TreasureCounter() {
+    this.counts = new int[KINDS.length];
+    this.total = 0;
+    this.treasuresList = List.of();
+  }
+
+  // Constructs counter with the same treasures as the given counter.
+  TreasureCounter(TreasureCounter other) {
+    this.counts = other.counts.clone();
+    this.total = other.total;
+    this.treasuresList = other.treasuresList;
+  }
+
+  // Adds one treasure of given kind.
+  void add(Treasures treasure) {
+    this.counts[treasure.ordinal()]++;
+    this.total++;
+    this.treasuresList = null;
+  }
+
+  // Adds count treasures of given kind.
+  void add(Treasures treasure, int count) {
+    this.counts[treasure.ordinal()] += count;
+    this.total += count;
+    this.treasuresList = null;
+  }
+
+  // Adds all the treasures of the given counter.
+  void addAll(TreasureCounter other) {
+    for (int i = 0; i < KINDS.length; i++) {
+      this.counts[i] += other.counts[i];
+    }
+    this.total += other.total;
+    this.treasuresList = null;
+  }
+
+  // Removes one treasure of given kind, returns false if there is no such treasure.
+  boolean remove(Treasures treasure) {
+    if (this.counts[treasure.ordinal()] == 0) {
+      return false;
+    }
+    this.counts[treasure.ordinal()]--;
+    this.total--;
+    this.treasuresList = null;
+    return true;
+  }
+
+  // Removes all the treasures.
+  void clear() {
+    for (int i = 0; i < KINDS.length; i++) {
+      this.counts[i] = 0;
+    }
+    this.total = 0;
+    this.treasuresList = List.of();
+  }
+
+  // Returns number of treasures of given kind.
+  int count(Treasures treasure) {
+    return this.counts[treasure.ordinal()];
+  }
+
+  // Returns number of treasures of all kinds.
+  int size() {
+    return this.total;
+  }
+
+  // Returns all the treasures as an unmodifiable list.
+  List<Treasures> asList() {
+    if (this.treasuresList == null) {
+      List<Treasures> treasures = new ArrayList<>(this.total);
+      for (Treasures kind : KINDS) {
+        for (int i = 0; i < this.counts[kind.ordinal()]; i++) {
+          treasures.add(kind);
+        }
+      }
+      this.treasuresList = List.copyOf(treasures);
+    }
+    return this.treasuresList;
+  }
+
+  @Override
+  public String toString() {
+    return asList().toString();
+  }
+}
@@ -0,0 +1,137 @@
+package dungeonmodel;
+
+import java.util.Arrays;
+
+// This class stores, for every cell and direction, the first cave an arrow reaches when it leaves
+// the cell in that direction and passes straight through any tunnels on the way, along with the
+// direction in which the arrow enters that cave. A tunnel always lets the arrow out through its
+// other path, so a whole run of tunnels is skipped with one lookup. Flights are packed into a
+// single int as cave * 4 + direction ordinal, or -1 if there is no path in that direction.
+final class TunnelPassThrough {
+  private static final Directions[] DIRECTIONS = Directions.values();
+  private static final int DIRECTION_COUNT = DIRECTIONS.length;
+  private static final int UNRESOLVED = -2;
+  private static final int IN_PROGRESS = -3;
+  private final DungeonGraph graph;
+  private final int[] flights;
+
+  // Constructs the table for every cell of the given graph.
+  TunnelPassThrough(DungeonGraph graph) {
+    this.graph = graph;
+    this.flights = new int[graph.getCellCount() * DIRECTION_COUNT];
+    Arrays.fill(this.flights, UNRESOLVED);
+    // Flights that go through a run of tunnels are resolved along with the rest of the run, so
+    // every entry is walked only once however long the tunnels are.
+    int[] pending = new int[16];
+    for (int entry = 0; entry < this.flights.length; entry++) {
+      int pendingCount = 0;
+      int current = entry;
+      int result;
+      while (true) {
+        if (this.flights[current] != UNRESOLVED) {
+          // Coming back to an entry of this walk means the tunnels form a loop without any cave.
+          result = this.flights[current] == IN_PROGRESS ? -1 : this.flights[current];
+          break;
+        }
+        int cell = current / DIRECTION_COUNT;
+        Directions direction = DIRECTIONS[current % DIRECTION_COUNT];
+        int next = graph.getNeighbour(cell, direction);
+        if (next == -1) {
+          this.flights[current] = -1;
+          result = -1;
+          break;
+        }
+        if (pendingCount == pending.length) {
+          pending = Arrays.copyOf(pending, pending.length * 2);
+        }
+        pending[pendingCount++] = current;
+        this.flights[current] = IN_PROGRESS;
+        if (graph.isCave(next)) {
+          result = flightOf(next, direction);
+          break;
+        }
+        int exit = graph.getNeighbour(next, 0) == cell ? graph.getNeighbour(next, 1)
+                : graph.getNeighbour(next, 0);
+        current = next * DIRECTION_COUNT + getDirection(graph, next, exit, direction).ordinal();
+      }
+      for (int i = 0; i < pendingCount; i++) {
+        this.flights[pending[i]] = result;
+      }
+    }
+  }
+
+  // Returns flight of an arrow leaving the cell in given direction, -1 if it cannot leave.
+  int getFlight(int cell, Directions direction) {
+    return this.flights[cell * DIRECTION_COUNT + direction.ordinal()];
+  }
+
+  // Returns the cave in which an arrow shot from the cell in the given direction lands after
+  // travelling the given distance, -1 if it hits a wall on the way.
+  int getTarget(int cell, Directions direction, int distance) {
+    int flight = getFlight(cell, direction);
+    if (flight == -1) {
+      return -1;
+    }
+    // Arrow travels through tunnels without losing distance. Every cave it reaches costs one unit
+    // of distance, and the arrow carries on from the cave along the direction it entered with.
+    // When it reaches the next cave without passing through a tunnel, it turns back the way it
+    // came, as it always has.
+    while (true) {
+      int cave = getCave(flight);
+      Directions enteringDirection = getDirection(flight);
+      distance--;
+      if (!this.graph.hasNeighbour(cave, getOpposite(enteringDirection))) {
+        return -1;
+      }
+      if (distance == 0) {
+        return cave;
+      }
+      int next = this.graph.getNeighbour(cave, enteringDirection);
+      if (next == -1) {
+        // Arrow hits the wall of the cave.
+        return -1;
+      }
+      flight = getFlight(cave, enteringDirection);
+      if (this.graph.isCave(next)) {
+        flight = flightOf(next, getOpposite(enteringDirection));
+      }
+    }
+  }
+
+  // Returns flight that enters the given cave in the given direction.
+  static int flightOf(int cave, Directions direction) {
+    return cave * DIRECTION_COUNT + direction.ordinal();
+  }
+
+  // Returns cave reached by the given flight.
+  static int getCave(int flight) {
+    return flight / DIRECTION_COUNT;
+  }
+
+  // Returns direction in which the given flight enters its cave.
+  static Directions getDirection(int flight) {
+    return DIRECTIONS[flight % DIRECTION_COUNT];
+  }
+
+  // Returns direction opposite to the given one.
+  static Directions getOpposite(Directions direction) {
+    // Directions are declared in opposite pairs: NORTH, SOUTH and then EAST, WEST.
+    return DIRECTIONS[direction.ordinal() ^ 1];
+  }
+
+  // Returns direction in which neighbour lies from the cell. A neighbour across a wrapped
+  // dimension of two cells lies in two directions, the given one is preferred then so that the
+  // arrow keeps going the way it came in.
+  private static Directions getDirection(DungeonGraph graph, int cell, int neighbour,
+                                         Directions preferred) {
+    if (graph.getNeighbour(cell, preferred) == neighbour) {
+      return preferred;
+    }
+    for (Directions direction : DIRECTIONS) {
+      if (graph.getNeighbour(cell, direction) == neighbour) {
+        return direction;
+      }
+    }
+    throw new IllegalStateException("Neighbour is not in any direction of the cell");
+  }
+}
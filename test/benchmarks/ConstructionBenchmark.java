@@ -0,0 +1,52 @@
+package benchmarks;
+
+import dungeonmodel.DungeonGameImpl;
+import dungeonmodel.GeneralPlayerImpl;
+import dungeonmodel.GenerationMode;
+import dungeonmodel.SeededGeneration;
+
+/**
+ * This class benchmarks construction time of 100 x 100 and 1000 x 1000 dungeons in the legacy and
+ * shuffle generation modes, and of 1000 x 1000 dungeons in the tiled mode. Legacy mode on the
+ * larger dungeon is only run when "legacy" is passed as an argument, since its draw and retry
+ * sampling is far slower at that size.
+ */
+public class ConstructionBenchmark {
+  private static final int WARMUP_RUNS = 2;
+  private static final int MEASURED_RUNS = 5;
+
+  /**
+   * Runs the benchmark and prints average construction time for every dungeon size and mode.
+   * @param args Pass "legacy" to include legacy mode for the larger dungeon.
+   */
+  public static void main(String[] args) {
+    boolean largeLegacy = args.length > 0 && "legacy".equals(args[0]);
+    benchmark(100, GenerationMode.LEGACY);
+    benchmark(100, GenerationMode.SHUFFLE);
+    if (largeLegacy) {
+      benchmark(1000, GenerationMode.LEGACY);
+    }
+    benchmark(1000, GenerationMode.SHUFFLE);
+    benchmark(1000, GenerationMode.TILED);
+  }
+
+  // Constructs dungeons of given size and prints the average time taken.
+  private static void benchmark(int size, GenerationMode mode) {
+    for (int run = 0; run < WARMUP_RUNS; run++) {
+      construct(size, mode, run);
+    }
+    long total = 0;
+    for (int run = 0; run < MEASURED_RUNS; run++) {
+      long start = System.nanoTime();
+      construct(size, mode, WARMUP_RUNS + run);
+      total += System.nanoTime() - start;
+    }
+    System.out.printf("%d x %d %s: %.1f ms per dungeon%n", size, size, mode,
+            total / (MEASURED_RUNS * 1_000_000.0));
+  }
+
+  private static void construct(int size, GenerationMode mode, long seed) {
+    new DungeonGameImpl(size, size, size, false, 20, size / 10,
+            new GeneralPlayerImpl("Benchmark"), new SeededGeneration(seed), mode);
+  }
+}
@@ -0,0 +1,104 @@
+package benchmarks;
+
+import dungeonmodel.DisjointSet;
+
+import java.util.Random;
+
+/**
+ * This class benchmarks the find and union cost of building a spanning tree over a grid of one
+ * million cells. It compares the linked parent array that was used earlier by the dungeon with the
+ * path halving, union by size disjoint set that is used now. The linked parent array degrades so
+ * badly at this size that it is stopped after a time budget and its cost per edge is reported for
+ * the edges it managed to process.
+ */
+public class DisjointSetBenchmark {
+  private static final int ROWS = 1000;
+  private static final int COLS = 1000;
+  private static final int RUNS = 3;
+  private static final long NAIVE_BUDGET_NANOS = 30_000_000_000L;
+
+  /**
+   * Runs the benchmark and prints time taken by each of the implementations.
+   * @param args Not used.
+   */
+  public static void main(String[] args) {
+    int[][] edges = shuffledGridEdges(new Random(42));
+    long start = System.nanoTime();
+    int naiveEdges = naiveKruskal(edges, start + NAIVE_BUDGET_NANOS);
+    long naiveTime = System.nanoTime() - start;
+    System.out.printf("Before: processed %d of %d edges in %d ms, %.1f ns per edge%n", naiveEdges,
+            edges.length, naiveTime / 1_000_000, (double) naiveTime / naiveEdges);
+    for (int run = 0; run < RUNS; run++) {
+      start = System.nanoTime();
+      int treeEdges = disjointSetKruskal(edges);
+      long disjointSetTime = System.nanoTime() - start;
+      System.out.printf("After (run %d): processed %d edges in %d ms, %.1f ns per edge, %d tree "
+                      + "edges%n", run, edges.length, disjointSetTime / 1_000_000,
+              (double) disjointSetTime / edges.length, treeEdges);
+    }
+  }
+
+  // Returns all edges of the grid in a random order.
+  private static int[][] shuffledGridEdges(Random random) {
+    int count = ROWS * (COLS - 1) + COLS * (ROWS - 1);
+    int[][] edges = new int[count][];
+    int index = 0;
+    for (int row = 0; row < ROWS; row++) {
+      for (int col = 0; col < COLS; col++) {
+        int cell = row * COLS + col;
+        if (col + 1 < COLS) {
+          edges[index++] = new int[]{cell, cell + 1};
+        }
+        if (row + 1 < ROWS) {
+          edges[index++] = new int[]{cell, cell + COLS};
+        }
+      }
+    }
+    for (int i = count - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int[] temp = edges[i];
+      edges[i] = edges[j];
+      edges[j] = temp;
+    }
+    return edges;
+  }
+
+  // Kruskal pass with the parent array without path compression or ranks. Returns number of
+  // edges processed before the deadline.
+  private static int naiveKruskal(int[][] edges, long deadline) {
+    int[] parents = new int[ROWS * COLS];
+    for (int i = 0; i < parents.length; i++) {
+      parents[i] = i;
+    }
+    for (int index = 0; index < edges.length; index++) {
+      if ((index & 1023) == 0 && System.nanoTime() > deadline) {
+        return index;
+      }
+      int a = naiveFind(parents, edges[index][0]);
+      int b = naiveFind(parents, edges[index][1]);
+      if (a != b) {
+        parents[a] = b;
+      }
+    }
+    return edges.length;
+  }
+
+  private static int naiveFind(int[] parents, int i) {
+    while (parents[i] != i) {
+      i = parents[i];
+    }
+    return i;
+  }
+
+  // Kruskal pass with the disjoint set.
+  private static int disjointSetKruskal(int[][] edges) {
+    DisjointSet disjointSet = new DisjointSet(ROWS * COLS);
+    int treeEdges = 0;
+    for (int[] edge : edges) {
+      if (disjointSet.union(edge[0], edge[1])) {
+        treeEdges++;
+      }
+    }
+    return treeEdges;
+  }
+}
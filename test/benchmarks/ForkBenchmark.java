@@ -0,0 +1,87 @@
+package benchmarks;
+
+import dungeonmodel.Directions;
+import dungeonmodel.GeneralPlayerImpl;
+import dungeonmodel.GenerationMode;
+import dungeonmodel.PersistentDungeonGame;
+import dungeonmodel.PitsThievesDungeonImpl;
+import dungeonmodel.SeededGeneration;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * This class benchmarks forking a persistent copy of a 1000 x 1000 dungeon. Thousands of forks
+ * are kept at once, each of them walking a few steps from the start and picking up whatever it
+ * finds on the way, and the memory they take is compared with the memory of the dungeon.
+ */
+public class ForkBenchmark {
+  private static final int SIZE = 1000;
+  private static final int FORKS = 10_000;
+  private static final int STEPS = 20;
+
+  /**
+   * Runs the benchmark and prints time taken to fork and play, and memory taken by the forks.
+   * @param args Not used.
+   */
+  public static void main(String[] args) {
+    long before = usedMemory();
+    PitsThievesDungeonImpl game = new PitsThievesDungeonImpl(SIZE, SIZE, SIZE, false, 50,
+            SIZE / 10, new GeneralPlayerImpl("Benchmark"), new SeededGeneration(3),
+            GenerationMode.SHUFFLE);
+    long gameMemory = usedMemory() - before;
+    long start = System.nanoTime();
+    PersistentDungeonGame base = new PersistentDungeonGame(game, new SeededGeneration(4));
+    long copying = System.nanoTime() - start;
+    // Warm up with forks that are thrown away.
+    play(base, new Random(5), FORKS);
+    before = usedMemory();
+    Random random = new Random(6);
+    start = System.nanoTime();
+    List<PersistentDungeonGame> forks = play(base, random, FORKS);
+    long playing = System.nanoTime() - start;
+    long forkMemory = usedMemory() - before;
+    System.out.printf("%d x %d dungeon of %.1f MB: copied in %.1f ms, %d forks of %d steps "
+                    + "played in %.1f ms (%.0f ns per fork), %.1f KB per fork%n", SIZE, SIZE,
+            gameMemory / 1e6, copying / 1e6, forks.size(), STEPS, playing / 1e6,
+            playing / (double) forks.size(), forkMemory / 1e3 / forks.size());
+  }
+
+  // Forks the base game given number of times and walks each fork to random neighbours, picking
+  // up every treasure and arrow on the way. Returns the forks.
+  private static List<PersistentDungeonGame> play(PersistentDungeonGame base, Random random,
+                                                  int count) {
+    List<PersistentDungeonGame> forks = new ArrayList<>(count);
+    Directions[] directions = Directions.values();
+    for (int i = 0; i < count; i++) {
+      PersistentDungeonGame fork = base.fork(new SeededGeneration(i));
+      for (int step = 0; step < STEPS && !fork.isGameOver(); step++) {
+        if (fork.getCurrentLocationArrowCount() > 0) {
+          fork.pickAllArrows();
+        }
+        if (fork.getCurrentLocationDiamondCount() + fork.getCurrentLocationRubyCount()
+                + fork.getCurrentLocationEmeraldCount() > 0) {
+          fork.pickAllTreasures();
+        }
+        Map<Directions, ?> moves = fork.getPlayerCurrentLocation()
+                .getPossibleDirectionMoves(SIZE, SIZE);
+        Directions direction = directions[random.nextInt(directions.length)];
+        if (moves.containsKey(direction)) {
+          fork.movePlayer(direction);
+        }
+      }
+      forks.add(fork);
+    }
+    return forks;
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
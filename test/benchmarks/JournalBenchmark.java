@@ -0,0 +1,80 @@
+package benchmarks;
+
+import dungeonmodel.Directions;
+import dungeonmodel.DungeonFile;
+import dungeonmodel.DungeonGame;
+import dungeonmodel.DungeonGameImpl;
+import dungeonmodel.GeneralLocation;
+import dungeonmodel.GeneralPlayerImpl;
+import dungeonmodel.GenerationMode;
+import dungeonmodel.JournaledDungeonGame;
+import dungeonmodel.SeededGeneration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * This class benchmarks the overhead of journaling a game. The player walks a dungeon once without
+ * a journal and once with one, and the difference between the average time taken by a move is
+ * the overhead of journaling it.
+ */
+public class JournalBenchmark {
+  private static final int SIZE = 200;
+  private static final int SYNC_INTERVAL = 4096;
+  private static final int WARMUP_MOVES = 1_000_000;
+  private static final int MEASURED_MOVES = 5_000_000;
+
+  /**
+   * Runs the benchmark and prints average time taken by a move with and without the journal.
+   * @param args Not used.
+   * @throws IOException if the temporary files cannot be written or read.
+   */
+  public static void main(String[] args) throws IOException {
+    DungeonGameImpl game = new DungeonGameImpl(SIZE, SIZE, SIZE, false, 0, 1,
+            new GeneralPlayerImpl("Benchmark"), new SeededGeneration(5), GenerationMode.SHUFFLE);
+    Path layout = Files.createTempFile("benchmark", ".layout");
+    Path journal = Files.createTempFile("benchmark", ".journal");
+    try {
+      DungeonFile.save(game, layout);
+      DungeonGame plain = DungeonFile.load(layout, new SeededGeneration(6));
+      walk(plain, new Random(7), WARMUP_MOVES);
+      long start = System.nanoTime();
+      walk(plain, new Random(8), MEASURED_MOVES);
+      double plainMove = (System.nanoTime() - start) / (double) MEASURED_MOVES;
+      double journaledMove;
+      try (JournaledDungeonGame journaled = JournaledDungeonGame.start(game, layout, journal,
+              new SeededGeneration(6), SYNC_INTERVAL)) {
+        walk(journaled, new Random(7), WARMUP_MOVES);
+        start = System.nanoTime();
+        walk(journaled, new Random(8), MEASURED_MOVES);
+        journaledMove = (System.nanoTime() - start) / (double) MEASURED_MOVES;
+      }
+      System.out.printf("%d x %d dungeon: %.1f ns per move, %.1f ns per journaled move, "
+              + "%.1f ns of journaling over a %d byte journal%n", SIZE, SIZE, plainMove,
+              journaledMove, journaledMove - plainMove, Files.size(journal));
+    }
+    finally {
+      Files.delete(layout);
+      Files.delete(journal);
+    }
+  }
+
+  // Moves the player to a random neighbour given number of times. The player never moves into the
+  // end location, where the monster is, hence it tries again in another direction.
+  private static void walk(DungeonGame game, Random random, int moves) {
+    Directions[] directions = Directions.values();
+    GeneralLocation end = game.getEndLocation();
+    int moved = 0;
+    while (moved < moves) {
+      Directions direction = directions[random.nextInt(directions.length)];
+      GeneralLocation next = game.getPlayerCurrentLocation()
+              .getPossibleDirectionMoves(SIZE, SIZE).get(direction);
+      if (next != null && !next.equals(end)) {
+        game.movePlayer(direction);
+        moved++;
+      }
+    }
+  }
+}
@@ -0,0 +1,42 @@
+package benchmarks;
+
+import dungeonmodel.DungeonGameImpl;
+import dungeonmodel.DungeonGraph;
+import dungeonmodel.GeneralPlayerImpl;
+import dungeonmodel.GenerationMode;
+import dungeonmodel.SeededGeneration;
+
+/**
+ * This class measures the heap retained by a 1000 x 1000 dungeon and by its graph alone. The graph
+ * is a small part of it, since every location is still an object of its own.
+ */
+public class MemoryBenchmark {
+  private static final int SIZE = 1000;
+
+  /**
+   * Runs the benchmark and prints heap retained by the dungeon and its graph, in total and per
+   * location.
+   * @param args Not used.
+   */
+  public static void main(String[] args) {
+    long before = usedMemory();
+    DungeonGameImpl game = new DungeonGameImpl(SIZE, SIZE, SIZE, false, 20, SIZE / 10,
+            new GeneralPlayerImpl("Benchmark"), new SeededGeneration(3), GenerationMode.SHUFFLE);
+    long gameMemory = usedMemory() - before;
+    DungeonGraph graph = game.getGraph();
+    game = null;
+    long graphMemory = usedMemory() - before;
+    int cells = graph.getCellCount();
+    System.out.printf("%d x %d dungeon: %.1f MB, %.0f bytes per location, of which the graph "
+                    + "takes %.1f MB, %.0f bytes per location%n", SIZE, SIZE, gameMemory / 1e6,
+            gameMemory / (double) cells, graphMemory / 1e6, graphMemory / (double) cells);
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
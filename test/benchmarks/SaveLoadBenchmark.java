@@ -0,0 +1,57 @@
+package benchmarks;
+
+import dungeonmodel.DungeonFile;
+import dungeonmodel.GeneralPlayerImpl;
+import dungeonmodel.GenerationMode;
+import dungeonmodel.PitsThievesDungeonImpl;
+import dungeonmodel.SeededGeneration;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * This class benchmarks saving a 1000 x 1000 dungeon to a file and loading it back, against
+ * generating the same dungeon again.
+ */
+public class SaveLoadBenchmark {
+  private static final int SIZE = 1000;
+  private static final int WARMUP_RUNS = 3;
+  private static final int MEASURED_RUNS = 5;
+
+  /**
+   * Runs the benchmark and prints average time taken to save, load and generate the dungeon.
+   * @param args Not used.
+   * @throws IOException if the temporary file cannot be written or read.
+   */
+  public static void main(String[] args) throws IOException {
+    long start = System.nanoTime();
+    PitsThievesDungeonImpl game = new PitsThievesDungeonImpl(SIZE, SIZE, SIZE, false, 20,
+            SIZE / 10, new GeneralPlayerImpl("Benchmark"), new SeededGeneration(3),
+            GenerationMode.SHUFFLE);
+    long generation = System.nanoTime() - start;
+    Path path = Files.createTempFile("benchmark", ".dungeon");
+    try {
+      for (int run = 0; run < WARMUP_RUNS; run++) {
+        DungeonFile.save(game, path);
+        DungeonFile.load(path, new SeededGeneration(run));
+      }
+      long saving = 0;
+      long loading = 0;
+      for (int run = 0; run < MEASURED_RUNS; run++) {
+        start = System.nanoTime();
+        DungeonFile.save(game, path);
+        saving += System.nanoTime() - start;
+        start = System.nanoTime();
+        DungeonFile.load(path, new SeededGeneration(run));
+        loading += System.nanoTime() - start;
+      }
+      System.out.printf("%d x %d dungeon of %d bytes: generated in %.1f ms, saved in %.1f ms, "
+              + "loaded in %.1f ms%n", SIZE, SIZE, Files.size(path), generation / 1_000_000.0,
+              saving / (MEASURED_RUNS * 1_000_000.0), loading / (MEASURED_RUNS * 1_000_000.0));
+    }
+    finally {
+      Files.delete(path);
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package benchmarks;
+
+import dungeonmodel.Directions;
+import dungeonmodel.DungeonGame;
+import dungeonmodel.DungeonGameImpl;
+import dungeonmodel.GeneralLocation;
+import dungeonmodel.GeneralPlayerImpl;
+import dungeonmodel.GenerationMode;
+import dungeonmodel.SeededGeneration;
+
+import java.util.Random;
+
+/**
+ * This class benchmarks shooting throughput on large dungeons without interconnectivity, where
+ * most locations are tunnels and arrows pass through long runs of them. The player walks the
+ * dungeon and shoots in every direction at every distance from each location it visits.
+ */
+public class ShootBenchmark {
+  private static final int SIZE = 200;
+  private static final int WARMUP_LOCATIONS = 20_000;
+  private static final int MEASURED_LOCATIONS = 100_000;
+
+  /**
+   * Runs the benchmark and prints average time taken by a shot.
+   * @param args Not used.
+   */
+  public static void main(String[] args) {
+    DungeonGame game = new DungeonGameImpl(SIZE, SIZE, 0, false, 0, 1,
+            new EndlessArrowsPlayer(), new SeededGeneration(11), GenerationMode.SHUFFLE);
+    Random random = new Random(11);
+    shootWhileWalking(game, random, WARMUP_LOCATIONS);
+    long start = System.nanoTime();
+    long shots = shootWhileWalking(game, random, MEASURED_LOCATIONS);
+    long elapsed = System.nanoTime() - start;
+    System.out.printf("%d x %d dungeon: %.1f ns per shot over %d shots%n", SIZE, SIZE,
+            elapsed / (double) shots, shots);
+  }
+
+  // Shoots from given number of locations, moving to a random neighbour after every location.
+  // The player never moves into the end location, where the monster is. Returns shots taken.
+  private static long shootWhileWalking(DungeonGame game, Random random, int locations) {
+    Directions[] directions = Directions.values();
+    GeneralLocation end = game.getEndLocation();
+    long shots = 0;
+    for (int location = 0; location < locations; location++) {
+      for (Directions direction : directions) {
+        for (int distance = 1; distance <= 4; distance++) {
+          game.shootArrow(distance, direction);
+          shots++;
+        }
+      }
+      Directions direction = directions[random.nextInt(directions.length)];
+      GeneralLocation next = game.getPlayerCurrentLocation()
+              .getPossibleDirectionMoves(SIZE, SIZE).get(direction);
+      if (next != null && !next.equals(end)) {
+        game.movePlayer(direction);
+      }
+    }
+    return shots;
+  }
+
+  // Player that never runs out of arrows.
+  private static class EndlessArrowsPlayer extends GeneralPlayerImpl {
+    EndlessArrowsPlayer() {
+      super("Benchmark");
+    }
+
+    @Override
+    protected void removeArrow() {
+      // Arrows are not used up, so that the player can keep shooting.
+    }
+  }
+}
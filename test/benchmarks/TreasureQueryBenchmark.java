@@ -0,0 +1,74 @@
+package benchmarks;
+
+import dungeonmodel.Directions;
+import dungeonmodel.DungeonGame;
+import dungeonmodel.DungeonGameImpl;
+import dungeonmodel.GeneralPlayerImpl;
+import dungeonmodel.GenerationMode;
+import dungeonmodel.SeededGeneration;
+import dungeonmodel.Treasures;
+
+import java.util.Random;
+
+/**
+ * This class benchmarks the treasure and arrow queries the controller makes after every action,
+ * for a player that carries many treasures and stands in a location with treasures.
+ */
+public class TreasureQueryBenchmark {
+  private static final int OWNED_TREASURES = 1000;
+  private static final int WARMUP_ACTIONS = 200_000;
+  private static final int MEASURED_ACTIONS = 1_000_000;
+
+  /**
+   * Runs the benchmark and prints average time taken by the queries of one action.
+   * @param args Not used.
+   */
+  public static void main(String[] args) {
+    DungeonGame game = new DungeonGameImpl(30, 30, 30, false, 100, 1,
+            new GeneralPlayerImpl("Benchmark"), new SeededGeneration(7), GenerationMode.SHUFFLE);
+    collectTreasures(game);
+    long checksum = 0;
+    for (int action = 0; action < WARMUP_ACTIONS; action++) {
+      checksum += queryAfterAction(game);
+    }
+    long start = System.nanoTime();
+    for (int action = 0; action < MEASURED_ACTIONS; action++) {
+      checksum += queryAfterAction(game);
+    }
+    long elapsed = System.nanoTime() - start;
+    System.out.printf("Player owns %d treasures: %.1f ns per action (checksum %d)%n",
+            game.getPlayerRubyCount() + game.getPlayerDiamondCount()
+                    + game.getPlayerEmeraldCount(),
+            elapsed / (double) MEASURED_ACTIONS, checksum);
+  }
+
+  // Moves the player around picking treasures until it owns enough of them or gets killed.
+  private static void collectTreasures(DungeonGame game) {
+    Random random = new Random(7);
+    Directions[] directions = Directions.values();
+    int owned = 0;
+    for (int move = 0; move < 100_000 && owned < OWNED_TREASURES && !game.isGameOver(); move++) {
+      if (game.getCurrentLocationRubyCount() + game.getCurrentLocationDiamondCount()
+              + game.getCurrentLocationEmeraldCount() > 0) {
+        owned += game.getCurrentLocationRubyCount() + game.getCurrentLocationDiamondCount()
+                + game.getCurrentLocationEmeraldCount();
+        game.pickAllTreasures();
+      }
+      try {
+        game.movePlayer(directions[random.nextInt(directions.length)]);
+      } catch (IllegalArgumentException | IllegalStateException e) {
+        // Direction is not possible from the current location, try another one.
+      }
+    }
+  }
+
+  // Makes the same queries the controller makes after an action.
+  private static long queryAfterAction(DungeonGame game) {
+    return game.getPlayerRubyCount() + game.getPlayerEmeraldCount()
+            + game.getPlayerDiamondCount() + game.getPlayerArrowCount()
+            + game.getCurrentLocationRubyCount() + game.getCurrentLocationEmeraldCount()
+            + game.getCurrentLocationDiamondCount() + game.getCurrentLocationArrowCount()
+            + (game.getPlayerCurrentLocation().getTreasuresList().contains(Treasures.RUBIES)
+            ? 1 : 0);
+  }
+}
@@ -0,0 +1,144 @@
+package tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import dungeonmodel.DungeonBatchGenerator;
+import dungeonmodel.DungeonParameters;
+import dungeonmodel.ResultOrder;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Class for testing DungeonBatchGenerator class.
+ */
+public class DungeonBatchGeneratorTest {
+
+  @Test
+  public void testDungeonsAreHandedBackInSubmissionOrder() {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      List<String> firstRun = generate(executor, ResultOrder.SUBMISSION);
+      List<String> secondRun = generate(Runnable::run, ResultOrder.SUBMISSION);
+      assertEquals(20, firstRun.size());
+      assertEquals(firstRun, secondRun);
+      for (int i = 0; i < 20; i++) {
+        assertTrue(firstRun.get(i).startsWith("seed: " + i + " "));
+      }
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testCompletionOrderHandsBackEveryDungeon() {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      Set<String> completed = new HashSet<>(generate(executor, ResultOrder.COMPLETION));
+      assertEquals(new HashSet<>(generate(Runnable::run, ResultOrder.SUBMISSION)), completed);
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testParametersArePulledOnlyWhenThereIsRoom() {
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      AtomicInteger pulled = new AtomicInteger();
+      AtomicInteger handedBack = new AtomicInteger();
+      Stream<DungeonParameters> parameters = IntStream.range(0, 30).mapToObj(seed -> {
+        assertTrue(pulled.incrementAndGet() - handedBack.get() <= 3);
+        return new DungeonParameters(8, 8, 2, false, 40, 4, seed);
+      });
+      new DungeonBatchGenerator(executor, 3, ResultOrder.COMPLETION).generate(parameters,
+          (parameter, game) -> handedBack.incrementAndGet());
+      assertEquals(30, handedBack.get());
+    }
+    finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testErrorThrownIfDungeonCannotBeGenerated() {
+    Stream<DungeonParameters> parameters = Stream.of(new DungeonParameters(8, 8, 2, false, 40,
+            4, 1), new DungeonParameters(8, 8, 1000, false, 40, 4, 2));
+    try {
+      new DungeonBatchGenerator(Runnable::run, 2, ResultOrder.SUBMISSION).generate(parameters,
+          (parameter, game) -> { });
+      fail("Batch should fail when a dungeon cannot be generated");
+    }
+    catch (IllegalStateException exception) {
+      assertTrue(exception.getCause() instanceof IllegalArgumentException);
+    }
+  }
+
+  @Test
+  public void testRejectedDungeonFailsBatchAfterTakenOnesFinish() {
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    try {
+      AtomicInteger taken = new AtomicInteger();
+      AtomicInteger handedBack = new AtomicInteger();
+      Executor executor = task -> {
+        if (taken.get() == 3) {
+          throw new RejectedExecutionException("Executor is full");
+        }
+        taken.incrementAndGet();
+        pool.execute(() -> {
+          try {
+            Thread.sleep(200);
+          }
+          catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          task.run();
+        });
+      };
+      Stream<DungeonParameters> parameters = IntStream.range(0, 10).mapToObj(seed ->
+              new DungeonParameters(8, 8, 2, false, 40, 4, seed));
+      long start = System.nanoTime();
+      try {
+        new DungeonBatchGenerator(executor, 5, ResultOrder.SUBMISSION).generate(parameters,
+            (parameter, game) -> handedBack.incrementAndGet());
+        fail("Batch should fail when the executor doesn't take a dungeon");
+      }
+      catch (IllegalStateException exception) {
+        assertTrue(exception.getCause() instanceof RejectedExecutionException);
+        assertTrue(exception.getMessage().startsWith("Dungeon 3 of the batch"));
+      }
+      // Dungeons the executor took were waited for, but none of them was handed back.
+      assertTrue(System.nanoTime() - start >= 200_000_000L);
+      assertEquals(3, taken.get());
+      assertEquals(0, handedBack.get());
+    }
+    finally {
+      pool.shutdown();
+    }
+  }
+
+  // Generates 20 dungeons and describes each of them by its seed, start and end.
+  private List<String> generate(Executor executor, ResultOrder order) {
+    List<String> dungeons = new ArrayList<>();
+    Stream<DungeonParameters> parameters = IntStream.range(0, 20).mapToObj(seed ->
+            new DungeonParameters(10, 12, 3, seed % 2 == 0, 40, 4, seed));
+    new DungeonBatchGenerator(executor, 5, order).generate(parameters, (parameter, game) ->
+            dungeons.add(String.format("seed: %d start: %s end: %s", parameter.getSeed(),
+                    game.getStartLocation().getLocation(), game.getEndLocation().getLocation())));
+    return dungeons;
+  }
+}
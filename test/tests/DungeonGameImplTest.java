@@ -2,27 +2,48 @@ package tests;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import dungeonmodel.CaveDistances;
+import dungeonmodel.CaveGraph;
 import dungeonmodel.Directions;
+import dungeonmodel.DungeonFile;
 import dungeonmodel.DungeonGame;
 import dungeonmodel.DungeonGameImpl;
+import dungeonmodel.EllerMazeGenerator;
 import dungeonmodel.GeneralLocation;
 import dungeonmodel.GeneralPlayer;
 import dungeonmodel.GeneralPlayerImpl;
+import dungeonmodel.GenerationMode;
+import dungeonmodel.GraphDistances;
+import dungeonmodel.JournaledDungeonGame;
+import dungeonmodel.MazeDungeon;
+import dungeonmodel.MazeFile;
 import dungeonmodel.MonsterStatus;
 import dungeonmodel.NumberGenerationInterface;
 import dungeonmodel.PredictiveGeneration;
 import dungeonmodel.RandomGeneration;
+import dungeonmodel.RandomTape;
+import dungeonmodel.SeededGeneration;
 import dungeonmodel.Treasures;
 import org.junit.Before;
 import org.junit.Test;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * This class includes tests for dungeon game model.
@@ -1199,6 +1220,564 @@ public class DungeonGameImplTest {
     }
   }
 
+  @Test
+  public void testShuffleModeBuildsSpanningTree() {
+    NumberGenerationInterface random = new RandomGeneration();
+    GeneralPlayer player = new GeneralPlayerImpl("PlayerR");
+    DungeonGame game = new DungeonGameImpl(8, 8, 0, false, 40, 4,
+            player, random, GenerationMode.SHUFFLE);
+    GeneralLocation[][] board = game.getBoard();
+    int adjacencyCount = 0;
+    for (GeneralLocation[] row : board) {
+      for (GeneralLocation location : row) {
+        adjacencyCount += location.getAdjacencyList().size();
+        if (!location.equals(board[0][0])) {
+          assertTrue(findDistance(board[0][0], location, 8, 8) > 0);
+        }
+      }
+    }
+    // Every path of a spanning tree is listed in the adjacencies of both its locations.
+    assertEquals(2 * (8 * 8 - 1), adjacencyCount);
+  }
+
+  @Test
+  public void testShuffleModeIsReproducible() {
+    RandomGeneration random = new RandomGeneration();
+    DungeonGame game = new DungeonGameImpl(6, 7, 3, true, 40, 4,
+            new GeneralPlayerImpl("PlayerR"), random, GenerationMode.SHUFFLE);
+    DungeonGame replayed = new DungeonGameImpl(6, 7, 3, true, 40, 4,
+            new GeneralPlayerImpl("PlayerR"), new PredictiveGeneration(game.getRandomSeed()),
+            GenerationMode.SHUFFLE);
+    for (int row = 0; row < 6; row++) {
+      for (int col = 0; col < 7; col++) {
+        assertEquals(game.getBoard()[row][col].getAdjacencyList(),
+                replayed.getBoard()[row][col].getAdjacencyList());
+      }
+    }
+  }
+
+  @Test
+  public void testPlayerLocationIsSharedUntilItChanges() {
+    DungeonGame game = new DungeonGameImpl(5, 5, 2, false, 100, 1,
+            new GeneralPlayerImpl("PlayerR"), new RandomGeneration());
+    GeneralLocation location = game.getPlayerCurrentLocation();
+    int arrowCount = location.getArrowCount();
+    assertTrue(arrowCount > 0);
+    assertSame(location, game.getPlayerCurrentLocation());
+    assertSame(location, game.getStartLocation());
+    game.pickAllArrows();
+    GeneralLocation updatedLocation = game.getPlayerCurrentLocation();
+    assertNotSame(location, updatedLocation);
+    assertEquals(location, updatedLocation);
+    assertEquals(arrowCount, location.getArrowCount());
+    assertEquals(0, updatedLocation.getArrowCount());
+  }
+
+  @Test
+  public void testLocationsHaveDistinctHashCodes() {
+    DungeonGame game = new DungeonGameImpl(6, 7, 3, true, 40, 4,
+            new GeneralPlayerImpl("PlayerR"), new RandomGeneration());
+    Set<Integer> hashCodes = new HashSet<>();
+    for (GeneralLocation[] row : game.getBoard()) {
+      for (GeneralLocation location : row) {
+        assertTrue(hashCodes.add(location.hashCode()));
+      }
+    }
+    GeneralLocation start = game.getStartLocation();
+    GeneralLocation boardStart = game.getBoard()[start.getLocation().getX()][start.getLocation()
+            .getY()];
+    assertEquals(boardStart, start);
+    assertEquals(boardStart.hashCode(), start.hashCode());
+  }
+
+  @Test
+  public void testCaveGraphDistancesMatchDungeon() {
+    for (GenerationMode mode : GenerationMode.values()) {
+      DungeonGameImpl game = new DungeonGameImpl(8, 9, 4, true, 40, 4,
+              new GeneralPlayerImpl("PlayerR"), new RandomGeneration(), mode);
+      CaveGraph caveGraph = game.getCaveGraph();
+      CaveDistances caveDistances = caveGraph.newCaveDistances();
+      GraphDistances graphDistances = game.getGraphDistances();
+      int caveCount = 0;
+      for (GeneralLocation[] row : game.getBoard()) {
+        for (GeneralLocation location : row) {
+          if (location.isCave()) {
+            caveCount++;
+          }
+        }
+      }
+      assertEquals(caveCount, caveGraph.getCaveCount());
+      int[] distances = new int[caveCount];
+      for (int source = 0; source < caveCount; source++) {
+        caveDistances.distancesFrom(source, distances);
+        for (int target = 0; target < caveCount; target++) {
+          assertEquals(graphDistances.distance(caveGraph.getCell(source),
+                  caveGraph.getCell(target)), distances[target]);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testShuffleModePlacesEverythingAtFullDensity() {
+    DungeonGame game = new DungeonGameImpl(6, 6, 4, true, 100, 100,
+            new GeneralPlayerImpl("PlayerR"), new RandomGeneration(), GenerationMode.SHUFFLE);
+    GeneralLocation start = game.getStartLocation();
+    int caveCount = 0;
+    int monsterCount = 0;
+    for (GeneralLocation[] row : game.getBoard()) {
+      for (GeneralLocation location : row) {
+        assertTrue(location.getArrowCount() > 0);
+        if (location.isCave()) {
+          caveCount++;
+          assertFalse(location.getTreasuresList().isEmpty());
+          if (location.hasMonster()) {
+            monsterCount++;
+          }
+        }
+        else {
+          assertTrue(location.getTreasuresList().isEmpty());
+        }
+      }
+    }
+    assertFalse(start.hasMonster());
+    assertEquals(caveCount - 1, monsterCount);
+  }
+
+  @Test
+  public void testAdjacenciesHaveNoDuplicates() {
+    for (GenerationMode mode : GenerationMode.values()) {
+      if (mode == GenerationMode.LEGACY) {
+        // Legacy generation can draw the same interconnection twice, as it always could.
+        continue;
+      }
+      // A 5 x 5 dungeon has 40 paths, 24 of them make the spanning tree and all the remaining 16
+      // paths are used for interconnectivity.
+      DungeonGame game = new DungeonGameImpl(5, 5, 16, false, 40, 4,
+              new GeneralPlayerImpl("PlayerR"), new RandomGeneration(), mode);
+      int adjacencyCount = 0;
+      for (GeneralLocation[] row : game.getBoard()) {
+        for (GeneralLocation location : row) {
+          List<GeneralLocation> adjacencies = location.getAdjacencyList();
+          assertEquals(adjacencies.size(), new HashSet<>(adjacencies).size());
+          adjacencyCount += adjacencies.size();
+        }
+      }
+      assertEquals(2 * 40, adjacencyCount);
+    }
+  }
+  @Test
+  public void testShuffleModeStartAndEndAreMoreThanFiveApart() {
+    for (int i = 0; i < 20; i++) {
+      DungeonGame game = new DungeonGameImpl(6, 6, 2, false, 40, 4,
+              new GeneralPlayerImpl("PlayerR"), new RandomGeneration(), GenerationMode.SHUFFLE);
+      assertTrue(game.getStartLocation().isCave());
+      assertTrue(game.getEndLocation().isCave());
+      assertTrue(findDistance(game.getStartLocation(), game.getEndLocation(), 6, 6) > 5);
+    }
+  }
+
+  @Test
+  public void testShuffleModeErrorThrownIfPathLengthNotPossible() {
+    try {
+      new DungeonGameImpl(2, 3, 0, false, 40, 4,
+              new GeneralPlayerImpl("PlayerR"), new RandomGeneration(), GenerationMode.SHUFFLE);
+      fail("Dungeon should not be created when no two caves are more than 5 apart");
+    }
+    catch (IllegalArgumentException exception) {
+      assertEquals("Two nodes with 5 units apart are not found for this "
+                   + "dungeonmodel", exception.getMessage());
+    }
+  }
+
+  @Test
+  public void testMazeFileLoadsBackAsTheSameTree() throws IOException {
+    Path path = Files.createTempFile("dungeon", ".maze");
+    try {
+      MazeFile.write(path, 9, 7, new RandomGeneration());
+      DungeonGame game;
+      try (MazeFile maze = MazeFile.open(path)) {
+        assertEquals(9, maze.getRows());
+        assertEquals(7, maze.getCols());
+        game = new DungeonGameImpl(maze, 0, false, 40, 4, new GeneralPlayerImpl("PlayerR"),
+                new RandomGeneration());
+      }
+      GeneralLocation[][] board = game.getBoard();
+      int adjacencyCount = 0;
+      try (MazeFile maze = MazeFile.open(path)) {
+        byte[] pathsInRow = new byte[7];
+        for (int row = 0; row < 9; row++) {
+          maze.readRow(pathsInRow);
+          for (int col = 0; col < 7; col++) {
+            List<GeneralLocation> adjacencies = board[row][col].getAdjacencyList();
+            adjacencyCount += adjacencies.size();
+            assertEquals((pathsInRow[col] & EllerMazeGenerator.EAST) != 0,
+                    col + 1 < 7 && adjacencies.contains(board[row][col + 1]));
+            assertEquals((pathsInRow[col] & EllerMazeGenerator.SOUTH) != 0,
+                    row + 1 < 9 && adjacencies.contains(board[row + 1][col]));
+          }
+        }
+      }
+      assertEquals(2 * (9 * 7 - 1), adjacencyCount);
+    }
+    finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testMazeDungeonDecodesTheSameDungeonAsTheGame() throws IOException {
+    Path path = Files.createTempFile("dungeon", ".maze");
+    try {
+      MazeFile.write(path, 9, 7, new SeededGeneration(17));
+      DungeonGame game;
+      try (MazeFile maze = MazeFile.open(path)) {
+        game = new DungeonGameImpl(maze, 0, false, 40, 4, new GeneralPlayerImpl("PlayerR"),
+                new SeededGeneration(18));
+      }
+      MazeDungeon view = MazeDungeon.open(path);
+      assertEquals(9, view.getRowsInBoard());
+      assertEquals(7, view.getColsInBoard());
+      GeneralLocation[][] board = game.getBoard();
+      GeneralLocation[][] viewBoard = view.getBoard();
+      for (int row = 0; row < 9; row++) {
+        for (int col = 0; col < 7; col++) {
+          GeneralLocation location = view.getLocation(row, col);
+          assertEquals(viewBoard[row][col], location);
+          assertEquals(board[row][col].getLocation(), location.getLocation());
+          assertEquals(board[row][col].isCave(), location.isCave());
+          Map<Directions, GeneralLocation> expectedMoves =
+                  board[row][col].getPossibleDirectionMoves(9, 7);
+          Map<Directions, GeneralLocation> moves = location.getPossibleDirectionMoves(9, 7);
+          assertEquals(expectedMoves.keySet(), moves.keySet());
+          for (Directions direction : moves.keySet()) {
+            assertEquals(expectedMoves.get(direction).getLocation(),
+                    moves.get(direction).getLocation());
+          }
+          assertEquals(board[row][col].getAdjacencyList().size(),
+                  location.getAdjacencyList().size());
+        }
+      }
+      try {
+        view.getLocation(9, 0);
+        fail("Location outside of the maze should not be decoded");
+      }
+      catch (IllegalArgumentException exception) {
+        assertEquals("Location (9, 0) is not in the dungeon", exception.getMessage());
+      }
+    }
+    finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testRowByRowModeIsASpanningTree() {
+    DungeonGameImpl game = new DungeonGameImpl(12, 10, 0, true, 40, 4,
+            new GeneralPlayerImpl("PlayerR"), new RandomGeneration(), GenerationMode.ROW_BY_ROW);
+    GraphDistances graphDistances = game.getGraphDistances();
+    int adjacencyCount = 0;
+    for (GeneralLocation[] row : game.getBoard()) {
+      for (GeneralLocation location : row) {
+        adjacencyCount += location.getAdjacencyList().size();
+      }
+    }
+    assertEquals(2 * (12 * 10 - 1), adjacencyCount);
+    for (int cell = 0; cell < 12 * 10; cell++) {
+      assertTrue(graphDistances.distance(0, cell) >= 0);
+    }
+  }
+
+
+  @Test
+  public void testTiledModeDoesNotDependOnThreadCount() throws Exception {
+    ForkJoinPool singleThread = new ForkJoinPool(1);
+    ForkJoinPool fourThreads = new ForkJoinPool(4);
+    try {
+      Callable<DungeonGame> tiledGame = () -> new DungeonGameImpl(150, 130, 0, true, 40, 4,
+              new GeneralPlayerImpl("PlayerR"), (minRange, maxRange) -> minRange,
+              GenerationMode.TILED);
+      GeneralLocation[][] first = singleThread.submit(tiledGame).get().getBoard();
+      GeneralLocation[][] second = fourThreads.submit(tiledGame).get().getBoard();
+      int adjacencyCount = 0;
+      for (int row = 0; row < 150; row++) {
+        for (int col = 0; col < 130; col++) {
+          assertEquals(first[row][col].getAdjacencyList(), second[row][col].getAdjacencyList());
+          adjacencyCount += first[row][col].getAdjacencyList().size();
+        }
+      }
+      assertEquals(2 * (150 * 130 - 1), adjacencyCount);
+    }
+    finally {
+      singleThread.shutdown();
+      fourThreads.shutdown();
+    }
+  }
+
+  @Test
+  public void testSeededGenerationReplaysGameFromSeed() {
+    SeededGeneration seeded = new SeededGeneration();
+    DungeonGame game = new DungeonGameImpl(6, 7, 3, true, 40, 4,
+            new GeneralPlayerImpl("PlayerR"), seeded);
+    DungeonGame replayed = new DungeonGameImpl(6, 7, 3, true, 40, 4,
+            new GeneralPlayerImpl("PlayerR"), new SeededGeneration(seeded.getSeed()));
+    for (int row = 0; row < 6; row++) {
+      for (int col = 0; col < 7; col++) {
+        assertEquals(game.getBoard()[row][col].getAdjacencyList(),
+                replayed.getBoard()[row][col].getAdjacencyList());
+        assertEquals(game.getBoard()[row][col].getTreasuresList(),
+                replayed.getBoard()[row][col].getTreasuresList());
+      }
+    }
+    assertEquals(game.getStartLocation(), replayed.getStartLocation());
+    assertEquals(game.getEndLocation(), replayed.getEndLocation());
+    try {
+      game.getRandomSeed();
+      fail("Seeded generation should not record random numbers");
+    }
+    catch (IllegalStateException exception) {
+      assertEquals("Random numbers are recorded only by random generation, seeded generation "
+              + "can be replayed from its seed", exception.getMessage());
+    }
+  }
+
+  @Test
+  public void testSplitSeededGenerationIsReproducible() {
+    SeededGeneration first = new SeededGeneration(17).split();
+    SeededGeneration second = new SeededGeneration(17).split();
+    assertEquals(first.getSeed(), second.getSeed());
+    assertTrue(first.getSeed() != 17);
+    for (int i = 0; i < 100; i++) {
+      int value = first.getIntInRange(-5, 5);
+      assertEquals(value, second.getIntInRange(-5, 5));
+      assertTrue(value >= -5 && value <= 5);
+    }
+    int value = first.getIntInRange(Integer.MIN_VALUE, Integer.MAX_VALUE);
+    assertEquals(value, second.getIntInRange(Integer.MIN_VALUE, Integer.MAX_VALUE));
+  }
+
+  @Test
+  public void testRandomTapeContinuesDeterministicallyPastItsEnd() {
+    DungeonGame game = new DungeonGameImpl(6, 7, 3, true, 40, 4,
+            new GeneralPlayerImpl("PlayerR"), new RandomGeneration(), GenerationMode.SHUFFLE);
+    RandomTape tape = game.getRandomTape();
+    assertEquals(game.getRandomSeed().size(), tape.size());
+    NumberGenerationInterface first = new PredictiveGeneration(tape);
+    NumberGenerationInterface second = new PredictiveGeneration(tape);
+    DungeonGame replayed = new DungeonGameImpl(6, 7, 3, true, 40, 4,
+            new GeneralPlayerImpl("PlayerR"), first, GenerationMode.SHUFFLE);
+    assertEquals(game.getStartLocation(), replayed.getStartLocation());
+    assertEquals(game.getEndLocation(), replayed.getEndLocation());
+    for (int i = 0; i < tape.size(); i++) {
+      assertEquals(tape.get(i), second.getIntInRange(0, 0));
+    }
+    for (int i = 0; i < 50; i++) {
+      int value = first.getIntInRange(3, 9);
+      assertEquals(value, second.getIntInRange(3, 9));
+      assertTrue(value >= 3 && value <= 9);
+    }
+  }
+
+  @Test
+  public void testJournaledGameIsRecoveredAfterCrash() throws IOException {
+    DungeonGameImpl game = new DungeonGameImpl(8, 9, 5, true, 80, 6,
+            new GeneralPlayerImpl("PlayerJ"), new SeededGeneration(11), GenerationMode.SHUFFLE);
+    Path layout = Files.createTempFile("dungeon", ".layout");
+    Path journal = Files.createTempFile("dungeon", ".journal");
+    try {
+      JournaledDungeonGame played = JournaledDungeonGame.start(game, layout, journal,
+              new SeededGeneration(12), 8);
+      NumberGenerationInterface choices = new SeededGeneration(13);
+      Directions[] directions = Directions.values();
+      for (int i = 0; i < 200 && !played.isGameOver(); i++) {
+        if (played.getCurrentLocationArrowCount() > 0) {
+          played.pickArrow();
+        }
+        if (!played.getPlayerCurrentLocation().getTreasuresList().isEmpty()) {
+          played.pickAllTreasures();
+        }
+        Directions direction = directions[choices.getIntInRange(0, directions.length - 1)];
+        try {
+          if (played.getPlayerArrowCount() > 0 && choices.getIntInRange(0, 3) == 0) {
+            played.shootArrow(choices.getIntInRange(1, 2), direction);
+          }
+          else {
+            played.movePlayer(direction);
+          }
+        }
+        catch (IllegalArgumentException e) {
+          // Failed actions are journaled too.
+        }
+      }
+      played.close();
+      // A crash while writing leaves an incomplete record at the end of the journal.
+      long length = Files.size(journal);
+      Files.write(journal, new byte[] {0, 0, 0, 0, 0, 1, 0, 0}, StandardOpenOption.APPEND);
+      try (JournaledDungeonGame recovered = JournaledDungeonGame.recover(layout, journal,
+              new SeededGeneration(12), 8)) {
+        assertEquals(length, Files.size(journal));
+        assertEquals(played.getPlayerCurrentLocation(), recovered.getPlayerCurrentLocation());
+        assertEquals(played.getPlayerInfo(), recovered.getPlayerInfo());
+        assertEquals(played.isPlayerAlive(), recovered.isPlayerAlive());
+        assertEquals(played.isGameOver(), recovered.isGameOver());
+        for (int row = 0; row < 8; row++) {
+          for (int col = 0; col < 9; col++) {
+            GeneralLocation expected = played.getBoard()[row][col];
+            GeneralLocation actual = recovered.getBoard()[row][col];
+            assertEquals(expected.getAdjacencyList(), actual.getAdjacencyList());
+            assertEquals(expected.getTreasuresList(), actual.getTreasuresList());
+            assertEquals(expected.getArrowCount(), actual.getArrowCount());
+            assertEquals(expected.hasMonster(), actual.hasMonster());
+            assertEquals(expected.getVisited(), actual.getVisited());
+            assertEquals(played.getSmellInLocation(expected),
+                    recovered.getSmellInLocation(actual));
+          }
+        }
+      }
+    }
+    finally {
+      Files.delete(layout);
+      Files.delete(journal);
+    }
+  }
+
+
+  @Test
+  public void testJournaledGameRecordsRandomNumbersOfItsGenerator() throws IOException {
+    DungeonGameImpl game = new DungeonGameImpl(6, 6, 3, false, 80, 10,
+            new GeneralPlayerImpl("PlayerJ"), new SeededGeneration(21), GenerationMode.SHUFFLE);
+    Path layout = Files.createTempFile("dungeon", ".layout");
+    Path journal = Files.createTempFile("dungeon", ".journal");
+    try {
+      try (JournaledDungeonGame played = JournaledDungeonGame.start(game, layout, journal,
+              new RandomGeneration(), 8)) {
+        NumberGenerationInterface choices = new SeededGeneration(22);
+        Directions[] directions = Directions.values();
+        for (int i = 0; i < 100 && !played.isGameOver(); i++) {
+          try {
+            played.movePlayer(directions[choices.getIntInRange(0, directions.length - 1)]);
+          }
+          catch (IllegalArgumentException e) {
+            // Moves into walls are journaled too.
+          }
+        }
+        assertEquals(played.getRandomTape().asList(), played.getRandomSeed());
+      }
+      try (JournaledDungeonGame seeded = JournaledDungeonGame.start(game, layout, journal,
+              new SeededGeneration(23), 8)) {
+        seeded.getRandomSeed();
+        fail("Seeded generation should not record random numbers");
+      }
+      catch (IllegalStateException exception) {
+        assertEquals("Random numbers are recorded only by random generation, seeded generation "
+                + "can be replayed from its seed", exception.getMessage());
+      }
+    }
+    finally {
+      Files.delete(layout);
+      Files.delete(journal);
+    }
+  }
+
+  @Test
+  public void testLegacyReplayOfTwoRowWrappedDungeon() {
+    // Random numbers recorded when wrapping paths of two row dungeons were drawn from along with
+    // the rest of the paths.
+    DungeonGame game = new DungeonGameImpl(2, 5, 0, true, 50, 1,
+            new GeneralPlayerImpl("PlayerL"), new PredictiveGeneration(11, 18, 8, 8, 11, 7, 15,
+            8, 18, 0, 12, 14, 0, 19, 0, 1, 1, 1, 0, 2, 2, 3, 0, 0, 0, 3, 1, 2, 1, 2, 5, 3, 1, 1, 0,
+            3, 0, 1, 2, 1, 3, 1, 0, 1, 1, 4, 3, 1, 2, 3));
+    assertEquals("(0, 0)->(0, 4)(0, 1)[RUBIES, RUBIES, SAPPHIRE]0false;"
+            + "(0, 1)->(0, 0)(1, 1)[RUBIES]2false;(0, 2)->(1, 2)[DIAMONDS]0false;"
+            + "(0, 3)->(1, 3)[]0true;(0, 4)->(0, 0)(1, 4)[]0false;(1, 0)->(1, 4)[]3false;"
+            + "(1, 1)->(0, 1)[]0false;(1, 2)->(1, 3)(0, 2)[]3false;"
+            + "(1, 3)->(1, 2)(0, 3)(1, 4)[]1false;(1, 4)->(0, 4)(1, 3)(1, 0)[]3false;"
+            + "(1, 1)(0, 3)", describeLayout(game));
+  }
+
+  @Test
+  public void testLegacyReplayOfRepeatedInterconnection() throws IOException {
+    // Random numbers recorded when interconnections were drawn from all the unused paths, where
+    // the path between (1, 2) and (2, 2) is drawn twice.
+    DungeonGameImpl game = new DungeonGameImpl(3, 5, 2, false, 85, 1,
+            new GeneralPlayerImpl("PlayerL"), new PredictiveGeneration(
+            9, 8, 20, 10, 3, 15, 21, 10, 10, 7, 0, 8, 2, 11, 13, 12, 15, 10, 5, 16, 4, 4, 1, 4, 3,
+            0, 3, 2, 0, 2, 3, 2, 0, 3, 2, 4, 2, 0, 2, 2, 0, 2, 0, 0, 2, 4, 2, 3, 2, 1, 1, 0, 0, 1,
+            0, 2, 4, 1, 0, 3, 1, 0, 2, 2, 0, 0, 4, 3, 3, 2, 0, 0, 1, 3, 0, 2, 1, 0, 1, 1, 1, 3, 2,
+            2, 0, 2, 2, 2, 3, 0, 12, 3, 7, 2, 7, 2, 4, 7, 7, 6, 2, 5, 3, 12, 4, 4, 1, 11, 8, 10, 0,
+            12, 0, 4, 3, 2, 3, 2, 2, 2, 2, 1, 2, 3, 0, 4, 1, 4, 3, 0, 1, 1, 2, 1, 2, 0, 3, 1, 2, 3,
+            2, 1, 2, 0, 1, 0, 0, 2, 1, 3, 1, 2, 3, 0, 0, 2, 1, 1, 2, 2, 0, 2, 0, 0, 2, 3));
+    assertEquals("(0, 0)->(0, 1)[DIAMONDS]2false;"
+            + "(0, 1)->(1, 1)(0, 0)(0, 2)[DIAMONDS, RUBIES, SAPPHIRE]1false;"
+            + "(0, 2)->(0, 1)[DIAMONDS, SAPPHIRE]3false;(0, 3)->(1, 3)[]1false;"
+            + "(0, 4)->(1, 4)[DIAMONDS, SAPPHIRE]3false;"
+            + "(1, 0)->(1, 1)(2, 0)[DIAMONDS, RUBIES, SAPPHIRE]0false;"
+            + "(1, 1)->(1, 0)(0, 1)(1, 2)(2, 1)[DIAMONDS, SAPPHIRE, SAPPHIRE]0false;"
+            + "(1, 2)->(1, 1)(1, 3)(2, 2)(2, 2)[]3false;(1, 3)->(1, 4)(0, 3)(1, 2)(2, 3)[]1false;"
+            + "(1, 4)->(0, 4)(1, 3)[DIAMONDS, SAPPHIRE]3false;"
+            + "(2, 0)->(1, 0)[DIAMONDS, DIAMONDS]1false;(2, 1)->(1, 1)[]2false;"
+            + "(2, 2)->(2, 3)(1, 2)(1, 2)[DIAMONDS]2false;(2, 3)->(2, 2)(2, 4)(1, 3)[RUBIES, "
+            + "RUBIES]2false;(2, 4)->(2, 3)[DIAMONDS, SAPPHIRE]0true;(0, 0)(2, 4)",
+            describeLayout(game));
+    // The path drawn twice is still listed twice once the game is saved and loaded back.
+    Path path = Files.createTempFile("dungeon", ".save");
+    try {
+      DungeonFile.save(game, path);
+      DungeonGame loaded = DungeonFile.load(path, new RandomGeneration());
+      assertEquals(4, loaded.getBoard()[1][2].getAdjacencyList().size());
+      assertEquals(3, loaded.getBoard()[2][2].getAdjacencyList().size());
+    }
+    finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testLegacyWrappedRowWithSelfLoopIsSavedAndLoaded() throws IOException {
+    // The interconnection of this single wrapped row is the path that wraps (0, 7) to itself.
+    DungeonGameImpl game = new DungeonGameImpl(1, 8, 1, true, 20, 1,
+            new GeneralPlayerImpl("PlayerS"), new SeededGeneration(0));
+    GeneralLocation selfLoop = game.getBoard()[0][7];
+    assertEquals(4, selfLoop.getAdjacencyList().size());
+    assertSame(selfLoop, selfLoop.getPossibleDirectionMoves(1, 8).get(Directions.NORTH));
+    assertSame(selfLoop, selfLoop.getPossibleDirectionMoves(1, 8).get(Directions.SOUTH));
+    Path path = Files.createTempFile("dungeon", ".save");
+    try {
+      DungeonFile.save(game, path);
+      DungeonGame loaded = DungeonFile.load(path, new RandomGeneration());
+      GeneralLocation[] row = loaded.getBoard()[0];
+      for (int col = 0; col < 8; col++) {
+        assertEquals(new HashSet<>(game.getBoard()[0][col].getAdjacencyList()),
+                new HashSet<>(row[col].getAdjacencyList()));
+        assertEquals(game.getBoard()[0][col].getAdjacencyList().size(),
+                row[col].getAdjacencyList().size());
+        assertEquals(game.getBoard()[0][col].getPossibleDirectionMoves(1, 8),
+                row[col].getPossibleDirectionMoves(1, 8));
+      }
+    }
+    finally {
+      Files.delete(path);
+    }
+  }
+
+  // Describes the paths, treasures, arrows and monsters of every location, followed by the start
+  // and end locations.
+  private String describeLayout(DungeonGame game) {
+    StringBuilder layout = new StringBuilder();
+    for (GeneralLocation[] row : game.getBoard()) {
+      for (GeneralLocation location : row) {
+        layout.append(location.getLocation()).append("->");
+        for (GeneralLocation adjacency : location.getAdjacencyList()) {
+          layout.append(adjacency.getLocation());
+        }
+        layout.append(location.getTreasuresList()).append(location.getArrowCount())
+                .append(location.hasMonster()).append(";");
+      }
+    }
+    return layout.append(game.getStartLocation().getLocation())
+            .append(game.getEndLocation().getLocation()).toString();
+  }
+
 
   private int getEquivalentOneDIndex(int sourceRow, int sourceCol, int totalCols) {
     return ((totalCols) * (sourceRow)) + sourceCol;
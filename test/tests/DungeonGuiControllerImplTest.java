@@ -6,8 +6,13 @@ import static org.junit.Assert.assertTrue;
 import controller.DungeonGuiController;
 import controller.DungeonGuiControllerImpl;
 import dungeonmodel.Directions;
+import dungeonmodel.GeneralLocation;
+import dungeonmodel.PitsThievesDungeon;
 import org.junit.Test;
 
+import java.util.HashSet;
+import java.util.List;
+
 /**
  * Tests for the Dungeon GUI controller class.
  */
@@ -150,6 +155,30 @@ public class DungeonGuiControllerImplTest {
     assertEquals(expected, mockLog.toString());
   }
 
+  @Test
+  public void testCreatedGamesHaveNoDuplicateAdjacencies() {
+    StringBuilder mockLog = new StringBuilder();
+    MockView mockView = new MockView(mockLog);
+    DungeonGuiController controller = new DungeonGuiControllerImpl(mockView);
+    for (int i = 0; i < 10; i++) {
+      // An 8 x 8 dungeon has 112 paths, 63 of them make the spanning tree and all the remaining
+      // 49 paths are used for interconnectivity.
+      controller.createModel(8, 8, false, 49, 50, 2, "PlayerG");
+      assertNoDuplicateAdjacencies(mockView.model, 112);
+      controller.reuseGame();
+      assertNoDuplicateAdjacencies(mockView.model, 112);
+    }
+  }
 
-
-}
\ No newline at end of file
+  private void assertNoDuplicateAdjacencies(PitsThievesDungeon model, int pathCount) {
+    int adjacencyCount = 0;
+    for (GeneralLocation[] row : model.getBoard()) {
+      for (GeneralLocation location : row) {
+        List<GeneralLocation> adjacencies = location.getAdjacencyList();
+        assertEquals(adjacencies.size(), new HashSet<>(adjacencies).size());
+        adjacencyCount += adjacencies.size();
+      }
+    }
+    assertEquals(2 * pathCount, adjacencyCount);
+  }
+}
@@ -1,9 +1,11 @@
 package tests;
 
+import dungeonmodel.CaveGraph;
 import dungeonmodel.Directions;
 import dungeonmodel.DungeonGame;
 import dungeonmodel.GeneralLocation;
 import dungeonmodel.MonsterStatus;
+import dungeonmodel.RandomTape;
 import dungeonmodel.Smell;
 import dungeonmodel.Treasures;
 
@@ -195,6 +197,11 @@ class MockDungeonModel implements DungeonGame {
     return null;
   }
 
+  @Override
+  public RandomTape getRandomTape() {
+    return null;
+  }
+
   @Override
   public boolean hasPit(GeneralLocation location) {
     return false;
@@ -210,5 +217,8 @@ class MockDungeonModel implements DungeonGame {
     return false;
   }
 
+  @Override
+  public CaveGraph getCaveGraph() {
+    return null;
+  }
 }
-
@@ -10,6 +10,8 @@ import java.io.IOException;
 class MockView implements IGameView {
 
   private Appendable mockViewLog;
+  // Model the view was last switched to.
+  PitsThievesDungeon model;
 
   public MockView(Appendable log) {
     this.mockViewLog = log;
@@ -19,6 +21,7 @@ class MockView implements IGameView {
   public void switchToGameMode(PitsThievesDungeon model, DungeonGuiController controller,
                                int[] playerPossessions, int[] locationInfo, String status,
                                String pitsDirections) {
+    this.model = model;
     try {
       mockViewLog.append("switchToGameMode\n");
     } catch (IOException ignored) {
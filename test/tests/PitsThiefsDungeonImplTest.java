@@ -3,18 +3,32 @@ package tests;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import dungeonmodel.Directions;
+import dungeonmodel.DungeonFile;
+import dungeonmodel.DungeonGraph;
 import dungeonmodel.GeneralLocation;
 import dungeonmodel.GeneralPlayer;
 import dungeonmodel.GeneralPlayerImpl;
+import dungeonmodel.GenerationMode;
 import dungeonmodel.NumberGenerationInterface;
+import dungeonmodel.PersistentDungeonGame;
 import dungeonmodel.PitsThievesDungeon;
 import dungeonmodel.PitsThievesDungeonImpl;
 import dungeonmodel.PredictiveGeneration;
 import dungeonmodel.RandomGeneration;
+import dungeonmodel.SeededGeneration;
+import dungeonmodel.Treasures;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
 /**
  * Class for testing PitsThiefsDungeonImpl class, this includes tests for new Pits and thieves
  * features.
@@ -175,4 +189,316 @@ public class PitsThiefsDungeonImplTest {
     assertTrue(game.isPlayerAlive());
   }
 
-}
\ No newline at end of file
+  @Test
+  public void testHazardsAreCappedByAvailableLocationsInLegacyMode() {
+    for (int i = 0; i < 10; i++) {
+      PitsThievesDungeon game = new PitsThievesDungeonImpl(6, 6, 4, true,
+              60, 100, new GeneralPlayerImpl("testPlayer"), new RandomGeneration(),
+              GenerationMode.LEGACY);
+      int caves = 0;
+      int pits = 0;
+      int thieves = 0;
+      for (GeneralLocation[] row : game.getBoard()) {
+        for (GeneralLocation location : row) {
+          if (location.isCave()) {
+            caves++;
+          }
+          if (game.hasPit(location)) {
+            pits++;
+          }
+          if (game.hasThief(location)) {
+            thieves++;
+          }
+        }
+      }
+      assertEquals(caves - 2, pits);
+      assertEquals(36 - caves, thieves);
+      assertEquals(pits, game.getPitCount());
+      assertEquals(thieves, game.getThiefCount());
+      assertFalse(game.hasPit(game.getStartLocation()));
+      assertFalse(game.hasPit(game.getEndLocation()));
+    }
+  }
+
+  @Test
+  public void testErrorThrownIfPitsDoNotFitInCaves() {
+    for (GenerationMode mode : GenerationMode.values()) {
+      if (mode == GenerationMode.LEGACY) {
+        continue;
+      }
+      try {
+        new PitsThievesDungeonImpl(6, 6, 4, true, 60, 100, new GeneralPlayerImpl("testPlayer"),
+                new SeededGeneration(11), mode);
+        fail("Pits that don't fit in the caves should not be placed");
+      }
+      catch (IllegalArgumentException exception) {
+        assertTrue(exception.getMessage().endsWith("caves other than start and end for 100 pits"));
+      }
+    }
+  }
+
+  @Test
+  public void testErrorThrownIfThievesDoNotFitInTunnels() {
+    try {
+      new PitsThievesDungeonImpl(6, 6, 30, true, 60, 10, new GeneralPlayerImpl("testPlayer"),
+              new SeededGeneration(11), GenerationMode.SHUFFLE);
+      fail("Thieves that don't fit in the tunnels should not be placed");
+    }
+    catch (IllegalArgumentException exception) {
+      assertTrue(exception.getMessage().endsWith("tunnels for 10 thieves"));
+    }
+  }
+
+  @Test
+  public void testSavedGameLoadsBackTheSameState() throws IOException {
+    PitsThievesDungeonImpl game = new PitsThievesDungeonImpl(9, 11, 6, true, 60, 5,
+            new GeneralPlayerImpl("testPlayer"), new RandomGeneration(), GenerationMode.SHUFFLE);
+    if (!game.getPlayerCurrentLocation().getTreasuresList().isEmpty()) {
+      game.pickAllTreasures();
+    }
+    if (game.getCurrentLocationArrowCount() > 0) {
+      game.pickAllArrows();
+    }
+    for (Directions direction : Directions.values()) {
+      if (game.getPlayerArrowCount() > 0) {
+        game.shootArrow(1, direction);
+      }
+    }
+    Path path = Files.createTempFile("dungeon", ".save");
+    try {
+      DungeonFile.save(game, path);
+      // Locations of a loaded game that are not asked for yet are saved again as they were read.
+      DungeonFile.save(DungeonFile.load(path, new RandomGeneration()), path);
+      PitsThievesDungeon loaded = (PitsThievesDungeon) DungeonFile.load(path,
+              new RandomGeneration());
+      assertEquals(game.getPitCount(), loaded.getPitCount());
+      assertEquals(game.getThiefCount(), loaded.getThiefCount());
+      assertEquals(game.getStartLocation(), loaded.getStartLocation());
+      assertEquals(game.getEndLocation(), loaded.getEndLocation());
+      assertEquals(game.getPlayerCurrentLocation(), loaded.getPlayerCurrentLocation());
+      assertEquals(game.getPlayerName(), loaded.getPlayerName());
+      assertEquals(game.getPlayerArrowCount(), loaded.getPlayerArrowCount());
+      assertEquals(game.getPlayerRubyCount(), loaded.getPlayerRubyCount());
+      assertEquals(game.getPlayerDiamondCount(), loaded.getPlayerDiamondCount());
+      assertEquals(game.getPlayerEmeraldCount(), loaded.getPlayerEmeraldCount());
+      assertEquals(game.isPlayerAlive(), loaded.isPlayerAlive());
+      for (int row = 0; row < 9; row++) {
+        for (int col = 0; col < 11; col++) {
+          GeneralLocation expected = game.getBoard()[row][col];
+          GeneralLocation actual = loaded.getBoard()[row][col];
+          assertEquals(new HashSet<>(expected.getAdjacencyList()),
+                  new HashSet<>(actual.getAdjacencyList()));
+          assertEquals(expected.getTreasuresList(), actual.getTreasuresList());
+          assertEquals(expected.getArrowCount(), actual.getArrowCount());
+          assertEquals(expected.hasMonster(), actual.hasMonster());
+          assertEquals(expected.getVisited(), actual.getVisited());
+          assertEquals(game.hasPit(expected), loaded.hasPit(actual));
+          assertEquals(game.hasThief(expected), loaded.hasThief(actual));
+          assertEquals(game.getSmellInLocation(expected), loaded.getSmellInLocation(actual));
+        }
+      }
+    }
+    finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testErrorThrownIfSavedGameIsIncomplete() throws IOException {
+    PitsThievesDungeonImpl game = new PitsThievesDungeonImpl(6, 6, 2, false, 60, 5,
+            new GeneralPlayerImpl("testPlayer"), new RandomGeneration(), GenerationMode.SHUFFLE);
+    Path path = Files.createTempFile("dungeon", ".save");
+    try {
+      DungeonFile.save(game, path);
+      byte[] bytes = Files.readAllBytes(path);
+      Files.write(path, Arrays.copyOf(bytes, bytes.length / 2));
+      DungeonFile.load(path, new RandomGeneration());
+      fail("Incomplete saved game should not be loaded");
+    }
+    catch (IllegalArgumentException exception) {
+      assertEquals(path + " is not a complete dungeon file", exception.getMessage());
+    }
+    finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testPersistentGamePlaysLikeTheGameItCopies() throws IOException {
+    // Games where the player wins, is killed by a monster or a pit and kills a monster.
+    assertPlaysLike(new PitsThievesDungeonImpl(10, 10, 8, true, 80, 8,
+            new GeneralPlayerImpl("testPlayer"), new SeededGeneration(21), GenerationMode.SHUFFLE));
+    assertPlaysLike(new PitsThievesDungeonImpl(8, 8, 6, true, 80, 20,
+            new GeneralPlayerImpl("testPlayer"), new SeededGeneration(20), GenerationMode.SHUFFLE));
+    assertPlaysLike(new PitsThievesDungeonImpl(8, 8, 6, true, 80, 20,
+            new GeneralPlayerImpl("testPlayer"), new SeededGeneration(7), GenerationMode.SHUFFLE));
+  }
+
+  // Plays the same actions on a persistent copy of the game and on the game loaded back from its
+  // save, drawing the same random numbers, and checks that both end up the same.
+  private void assertPlaysLike(PitsThievesDungeonImpl game) throws IOException {
+    int rows = game.getRowsInBoard();
+    int cols = game.getColsInBoard();
+    Path path = Files.createTempFile("dungeon", ".save");
+    try {
+      DungeonFile.save(game, path);
+      PitsThievesDungeon expected = (PitsThievesDungeon) DungeonFile.load(path,
+              new SeededGeneration(22));
+      PitsThievesDungeon actual = new PersistentDungeonGame(game, new SeededGeneration(22));
+      NumberGenerationInterface choices = new SeededGeneration(23);
+      for (int i = 0; i < 300; i++) {
+        int action = choices.getIntInRange(0, 9);
+        Directions direction = Directions.values()[choices.getIntInRange(0, 3)];
+        int distance = choices.getIntInRange(1, 4);
+        assertEquals(play(expected, action, direction, distance),
+                play(actual, action, direction, distance));
+        assertEquals(describe(expected), describe(actual));
+      }
+      for (int row = 0; row < rows; row++) {
+        for (int col = 0; col < cols; col++) {
+          GeneralLocation expectedLocation = expected.getBoard()[row][col];
+          GeneralLocation actualLocation = actual.getBoard()[row][col];
+          assertEquals(expectedLocation.getTreasuresList(), actualLocation.getTreasuresList());
+          assertEquals(expectedLocation.getArrowCount(), actualLocation.getArrowCount());
+          assertEquals(expectedLocation.hasMonster(), actualLocation.hasMonster());
+          assertEquals(expectedLocation.getVisited(), actualLocation.getVisited());
+          assertEquals(expected.hasPit(expectedLocation), actual.hasPit(actualLocation));
+          assertEquals(expected.hasThief(expectedLocation), actual.hasThief(actualLocation));
+          assertEquals(expected.getSmellInLocation(expectedLocation),
+                  actual.getSmellInLocation(actualLocation));
+        }
+      }
+    }
+    finally {
+      Files.delete(path);
+    }
+  }
+
+  @Test
+  public void testForkedGamesDoNotSeeEachOthersActions() {
+    PitsThievesDungeonImpl game = new PitsThievesDungeonImpl(8, 8, 4, false, 100, 1,
+            new GeneralPlayerImpl("testPlayer"), new SeededGeneration(31), GenerationMode.SHUFFLE);
+    PersistentDungeonGame original = new PersistentDungeonGame(game, new SeededGeneration(32));
+    String before = describe(original) + Arrays.deepToString(original.getBoard());
+    GeneralLocation start = original.getPlayerCurrentLocation();
+    PersistentDungeonGame fork = original.fork(new SeededGeneration(33));
+    if (fork.getCurrentLocationArrowCount() > 0) {
+      fork.pickAllArrows();
+    }
+    fork.pickAllTreasures();
+    fork.shootArrow(1, Directions.values()[0]);
+    PersistentDungeonGame forkOfFork = fork.fork();
+    forkOfFork.movePlayer(forkOfFork.getPlayerCurrentLocation().getPossibleDirectionMoves(8, 8)
+            .keySet().iterator().next());
+    assertEquals(before, describe(original) + Arrays.deepToString(original.getBoard()));
+    assertTrue(start.getTreasuresList().size() > 0);
+    assertEquals(0, fork.getPlayerCurrentLocation().getTreasuresList().size());
+    assertEquals(start.getTreasuresList().size(), fork.getPlayerDiamondCount()
+            + fork.getPlayerRubyCount() + fork.getPlayerEmeraldCount());
+    assertEquals(start, fork.getPlayerCurrentLocation());
+    assertFalse(start.equals(forkOfFork.getPlayerCurrentLocation()));
+  }
+
+  @Test
+  public void testNeighbourAcrossTwoWrappedRowsOrColsIsInBothDirections() {
+    int[][] sizes = {{2, 10}, {10, 2}};
+    Directions[][] axes = {{Directions.NORTH, Directions.SOUTH},
+        {Directions.EAST, Directions.WEST}};
+    for (int i = 0; i < sizes.length; i++) {
+      int rows = sizes[i][0];
+      int cols = sizes[i][1];
+      Directions first = axes[i][0];
+      Directions second = axes[i][1];
+      for (boolean wrapping : new boolean[] {true, false}) {
+        PitsThievesDungeonImpl game = new PitsThievesDungeonImpl(rows, cols, 1, wrapping, 50, 2,
+                new GeneralPlayerImpl("testPlayer"), new SeededGeneration(7),
+                GenerationMode.SHUFFLE);
+        DungeonGraph graph = game.getGraph();
+        int crossings = 0;
+        for (int cell = 0; cell < graph.getCellCount(); cell++) {
+          int firstNeighbour = graph.getNeighbour(cell, first);
+          int secondNeighbour = graph.getNeighbour(cell, second);
+          if (firstNeighbour == -1 && secondNeighbour == -1) {
+            continue;
+          }
+          crossings++;
+          List<Directions> pits = game.getPitsAroundThisLocation(
+                  game.getBoard()[cell / cols][cell % cols]);
+          if (wrapping) {
+            assertEquals(firstNeighbour, secondNeighbour);
+            assertEquals(pits.contains(first), pits.contains(second));
+          }
+          else {
+            assertTrue(firstNeighbour == -1 || secondNeighbour == -1);
+            assertFalse(pits.contains(first) && pits.contains(second));
+          }
+        }
+        assertTrue(crossings > 0);
+      }
+    }
+  }
+
+  @Test
+  public void testForkDrawsRandomNumbersOfItsOwn() {
+    PitsThievesDungeonImpl game = new PitsThievesDungeonImpl(8, 8, 4, false, 100, 2,
+            new GeneralPlayerImpl("testPlayer"), new SeededGeneration(40), GenerationMode.SHUFFLE);
+    PersistentDungeonGame played = new PersistentDungeonGame(game, new SeededGeneration(32));
+    PersistentDungeonGame unplayed = new PersistentDungeonGame(game, new SeededGeneration(32));
+    // Moves of the fork draw random numbers when they lead into pits or injured monsters.
+    PersistentDungeonGame fork = played.fork();
+    unplayed.fork();
+    NumberGenerationInterface choices = new SeededGeneration(43);
+    for (int i = 0; i < 200; i++) {
+      play(fork, 6, Directions.values()[choices.getIntInRange(0, 3)], 1);
+    }
+    choices = new SeededGeneration(43);
+    for (int i = 0; i < 200; i++) {
+      Directions direction = Directions.values()[choices.getIntInRange(0, 3)];
+      assertEquals(play(unplayed, 6, direction, 1), play(played, 6, direction, 1));
+      assertEquals(describe(unplayed), describe(played));
+    }
+    try {
+      new PersistentDungeonGame(game, new RandomGeneration()).fork();
+      fail("Game played with random generation should not be forked without a generator");
+    }
+    catch (IllegalStateException exception) {
+      assertEquals("Only games played with seeded generation can be forked without a number "
+              + "generator", exception.getMessage());
+    }
+  }
+
+  // Plays the chosen action and returns its outcome or the exception it threw.
+  private String play(PitsThievesDungeon game, int action, Directions direction, int distance) {
+    try {
+      switch (action) {
+        case 0:
+          game.pickArrow();
+          return "picked arrow";
+        case 1:
+          game.pickAllArrows();
+          return "picked arrows";
+        case 2:
+          game.pickAllTreasures();
+          return "picked treasures";
+        case 3:
+          game.pickTreasure(Treasures.values()[distance % Treasures.values().length]);
+          return "picked treasure";
+        case 4:
+        case 5:
+          return "shot " + game.shootArrow(distance, direction);
+        default:
+          game.movePlayer(direction);
+          return "moved";
+      }
+    }
+    catch (IllegalArgumentException | IllegalStateException exception) {
+      return exception.getMessage();
+    }
+  }
+
+  private String describe(PitsThievesDungeon game) {
+    return game.getPlayerCurrentLocation().getLocation() + game.getPlayerCurrLocationInfo()
+            + game.getPlayerInfo() + game.isPlayerAlive() + game.getDeathReason()
+            + game.isGameOver() + game.getPitsAroundThisLocation(game.getPlayerCurrentLocation());
+  }
+}
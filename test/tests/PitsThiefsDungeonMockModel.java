@@ -1,9 +1,11 @@
 package tests;
 
+import dungeonmodel.CaveGraph;
 import dungeonmodel.Directions;
 import dungeonmodel.GeneralLocation;
 import dungeonmodel.MonsterStatus;
 import dungeonmodel.PitsThievesDungeon;
+import dungeonmodel.RandomTape;
 import dungeonmodel.Smell;
 import dungeonmodel.Treasures;
 
@@ -263,6 +265,11 @@ class PitsThiefsDungeonMockModel implements PitsThievesDungeon {
     return null;
   }
 
+  @Override
+  public RandomTape getRandomTape() {
+    return null;
+  }
+
   @Override
   public boolean hasPit(GeneralLocation location) {
     return false;
@@ -287,5 +294,18 @@ class PitsThiefsDungeonMockModel implements PitsThievesDungeon {
     return this.mockModelLog;
   }
 
-}
+  @Override
+  public CaveGraph getCaveGraph() {
+    return null;
+  }
 
+  @Override
+  public int getPitCount() {
+    return 0;
+  }
+
+  @Override
+  public int getThiefCount() {
+    return 0;
+  }
+}